@@ -0,0 +1,21 @@
+package edu.ufl.cise.plc.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// runs the benchmarks whose names match the argument (all of them by default) with the GC profiler,
+// so the allocation rate per operation (gc.alloc.rate.norm) is reported next to every score
+public class BenchmarkMain {
+
+	public static void main(String[] args) throws RunnerException {
+		Options options = new OptionsBuilder()
+				.include(args.length > 0 ? args[0] : "edu.ufl.cise.plc.bench")
+				.addProfiler(GCProfiler.class)
+				.build();
+		new Runner(options).run();
+	}
+
+}
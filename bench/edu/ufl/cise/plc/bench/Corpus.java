@@ -0,0 +1,93 @@
+package edu.ufl.cise.plc.bench;
+
+import java.util.Random;
+
+// generates synthetic PLC sources for the benchmarks.
+// the same seed is used every time, so every run measures the same input.
+public class Corpus {
+
+	// what most of the characters of a generated source are spent on
+	public enum Shape {
+		IDENT, // identifiers and keywords
+		NUMERIC, // int and float literals
+		COMMENT, // long comment lines
+		STRING, // long string literals
+		MIXED, // expressions mixing all of the above
+	}
+
+	static final String[] WORDS = { "x", "width", "pixelCount", "getRed", "if", "else", "fi", "BLUE", "image",
+			"temp_1", "$acc", "LIGHT_GRAY", "true" };
+
+	private Corpus() {
+	}
+
+	// returns a source of about size characters
+	public static String generate(Shape shape, int size) {
+		Random r = new Random(42);
+		StringBuilder sb = new StringBuilder(size + 100);
+		while (sb.length() < size) {
+			switch (shape) {
+			case IDENT -> sb.append(WORDS[r.nextInt(WORDS.length)]).append(r.nextInt(4) == 0 ? '\n' : ' ');
+			case NUMERIC -> {
+				if (r.nextBoolean()) {
+					sb.append(r.nextInt(1000000));
+				}
+				else {
+					sb.append(r.nextInt(1000)).append('.').append(r.nextInt(1000));
+				}
+				sb.append(r.nextInt(8) == 0 ? '\n' : ' ');
+			}
+			case COMMENT -> sb.append("# ").append("comment text ".repeat(1 + r.nextInt(8))).append('\n')
+					.append("x;\n");
+			case STRING -> sb.append('"').append("some string text ".repeat(1 + r.nextInt(16))).append("\"\n");
+			case MIXED -> sb.append(expression(r, 3)).append(" # note\n");
+			}
+		}
+		return sb.toString();
+	}
+
+	// returns a single expression with the given number of binary operators, left to right
+	public static String flatExpression(int operators) {
+		Random r = new Random(42);
+		StringBuilder sb = new StringBuilder();
+		sb.append("a");
+		String[] ops = { " + ", " * ", " - ", " / ", " < ", " & ", " | ", " == " };
+		for (int i = 0; i < operators; i++) {
+			sb.append(ops[r.nextInt(ops.length)]).append(r.nextBoolean() ? "b" + i : Integer.toString(i));
+		}
+		return sb.toString();
+	}
+
+	// returns a single expression with depth levels of nested parentheses and conditionals
+	public static String nestedExpression(int depth) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < depth; i++) {
+			sb.append(i % 2 == 0 ? "(a + " : "(if (b & c) ");
+		}
+		sb.append("x");
+		for (int i = depth - 1; i >= 0; i--) {
+			sb.append(i % 2 == 0 ? ")" : " else 1 fi)");
+		}
+		return sb.toString();
+	}
+
+	// returns a random expression nested up to depth levels
+	static String expression(Random r, int depth) {
+		if (depth == 0 || r.nextInt(3) == 0) {
+			return switch (r.nextInt(4)) {
+			case 0 -> WORDS[r.nextInt(3)];
+			case 1 -> Integer.toString(r.nextInt(500));
+			case 2 -> r.nextInt(100) + "." + r.nextInt(100);
+			default -> "\"text\"";
+			};
+		}
+		return switch (r.nextInt(4)) {
+		case 0 -> "(" + expression(r, depth - 1) + " + " + expression(r, depth - 1) + ")";
+		case 1 -> expression(r, depth - 1) + " * " + expression(r, depth - 1);
+		case 2 -> "if (" + expression(r, depth - 1) + ") " + expression(r, depth - 1) + " else "
+				+ expression(r, depth - 1) + " fi";
+		default -> "img[" + expression(r, depth - 1) + ", y] <= -" + expression(r, depth - 1);
+		};
+	}
+
+}
@@ -0,0 +1,61 @@
+package edu.ufl.cise.plc.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.ufl.cise.plc.TokenBuffer;
+
+// cost of one keystroke in the middle of a source, for sources of increasing length.
+// keystroke types two characters and then deletes them again on the next call, so the source keeps its
+// size and TokenBuffer.edit only re-lexes around them. its time should not grow with the number of
+// lines, unlike relex, which lexes the whole source again the way an editor would without edit.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EditBenchmark {
+
+	@Param({ "100", "10000", "1000000" })
+	public int lines;
+
+	String source;
+	TokenBuffer buf;
+	// offset of the keystrokes, just before the x of a line in the middle
+	int offset;
+	boolean typed;
+
+	@Setup
+	public void setup() {
+		source = "abc = 12 + x;\n".repeat(lines);
+		buf = TokenBuffer.lex(source);
+		offset = lines / 2 * 14 + 11;
+		// the first edit makes room for the gaps, so it is not measured
+		buf.edit(offset, 0, "y ");
+		typed = true;
+	}
+
+	@Benchmark
+	public TokenBuffer keystroke() {
+		typed = !typed;
+		return typed ? buf.edit(offset, 0, "y ") : buf.edit(offset, 2, "");
+	}
+
+	@Benchmark
+	public TokenBuffer relex() {
+		return TokenBuffer.lex(source);
+	}
+
+}
@@ -0,0 +1,86 @@
+package edu.ufl.cise.plc.bench;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.ufl.cise.plc.CompilerComponentFactory;
+import edu.ufl.cise.plc.Environment;
+import edu.ufl.cise.plc.IExprCompiler;
+import edu.ufl.cise.plc.ImageEngine;
+import edu.ufl.cise.plc.Interpreter.CompiledExpr;
+import edu.ufl.cise.plc.ast.Expr;
+import edu.ufl.cise.plc.ast.Types.Type;
+import edu.ufl.cise.plc.runtime.ColorOps;
+import edu.ufl.cise.plc.runtime.Image;
+
+// pixels per second of ImageEngine rendering a SIZE x SIZE image from another one, with either
+// compiler, on one thread or on every core. gc.alloc.rate.norm is per pixel, so the 4 bytes of the
+// new image's pixel are the floor.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ImageBenchmark {
+	static final int SIZE = 1024;
+
+	@Param({ "interpreter", "bytecode" })
+	public String compiler;
+
+	// 0 is every core
+	@Param({ "1", "0" })
+	public int threads;
+
+	Environment env;
+	CompiledExpr compiled;
+	ForkJoinPool pool;
+
+	@Setup
+	public void setup() throws Exception {
+		env = new Environment();
+		env.declare("src", Type.IMAGE);
+		env.declare("x", Type.INT);
+		env.declare("y", Type.INT);
+		Random r = new Random(24);
+		int[] pixels = new int[SIZE * SIZE];
+		for (int i = 0; i < pixels.length; i++) {
+			pixels[i] = ColorOps.ALPHA | r.nextInt(1 << 24);
+		}
+		env.setImage("src", new Image(SIZE, SIZE, pixels));
+		// a horizontal blur, darkened along a diagonal
+		Expr ast = (Expr) CompilerComponentFactory.getParser(
+				"if ((x + y) % 8 == 0) src[x, y] / 2 else (src[x - 1, y] + src[x, y] * 2 + src[x + 1, y]) / 4 fi").parse();
+		IExprCompiler exprCompiler = compiler.equals("bytecode") ? CompilerComponentFactory.getBytecodeCompiler()
+				: CompilerComponentFactory.getInterpreter();
+		compiled = exprCompiler.compile(ast, env);
+		pool = new ForkJoinPool(threads == 0 ? Runtime.getRuntime().availableProcessors() : threads);
+	}
+
+	@TearDown
+	public void tearDown() {
+		pool.shutdown();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(SIZE * SIZE)
+	public Image render() throws Exception {
+		return ImageEngine.render(compiled, env, SIZE, SIZE, pool, pool.getParallelism() * 4);
+	}
+
+}
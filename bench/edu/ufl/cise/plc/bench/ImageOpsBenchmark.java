@@ -0,0 +1,114 @@
+package edu.ufl.cise.plc.bench;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.ufl.cise.plc.CompilerComponentFactory;
+import edu.ufl.cise.plc.Environment;
+import edu.ufl.cise.plc.ImageEngine;
+import edu.ufl.cise.plc.Interpreter.CompiledExpr;
+import edu.ufl.cise.plc.ast.Expr;
+import edu.ufl.cise.plc.ast.Types.Type;
+import edu.ufl.cise.plc.runtime.ColorOps;
+import edu.ufl.cise.plc.runtime.Image;
+import edu.ufl.cise.plc.runtime.ImageOps;
+
+// pixels per second of the ImageOps kernels, packed against scalar, on SIZE x SIZE images, and of
+// the same operation evaluated one pixel at a time by ImageEngine with the bytecode compiler, on
+// one thread
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ImageOpsBenchmark {
+	static final int SIZE = 1024;
+
+	// ADD is a + b, SUBTRACT is a - b and SCALE is a * 3
+	@Param({ "ADD", "SUBTRACT", "SCALE" })
+	public String op;
+
+	int[] a;
+	int[] b;
+	int[] out;
+	Environment env;
+	CompiledExpr perPixel;
+	ForkJoinPool pool;
+
+	@Setup
+	public void setup() throws Exception {
+		Random r = new Random(25);
+		a = new int[SIZE * SIZE];
+		b = new int[SIZE * SIZE];
+		out = new int[SIZE * SIZE];
+		for (int i = 0; i < a.length; i++) {
+			a[i] = ColorOps.ALPHA | r.nextInt(1 << 24);
+			b[i] = ColorOps.ALPHA | r.nextInt(1 << 24);
+		}
+		env = new Environment();
+		env.declare("a", Type.IMAGE);
+		env.declare("b", Type.IMAGE);
+		env.declare("x", Type.INT);
+		env.declare("y", Type.INT);
+		env.setImage("a", new Image(SIZE, SIZE, a));
+		env.setImage("b", new Image(SIZE, SIZE, b));
+		String source = switch (op) {
+		case "ADD" -> "a[x, y] + b[x, y]";
+		case "SUBTRACT" -> "a[x, y] - b[x, y]";
+		default -> "a[x, y] * 3";
+		};
+		Expr ast = (Expr) CompilerComponentFactory.getParser(source).parse();
+		perPixel = CompilerComponentFactory.getBytecodeCompiler().compile(ast, env);
+		pool = new ForkJoinPool(1);
+	}
+
+	@TearDown
+	public void tearDown() {
+		pool.shutdown();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(SIZE * SIZE)
+	public int[] packed() {
+		switch (op) {
+		case "ADD" -> ImageOps.add(a, b, out);
+		case "SUBTRACT" -> ImageOps.subtract(a, b, out);
+		default -> ImageOps.multiply(a, ColorOps.fromInt(3), out);
+		}
+		return out;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(SIZE * SIZE)
+	public int[] scalar() {
+		switch (op) {
+		case "ADD" -> ImageOps.addScalar(a, b, out);
+		case "SUBTRACT" -> ImageOps.subtractScalar(a, b, out);
+		default -> ImageOps.multiplyScalar(a, ColorOps.fromInt(3), out);
+		}
+		return out;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(SIZE * SIZE)
+	public Image perPixel() throws Exception {
+		return ImageEngine.render(perPixel, env, SIZE, SIZE, pool, 1);
+	}
+
+}
@@ -0,0 +1,99 @@
+package edu.ufl.cise.plc.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.ufl.cise.plc.BytecodeCompiler;
+import edu.ufl.cise.plc.CompilerComponentFactory;
+import edu.ufl.cise.plc.Environment;
+import edu.ufl.cise.plc.Interpreter;
+import edu.ufl.cise.plc.Interpreter.CompiledExpr;
+import edu.ufl.cise.plc.VisitorInterpreter;
+import edu.ufl.cise.plc.ast.Expr;
+import edu.ufl.cise.plc.ast.Types.Type;
+
+// evaluations per second of one expression, for EVALUATIONS values of x, by the compiled evaluator
+// nodes of Interpreter, by BytecodeCompiler and by walking the AST with boxed values
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InterpreterBenchmark {
+	static final int EVALUATIONS = 1000;
+
+	// INT is integer arithmetic and comparisons, FLOAT mixes ints and floats
+	@Param({ "INT", "FLOAT" })
+	public String shape;
+
+	Environment env;
+	Expr ast;
+	CompiledExpr compiled;
+	CompiledExpr bytecode;
+
+	@Setup
+	public void setup() throws Exception {
+		env = new Environment();
+		env.declare("x", Type.INT);
+		env.declare("y", Type.INT);
+		env.declare("f", Type.FLOAT);
+		env.setInt("y", 37);
+		env.setFloat("f", 0.75f);
+		String source = shape.equals("INT")
+				? "if (x % 3 == 0 & x > y) (x * 31 + y) / 7 - x % 5 else (x - y) * (x + y) + 2 * x fi"
+				: "if (x < y | f > 0.5) x * f + (y - x) / 2.5 else f * f - x / 3 fi";
+		// lexed with the table of env, so the visitor resolves each identifier by its id
+		ast = (Expr) CompilerComponentFactory.getParser(source, env.symbols()).parse();
+		compiled = Interpreter.compile(ast, env);
+		bytecode = BytecodeCompiler.compile(ast, env);
+	}
+
+	// the results are read unboxed, with evalInt or evalFloat
+	@Benchmark
+	@OperationsPerInvocation(EVALUATIONS)
+	public float compiled() {
+		return sum(compiled);
+	}
+
+	// the expression compiled to a hidden class
+	@Benchmark
+	@OperationsPerInvocation(EVALUATIONS)
+	public float bytecode() {
+		return sum(bytecode);
+	}
+
+	private float sum(CompiledExpr e) {
+		float sum = 0;
+		boolean ints = e.type == Type.INT;
+		for (int x = 0; x < EVALUATIONS; x++) {
+			env.setInt(0, x);
+			sum += ints ? e.evalInt(env) : e.evalFloat(env);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(EVALUATIONS)
+	public float visitor() throws Exception {
+		float sum = 0;
+		for (int x = 0; x < EVALUATIONS; x++) {
+			env.setInt(0, x);
+			sum += ((Number) VisitorInterpreter.eval(ast, env)).floatValue();
+		}
+		return sum;
+	}
+
+}
@@ -0,0 +1,106 @@
+package edu.ufl.cise.plc.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import edu.ufl.cise.plc.CompilerComponentFactory;
+import edu.ufl.cise.plc.ILexer;
+import edu.ufl.cise.plc.IToken;
+import edu.ufl.cise.plc.IToken.Kind;
+import edu.ufl.cise.plc.Lexer;
+import edu.ufl.cise.plc.LexicalException;
+import edu.ufl.cise.plc.TableLexer;
+import edu.ufl.cise.plc.TokenBuffer;
+
+// tokenization throughput on the synthetic corpora.
+// besides whole sources per second, the chars and tokens counters report characters per second
+// (bytes per second, since the corpora are ASCII) and tokens per second.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LexerBenchmark {
+
+	@Param({ "IDENT", "NUMERIC", "COMMENT", "STRING", "MIXED" })
+	public Corpus.Shape shape;
+
+	@Param({ "1048576" })
+	public int size;
+
+	String source;
+
+	// characters and tokens scanned, reported as rates
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	@State(Scope.Thread)
+	public static class Counters {
+		public long chars;
+		public long tokens;
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			chars = 0;
+			tokens = 0;
+		}
+	}
+
+	@Setup
+	public void setup() {
+		source = Corpus.generate(shape, size);
+	}
+
+	// reads every token from the lexer, returning the number of tokens
+	static long drain(ILexer lexer, Blackhole bh) throws LexicalException {
+		long n = 0;
+		IToken t;
+		do {
+			t = lexer.next();
+			bh.consume(t);
+			n++;
+		} while (t.getKind() != Kind.EOF);
+		return n;
+	}
+
+	@Benchmark
+	public void lexer(Counters c, Blackhole bh) throws LexicalException {
+		c.tokens += drain(new Lexer(source), bh);
+		c.chars += source.length();
+	}
+
+	// the same DFA run from a transition table, to compare with the switch version above
+	@Benchmark
+	public void tableLexer(Counters c, Blackhole bh) throws LexicalException {
+		c.tokens += drain(new TableLexer(source), bh);
+		c.chars += source.length();
+	}
+
+	@Benchmark
+	public void factoryLexer(Counters c, Blackhole bh) throws LexicalException {
+		c.tokens += drain(CompilerComponentFactory.getLexer(source), bh);
+		c.chars += source.length();
+	}
+
+	@Benchmark
+	public void tokenBuffer(Counters c, Blackhole bh) {
+		TokenBuffer buf = TokenBuffer.lex(source);
+		bh.consume(buf);
+		c.tokens += buf.size();
+		c.chars += source.length();
+	}
+
+}
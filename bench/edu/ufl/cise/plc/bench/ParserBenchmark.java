@@ -0,0 +1,69 @@
+package edu.ufl.cise.plc.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.ufl.cise.plc.CompilerComponentFactory;
+import edu.ufl.cise.plc.FlatAST;
+import edu.ufl.cise.plc.PLCException;
+import edu.ufl.cise.plc.ast.ASTNode;
+
+// end to end throughput of lexing and parsing a single expression
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParserBenchmark {
+
+	// FLAT is a long chain of binary operators, NESTED is deeply nested parentheses and conditionals
+	@Param({ "FLAT", "NESTED" })
+	public String shape;
+
+	// the recursive parsers overflow the default thread stack on NESTED sources much deeper than 300
+	@Param({ "100", "300" })
+	public int size;
+
+	String source;
+
+	@Setup
+	public void setup() {
+		source = shape.equals("FLAT") ? Corpus.flatExpression(size) : Corpus.nestedExpression(size);
+	}
+
+	@Benchmark
+	public ASTNode parse() throws PLCException {
+		return CompilerComponentFactory.getParser(source).parse();
+	}
+
+	// the parser that keeps explicit stacks instead of recursing
+	@Benchmark
+	public ASTNode parseStackSafe() throws PLCException {
+		return CompilerComponentFactory.getStackSafeParser(source).parse();
+	}
+
+	// the same expression parsed into arrays, which allocates a few objects instead of one per node
+	@Benchmark
+	public FlatAST parseFlat() throws PLCException {
+		return CompilerComponentFactory.getFlatAST(source);
+	}
+
+	// the recursive descent parser, with one call per precedence level for every operand
+	@Benchmark
+	public ASTNode parseRecursiveDescent() throws PLCException {
+		return CompilerComponentFactory.getRecursiveDescentParser(source).parse();
+	}
+
+}
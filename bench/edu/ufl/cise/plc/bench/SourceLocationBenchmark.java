@@ -0,0 +1,73 @@
+package edu.ufl.cise.plc.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.ufl.cise.plc.IToken.SourceLocation;
+import edu.ufl.cise.plc.LineIndex;
+import edu.ufl.cise.plc.Token;
+import edu.ufl.cise.plc.TokenBuffer;
+
+// cost of finding the line and column of a token, for sources of increasing length.
+// each operation looks up a token at a random position, the way diagnostics do.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SourceLocationBenchmark {
+
+	@Param({ "100", "10000", "1000000" })
+	public int lines;
+
+	TokenBuffer buf;
+	int[] order;
+	int next;
+
+	@Setup
+	public void setup() {
+		buf = TokenBuffer.lex("abc = 12 + x;\n".repeat(lines));
+		Random r = new Random(42);
+		order = new int[1 << 12];
+		for (int i = 0; i < order.length; i++) {
+			order[i] = r.nextInt(buf.size());
+		}
+	}
+
+	int nextToken() {
+		next = (next + 1) & (order.length - 1);
+		return order[next];
+	}
+
+	// a fresh token that resolves its location lazily, so the cache does not hide the lookup
+	@Benchmark
+	public SourceLocation tokenLocation() {
+		int i = nextToken();
+		return new Token(buf.kind(i), buf.text(i), buf.pos(i), buf.length(i), buf.lines()).getSourceLocation();
+	}
+
+	@Benchmark
+	public SourceLocation lineIndex() {
+		LineIndex index = buf.lines();
+		return index.location(buf.pos(nextToken()));
+	}
+
+	@Benchmark
+	public SourceLocation bufferView() {
+		return buf.get(nextToken()).getSourceLocation();
+	}
+
+}
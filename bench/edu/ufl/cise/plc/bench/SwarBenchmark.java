@@ -0,0 +1,101 @@
+package edu.ufl.cise.plc.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import edu.ufl.cise.plc.Lexer;
+import edu.ufl.cise.plc.LexicalException;
+import edu.ufl.cise.plc.Swar;
+
+// the bulk scans of Swar against their scalar versions, each walking the whole corpus,
+// and the lexer with each way of skipping runs of chars
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SwarBenchmark {
+
+	@Param({ "IDENT", "COMMENT", "MIXED" })
+	public Corpus.Shape shape;
+
+	@Param({ "1048576" })
+	public int size;
+
+	String source;
+	char[] chars;
+
+	@Setup
+	public void setup() {
+		source = Corpus.generate(shape, size);
+		chars = source.toCharArray();
+	}
+
+	@Benchmark
+	public int lines() {
+		int n = 0;
+		for (int i = 0; i < chars.length; i = Swar.indexOf(chars, i, chars.length, '\n') + 1) {
+			n++;
+		}
+		return n;
+	}
+
+	@Benchmark
+	public int linesScalar() {
+		int n = 0;
+		for (int i = 0; i < chars.length; i = Swar.indexOfScalar(chars, i, chars.length, '\n') + 1) {
+			n++;
+		}
+		return n;
+	}
+
+	// each step skips an identifier and the char after it
+	@Benchmark
+	public int identifiers() {
+		int n = 0;
+		for (int i = 0; i < chars.length; i = Swar.skipIdentifier(chars, i, chars.length) + 1) {
+			n++;
+		}
+		return n;
+	}
+
+	@Benchmark
+	public int identifiersScalar() {
+		int n = 0;
+		for (int i = 0; i < chars.length; i = Swar.skipIdentifierScalar(chars, i, chars.length) + 1) {
+			n++;
+		}
+		return n;
+	}
+
+	@Benchmark
+	public void lexer(Blackhole bh) throws LexicalException {
+		bh.consume(LexerBenchmark.drain(new Lexer(source), bh));
+	}
+
+	@Benchmark
+	@Fork(value = 1, jvmArgsAppend = "-Dplc.lexer.skip=swar")
+	public void lexerSwar(Blackhole bh) throws LexicalException {
+		bh.consume(LexerBenchmark.drain(new Lexer(source), bh));
+	}
+
+	@Benchmark
+	@Fork(value = 1, jvmArgsAppend = "-Dplc.lexer.skip=none")
+	public void lexerNoSkip(Blackhole bh) throws LexicalException {
+		bh.consume(LexerBenchmark.drain(new Lexer(source), bh));
+	}
+
+}
@@ -0,0 +1,97 @@
+package edu.ufl.cise.plc;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import edu.ufl.cise.plc.ast.ASTNode;
+
+// compiles many source files at once, lexing and parsing them in parallel on a ForkJoinPool.
+// the list of files is split in halves until each task has a single file, and idle workers steal
+// the halves that have not been started yet.
+// the identifiers of all the files of one call to compile are interned in one symbol table, so their
+// ids can be compared across the files, and the table is dropped with the results.
+// each file is memory mapped and lexed one chunk at a time, so apart from the results, the memory
+// in use is one lexer window and one partial AST per worker.
+public class BatchCompiler {
+	// outcome of compiling one file: its AST, or the exception that stopped it
+	public record Result(Path path, ASTNode ast, PLCException error) {
+		public boolean succeeded() {
+			return error == null;
+		}
+	}
+
+	// pool the files are compiled on
+	final ForkJoinPool pool;
+
+	// creates a compiler that runs on the common pool, with one worker per core
+	public BatchCompiler() {
+		this(ForkJoinPool.commonPool());
+	}
+
+	public BatchCompiler(ForkJoinPool _pool) {
+		pool = _pool;
+	}
+
+	// compiles every file, returning one result per file in the same order as files
+	public List<Result> compile(List<Path> files) {
+		Result[] results = new Result[files.size()];
+		pool.invoke(new CompileTask(files, new SymbolTable(), results, 0, files.size()));
+		return Arrays.asList(results);
+	}
+
+	// lexes and parses a single file
+	public static Result compile(Path path) {
+		return compile(path, new SymbolTable());
+	}
+
+	// lexes and parses a single file, interning its identifiers in symbols
+	public static Result compile(Path path, SymbolTable symbols) {
+		try {
+			ASTNode ast = CompilerComponentFactory.getParser(path, symbols).parse();
+			return new Result(path, ast, null);
+		}
+		catch (PLCException e) {
+			return new Result(path, null, e);
+		}
+		catch (IOException e) {
+			return new Result(path, null, new PLCException(e));
+		}
+	}
+
+	// compiles the files from start to end, splitting the range until it has one file
+	@SuppressWarnings("serial")
+	static class CompileTask extends RecursiveAction {
+		final List<Path> files;
+		final SymbolTable symbols;
+		final Result[] results;
+		final int start;
+		final int end;
+
+		CompileTask(List<Path> _files, SymbolTable _symbols, Result[] _results, int _start, int _end) {
+			files = _files;
+			symbols = _symbols;
+			results = _results;
+			start = _start;
+			end = _end;
+		}
+
+		@Override
+		protected void compute() {
+			if (end - start <= 1) {
+				if (start < end) {
+					// each task writes only its own slot, so the order of the results is fixed
+					results[start] = compile(files.get(start), symbols);
+				}
+				return;
+			}
+			int mid = (start + end) >>> 1;
+			invokeAll(new CompileTask(files, symbols, results, start, mid),
+					new CompileTask(files, symbols, results, mid, end));
+		}
+	}
+
+}
@@ -0,0 +1,60 @@
+package edu.ufl.cise.plc;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+// decodes the bytes of a buffer, for example a memory mapped file, straight into the caller's array.
+// only as many bytes as fit in the array are decoded on each call, so the whole source is never
+// held as chars at once.
+class ByteBufferReader extends Reader {
+	// bytes that have not been decoded yet
+	final ByteBuffer bytes;
+	final CharsetDecoder decoder;
+	// true once all the bytes have been decoded and the decoder is being flushed
+	boolean flushing;
+	// true once the decoder has been flushed
+	boolean done;
+
+	ByteBufferReader(ByteBuffer _bytes, Charset charset) {
+		bytes = _bytes;
+		decoder = charset.newDecoder()
+				.onMalformedInput(CodingErrorAction.REPORT)
+				.onUnmappableCharacter(CodingErrorAction.REPORT);
+	}
+
+	@Override
+	public int read(char[] cbuf, int off, int len) throws IOException {
+		if (done) {
+			return -1;
+		}
+		CharBuffer out = CharBuffer.wrap(cbuf, off, len);
+		if (!flushing) {
+			CoderResult result = decoder.decode(bytes, out, true);
+			if (result.isError()) {
+				result.throwException();
+			}
+			// underflow means every byte has been decoded
+			flushing = result.isUnderflow();
+		}
+		if (flushing) {
+			CoderResult result = decoder.flush(out);
+			if (result.isError()) {
+				result.throwException();
+			}
+			done = result.isUnderflow();
+		}
+		int n = out.position() - off;
+		return n == 0 && done ? -1 : n;
+	}
+
+	@Override
+	public void close() {
+	}
+
+}
@@ -0,0 +1,390 @@
+package edu.ufl.cise.plc;
+
+import static edu.ufl.cise.plc.ClassFileWriter.*;
+
+import java.lang.invoke.MethodHandles;
+
+import edu.ufl.cise.plc.IToken.Kind;
+import edu.ufl.cise.plc.Interpreter.BooleanNode;
+import edu.ufl.cise.plc.Interpreter.CompiledExpr;
+import edu.ufl.cise.plc.Interpreter.FloatNode;
+import edu.ufl.cise.plc.Interpreter.IntNode;
+import edu.ufl.cise.plc.Interpreter.ObjectNode;
+import edu.ufl.cise.plc.ast.ASTVisitor;
+import edu.ufl.cise.plc.ast.BinaryExpr;
+import edu.ufl.cise.plc.ast.BooleanLitExpr;
+import edu.ufl.cise.plc.ast.ConditionalExpr;
+import edu.ufl.cise.plc.ast.Expr;
+import edu.ufl.cise.plc.ast.FloatLitExpr;
+import edu.ufl.cise.plc.ast.IdentExpr;
+import edu.ufl.cise.plc.ast.IntLitExpr;
+import edu.ufl.cise.plc.ast.PixelSelector;
+import edu.ufl.cise.plc.ast.StringLitExpr;
+import edu.ufl.cise.plc.ast.Types.Type;
+import edu.ufl.cise.plc.ast.UnaryExpr;
+import edu.ufl.cise.plc.ast.UnaryExprPostfix;
+
+// compiles an expression into JVM bytecode: a hidden class with one method that evaluates it, so the
+// JIT compiles each expression like a hand-written Java method, with no per-node calls left.
+// the class implements the evaluator node interface of Interpreter for the type of the expression,
+// and the result is a CompiledExpr used exactly like one from Interpreter.
+// variables are read from the arrays of the Environment passed to the method, at the slots they were
+// declared in, since the hidden class is in this package.
+// types are checked with Interpreter before any code is written, and constants are then folded with
+// ConstantFolder, whose rewrites give the same value for every value of the variables (it keeps
+// f + 0 for a float f, which is 0.0 for -0.0), so the semantics are the same as the interpreter's.
+// an expression too big for one method is interpreted instead.
+// the hidden classes are not tied to the class loader, so each is unloaded once its CompiledExpr is
+// no longer reachable.
+public class BytecodeCompiler implements ASTVisitor {
+	private static final String ENVIRONMENT = "edu/ufl/cise/plc/Environment";
+	private static final String COLOR_OPS = "edu/ufl/cise/plc/runtime/ColorOps";
+	private static final String IMAGE = "edu/ufl/cise/plc/runtime/Image";
+	private static final String IMAGE_OPS = "edu/ufl/cise/plc/runtime/ImageOps";
+	private static final String EVAL = "(L" + ENVIRONMENT + ";)";
+
+	final Environment env;
+	final ClassFileWriter writer = new ClassFileWriter();
+	final ClassFileWriter.Code code = writer.newCode();
+
+	private BytecodeCompiler(Environment _env) {
+		env = _env;
+	}
+
+	// compiles e for the variables declared in env
+	public static CompiledExpr compile(Expr e, Environment env) throws TypeCheckException {
+		CompiledExpr interpreted = Interpreter.compile(e, env);
+		if (interpreted.constant) {
+			return interpreted;
+		}
+		BytecodeCompiler compiler = new BytecodeCompiler(env);
+		Object node = compiler.define(ConstantFolder.fold(e, env));
+		return switch (interpreted.type) {
+		case INT, COLOR -> node == null ? interpreted : Interpreter.intExpr(interpreted.type, (IntNode) node, false);
+		case FLOAT -> node == null ? interpreted : Interpreter.floatExpr((FloatNode) node, false);
+		case BOOLEAN -> node == null ? interpreted : Interpreter.booleanExpr((BooleanNode) node, false);
+		default -> node == null ? interpreted : Interpreter.objectExpr(interpreted.type, (ObjectNode) node, false);
+		};
+	}
+
+	// writes and loads the class for e, which has been type checked, and returns an instance of it,
+	// or null if e is too big
+	private Object define(Expr e) {
+		Type type = emit(e);
+		String node;
+		String descriptor;
+		switch (type) {
+		case INT, COLOR -> {
+			node = "IntNode";
+			descriptor = EVAL + "I";
+			code.op(IRETURN, -1);
+		}
+		case FLOAT -> {
+			node = "FloatNode";
+			descriptor = EVAL + "F";
+			code.op(FRETURN, -1);
+		}
+		case BOOLEAN -> {
+			node = "BooleanNode";
+			descriptor = EVAL + "Z";
+			code.op(IRETURN, -1);
+		}
+		default -> {
+			node = "ObjectNode";
+			descriptor = EVAL + "Ljava/lang/Object;";
+			code.op(ARETURN, -1);
+		}
+		}
+		if (!writer.addMethod(ACC_PUBLIC | ACC_FINAL, "eval", descriptor, code, 2)) {
+			return null;
+		}
+		ClassFileWriter.Code init = writer.newCode();
+		init.op(ALOAD_0, 1);
+		init.op(INVOKESPECIAL, writer.methodRef("java/lang/Object", "<init>", "()V"), -1);
+		init.op(RETURN, 0);
+		writer.addMethod(ACC_PUBLIC, "<init>", "()V", init, 1);
+		if (!writer.fits()) {
+			return null;
+		}
+		byte[] bytes = writer.toByteArray(ACC_PUBLIC | ACC_FINAL | ACC_SUPER, "edu/ufl/cise/plc/CompiledExpr",
+				"java/lang/Object", "edu/ufl/cise/plc/Interpreter$" + node);
+		try {
+			MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(bytes, true);
+			return lookup.lookupClass().getConstructor().newInstance();
+		}
+		catch (ReflectiveOperationException ex) {
+			// the class is written by this compiler, so it always loads
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	// writes the code that pushes the value of e, and returns its type
+	private Type emit(Expr e) {
+		try {
+			return (Type) e.visit(this, null);
+		}
+		catch (RuntimeException ex) {
+			throw ex;
+		}
+		catch (Exception ex) {
+			// the visit methods throw no checked exceptions
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	@Override
+	public Object visitBooleanLitExpr(BooleanLitExpr booleanLitExpr, Object arg) {
+		code.pushInt(booleanLitExpr.getValue() ? 1 : 0);
+		return Type.BOOLEAN;
+	}
+
+	@Override
+	public Object visitStringLitExpr(StringLitExpr stringLitExpr, Object arg) {
+		code.pushString(stringLitExpr.getValue());
+		return Type.STRING;
+	}
+
+	@Override
+	public Object visitIntLitExpr(IntLitExpr intLitExpr, Object arg) {
+		code.pushInt(intLitExpr.getValue());
+		return Type.INT;
+	}
+
+	@Override
+	public Object visitFloatLitExpr(FloatLitExpr floatLitExpr, Object arg) {
+		code.pushFloat(floatLitExpr.getValue());
+		return Type.FLOAT;
+	}
+
+	// env.ints[slot], env.floats[slot] or env.objects[slot]
+	@Override
+	public Object visitIdentExpr(IdentExpr identExpr, Object arg) {
+		int slot = env.slot(identExpr);
+		Type type = env.type(slot);
+		code.op(ALOAD_1, 1);
+		switch (type) {
+		case INT, COLOR, BOOLEAN -> {
+			code.op(GETFIELD, writer.fieldRef(ENVIRONMENT, "ints", "[I"), 0);
+			code.pushInt(slot);
+			code.op(IALOAD, -1);
+		}
+		case FLOAT -> {
+			code.op(GETFIELD, writer.fieldRef(ENVIRONMENT, "floats", "[F"), 0);
+			code.pushInt(slot);
+			code.op(FALOAD, -1);
+		}
+		default -> {
+			code.op(GETFIELD, writer.fieldRef(ENVIRONMENT, "objects", "[Ljava/lang/Object;"), 0);
+			code.pushInt(slot);
+			code.op(AALOAD, -1);
+			// an image is cast once, where it is read, so every image on the stack is an Image
+			if (type == Type.IMAGE) {
+				code.op(CHECKCAST, writer.classRef(IMAGE), 0);
+			}
+		}
+		}
+		return type;
+	}
+
+	@Override
+	public Object visitUnaryExpr(UnaryExpr unaryExpr, Object arg) {
+		Type type = emit(unaryExpr.getExpr());
+		IToken op = unaryExpr.getOp();
+		switch (op.getKind()) {
+		case BANG -> {
+			code.pushInt(1);
+			code.op(IXOR, -1);
+		}
+		case MINUS -> code.op(type == Type.INT ? INEG : FNEG, 0);
+		case COLOR_OP -> {
+			String component = switch (op.getText()) {
+			case "getRed" -> "red";
+			case "getGreen" -> "green";
+			default -> "blue";
+			};
+			code.op(INVOKESTATIC, writer.methodRef(COLOR_OPS, component, "(I)I"), 0);
+			type = Type.INT;
+		}
+		case IMAGE_OP -> {
+			// e.width or e.height
+			String field = op.getText().equals("getWidth") ? "width" : "height";
+			code.op(GETFIELD, writer.fieldRef(IMAGE, field, "I"), 0);
+			type = Type.INT;
+		}
+		default -> throw new IllegalStateException("not type checked");
+		}
+		return type;
+	}
+
+	@Override
+	public Object visitBinaryExpr(BinaryExpr binaryExpr, Object arg) {
+		Kind op = binaryExpr.getOp().getKind();
+		if (op == Kind.AND || op == Kind.OR) {
+			// a & b is a ? b : false, and a | b is a ? true : b
+			emit(binaryExpr.getLeft());
+			int depth = code.stack - 1;
+			int shortCircuit = code.newLabel();
+			int end = code.newLabel();
+			code.jump(op == Kind.AND ? IFEQ : IFNE, shortCircuit, 1);
+			emit(binaryExpr.getRight());
+			code.jump(GOTO, end, 0);
+			code.place(shortCircuit, depth);
+			code.pushInt(op == Kind.AND ? 0 : 1);
+			code.place(end, depth + 1);
+			return Type.BOOLEAN;
+		}
+		Type l = emit(binaryExpr.getLeft());
+		Type r = emit(binaryExpr.getRight());
+		boolean arithmetic = op == Kind.PLUS || op == Kind.MINUS || op == Kind.TIMES || op == Kind.DIV || op == Kind.MOD;
+		if (arithmetic && (l == Type.IMAGE || r == Type.IMAGE)) {
+			imageArithmetic(op, l, r);
+			return Type.IMAGE;
+		}
+		// convert the operands to the type the operator works on, which is the same for both
+		Type operands = l;
+		if (l != r) {
+			operands = l == Type.FLOAT || r == Type.FLOAT ? Type.FLOAT : Type.COLOR;
+			if (r != operands) {
+				convert(operands);
+			}
+			else {
+				code.op(SWAP, 0);
+				convert(operands);
+				code.op(SWAP, 0);
+			}
+		}
+		switch (op) {
+		case PLUS, MINUS, TIMES, DIV, MOD -> {
+			arithmetic(op, operands);
+			return operands;
+		}
+		default -> {
+			compare(op, operands);
+			return Type.BOOLEAN;
+		}
+		}
+	}
+
+	// converts the int on top of the stack to a float or color
+	private void convert(Type to) {
+		if (to == Type.FLOAT) {
+			code.op(I2F, 0);
+		}
+		else {
+			code.op(INVOKESTATIC, writer.methodRef(COLOR_OPS, "fromInt", "(I)I"), 0);
+		}
+	}
+
+	private void arithmetic(Kind op, Type type) {
+		if (type == Type.COLOR) {
+			String method = switch (op) {
+			case PLUS -> "add";
+			case MINUS -> "subtract";
+			case TIMES -> "multiply";
+			case DIV -> "divide";
+			default -> "mod";
+			};
+			code.op(INVOKESTATIC, writer.methodRef(COLOR_OPS, method, "(II)I"), -1);
+			return;
+		}
+		boolean ints = type == Type.INT;
+		int opcode = switch (op) {
+		case PLUS -> ints ? IADD : FADD;
+		case MINUS -> ints ? ISUB : FSUB;
+		case TIMES -> ints ? IMUL : FMUL;
+		case DIV -> ints ? IDIV : FDIV;
+		default -> ints ? IREM : FREM;
+		};
+		code.op(opcode, -1);
+	}
+
+	// ImageOps.apply(l, r, operator), with an int operand converted to a color
+	private void imageArithmetic(Kind op, Type l, Type r) {
+		if (r == Type.INT) {
+			convert(Type.COLOR);
+		}
+		else if (l == Type.INT) {
+			code.op(SWAP, 0);
+			convert(Type.COLOR);
+			code.op(SWAP, 0);
+		}
+		String image = "L" + IMAGE + ";";
+		String operands = (l == Type.IMAGE ? image : "I") + (r == Type.IMAGE ? image : "I");
+		code.pushInt(Interpreter.imageOperator(op));
+		code.op(INVOKESTATIC, writer.methodRef(IMAGE_OPS, "apply", "(" + operands + "I)" + image), -2);
+	}
+
+	// replaces the two operands on top of the stack by 1 if the comparison holds, and 0 if not
+	private void compare(Kind op, Type type) {
+		int depth = code.stack - 2;
+		int holds = code.newLabel();
+		int end = code.newLabel();
+		switch (type) {
+		case INT, COLOR, BOOLEAN -> {
+			int opcode = switch (op) {
+			case LT -> IF_ICMPLT;
+			case GT -> IF_ICMPGT;
+			case LE -> IF_ICMPLE;
+			case GE -> IF_ICMPGE;
+			case EQUALS -> IF_ICMPEQ;
+			default -> IF_ICMPNE;
+			};
+			code.jump(opcode, holds, 2);
+		}
+		case FLOAT -> {
+			// fcmpg gives 1 and fcmpl gives -1 if either is NaN, so every comparison but != is false
+			code.op(op == Kind.LT || op == Kind.LE ? FCMPG : FCMPL, -1);
+			int opcode = switch (op) {
+			case LT -> IFLT;
+			case GT -> IFGT;
+			case LE -> IFLE;
+			case GE -> IFGE;
+			case EQUALS -> IFEQ;
+			default -> IFNE;
+			};
+			code.jump(opcode, holds, 1);
+		}
+		default -> {
+			code.op(INVOKESTATIC, writer.methodRef("java/util/Objects", "equals", "(Ljava/lang/Object;Ljava/lang/Object;)Z"),
+					-1);
+			code.jump(op == Kind.EQUALS ? IFNE : IFEQ, holds, 1);
+		}
+		}
+		code.pushInt(0);
+		code.jump(GOTO, end, 0);
+		code.place(holds, depth);
+		code.pushInt(1);
+		code.place(end, depth + 1);
+	}
+
+	@Override
+	public Object visitConditionalExpr(ConditionalExpr conditionalExpr, Object arg) {
+		emit(conditionalExpr.getCondition());
+		int depth = code.stack - 1;
+		int falseCase = code.newLabel();
+		int end = code.newLabel();
+		code.jump(IFEQ, falseCase, 1);
+		Type type = emit(conditionalExpr.getTrueCase());
+		code.jump(GOTO, end, 0);
+		code.place(falseCase, depth);
+		emit(conditionalExpr.getFalseCase());
+		code.place(end, depth + 1);
+		return type;
+	}
+
+	@Override
+	public Object visitPixelSelector(PixelSelector pixelSelector, Object arg) {
+		throw new IllegalStateException("not type checked");
+	}
+
+	// e.get(x, y)
+	@Override
+	public Object visitUnaryExprPostfix(UnaryExprPostfix unaryExprPostfix, Object arg) {
+		emit(unaryExprPostfix.getExpr());
+		emit(unaryExprPostfix.getSelector().getX());
+		emit(unaryExprPostfix.getSelector().getY());
+		code.op(INVOKEVIRTUAL, writer.methodRef(IMAGE, "get", "(II)I"), -2);
+		return Type.COLOR;
+	}
+
+}
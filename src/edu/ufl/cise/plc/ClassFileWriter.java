@@ -0,0 +1,400 @@
+package edu.ufl.cise.plc;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// writes a class file with just the parts BytecodeCompiler needs: a constant pool, a few methods
+// with code, and no other attributes.
+// classes are written with version 49 (Java 5), the last version verified by type inference, so
+// methods with branches need no StackMapTable, which would have to be computed from every branch target.
+final class ClassFileWriter {
+	static final int VERSION = 49;
+
+	static final int ACC_PUBLIC = 0x0001;
+	static final int ACC_FINAL = 0x0010;
+	static final int ACC_SUPER = 0x0020;
+
+	// opcodes used by BytecodeCompiler
+	static final int ICONST_0 = 0x03;
+	static final int ICONST_1 = 0x04;
+	static final int FCONST_0 = 0x0b;
+	static final int BIPUSH = 0x10;
+	static final int SIPUSH = 0x11;
+	static final int LDC = 0x12;
+	static final int LDC_W = 0x13;
+	static final int ALOAD_0 = 0x2a;
+	static final int ALOAD_1 = 0x2b;
+	static final int IALOAD = 0x2e;
+	static final int FALOAD = 0x30;
+	static final int AALOAD = 0x32;
+	static final int SWAP = 0x5f;
+	static final int IADD = 0x60;
+	static final int FADD = 0x62;
+	static final int ISUB = 0x64;
+	static final int FSUB = 0x66;
+	static final int IMUL = 0x68;
+	static final int FMUL = 0x6a;
+	static final int IDIV = 0x6c;
+	static final int FDIV = 0x6e;
+	static final int IREM = 0x70;
+	static final int FREM = 0x72;
+	static final int INEG = 0x74;
+	static final int FNEG = 0x76;
+	static final int IXOR = 0x82;
+	static final int I2F = 0x86;
+	static final int FCMPL = 0x95;
+	static final int FCMPG = 0x96;
+	static final int IFEQ = 0x99;
+	static final int IFNE = 0x9a;
+	static final int IFLT = 0x9b;
+	static final int IFGE = 0x9c;
+	static final int IFGT = 0x9d;
+	static final int IFLE = 0x9e;
+	static final int IF_ICMPEQ = 0x9f;
+	static final int IF_ICMPNE = 0xa0;
+	static final int IF_ICMPLT = 0xa1;
+	static final int IF_ICMPGE = 0xa2;
+	static final int IF_ICMPGT = 0xa3;
+	static final int IF_ICMPLE = 0xa4;
+	static final int GOTO = 0xa7;
+	static final int IRETURN = 0xac;
+	static final int FRETURN = 0xae;
+	static final int ARETURN = 0xb0;
+	static final int RETURN = 0xb1;
+	static final int GETFIELD = 0xb4;
+	static final int INVOKEVIRTUAL = 0xb6;
+	static final int INVOKESPECIAL = 0xb7;
+	static final int INVOKESTATIC = 0xb8;
+	static final int CHECKCAST = 0xc0;
+
+	// constant pool tags
+	private static final int UTF8 = 1;
+	private static final int INTEGER = 3;
+	private static final int FLOAT = 4;
+	private static final int CLASS = 7;
+	private static final int STRING = 8;
+	private static final int FIELDREF = 9;
+	private static final int METHODREF = 10;
+	private static final int NAME_AND_TYPE = 12;
+
+	// the constant pool, with the index of each entry by a key made of its tag and contents
+	private final ByteArrayOutputStream poolBytes = new ByteArrayOutputStream();
+	private final DataOutputStream pool = new DataOutputStream(poolBytes);
+	private final Map<String, Integer> entries = new HashMap<>();
+	private int poolCount = 1;
+	// true if a string was too long for a UTF8 entry, which holds at most 65535 bytes
+	private boolean tooLong;
+
+	private final ByteArrayOutputStream methodBytes = new ByteArrayOutputStream();
+	private final DataOutputStream methods = new DataOutputStream(methodBytes);
+	private int methodCount;
+
+	// the body of a method being written. it keeps track of the depth of the operand stack, which
+	// the caller sets at branch targets, since code is written in one pass.
+	final class Code {
+		byte[] bytes = new byte[256];
+		int length;
+		int stack;
+		int maxStack;
+		// position of each label, or -1 until it is placed
+		int[] labels = new int[16];
+		int labelCount;
+		// positions of the branch instructions, and their labels, to patch once every label is placed
+		final List<int[]> jumps = new ArrayList<>();
+
+		// writes an instruction with no operands, which changes the stack depth by delta
+		void op(int opcode, int delta) {
+			u1(opcode);
+			adjust(delta);
+		}
+
+		// writes an instruction with a constant pool index operand
+		void op(int opcode, int index, int delta) {
+			u1(opcode);
+			u2(index);
+			adjust(delta);
+		}
+
+		// pushes an int constant
+		void pushInt(int value) {
+			if (value >= -1 && value <= 5) {
+				u1(ICONST_0 + value);
+			}
+			else if (value == (byte) value) {
+				u1(BIPUSH);
+				u1(value);
+			}
+			else if (value == (short) value) {
+				u1(SIPUSH);
+				u2(value);
+			}
+			else {
+				ldc(integer(value));
+				return;
+			}
+			adjust(1);
+		}
+
+		// pushes a float constant. -0.0 is not 0.0, so it is loaded from the pool.
+		void pushFloat(float value) {
+			if (Float.floatToRawIntBits(value) == 0 || value == 1.0f || value == 2.0f) {
+				op(FCONST_0 + (int) value, 1);
+			}
+			else {
+				ldc(floatConstant(value));
+			}
+		}
+
+		void pushString(String value) {
+			ldc(string(value));
+		}
+
+		private void ldc(int index) {
+			if (index < 256) {
+				u1(LDC);
+				u1(index);
+			}
+			else {
+				u1(LDC_W);
+				u2(index);
+			}
+			adjust(1);
+		}
+
+		int newLabel() {
+			if (labelCount == labels.length) {
+				labels = Arrays.copyOf(labels, labelCount * 2);
+			}
+			labels[labelCount] = -1;
+			return labelCount++;
+		}
+
+		// writes a branch to label, which pops popped values
+		void jump(int opcode, int label, int popped) {
+			jumps.add(new int[] { length, label });
+			u1(opcode);
+			u2(0);
+			adjust(-popped);
+		}
+
+		// places label at the next instruction, where the stack has the given depth
+		void place(int label, int depth) {
+			labels[label] = length;
+			stack = depth;
+		}
+
+		private void adjust(int delta) {
+			stack += delta;
+			maxStack = Math.max(maxStack, stack);
+		}
+
+		private void u1(int b) {
+			if (length == bytes.length) {
+				bytes = Arrays.copyOf(bytes, length * 2);
+			}
+			bytes[length++] = (byte) b;
+		}
+
+		private void u2(int v) {
+			u1(v >> 8);
+			u1(v);
+		}
+
+		// fills in the offsets of the branches, or returns false if one does not fit in 16 bits
+		boolean patch() {
+			for (int[] jump : jumps) {
+				int offset = labels[jump[1]] - jump[0];
+				if (offset != (short) offset) {
+					return false;
+				}
+				bytes[jump[0] + 1] = (byte) (offset >> 8);
+				bytes[jump[0] + 2] = (byte) offset;
+			}
+			return true;
+		}
+	}
+
+	// returns the index of a UTF8 entry for s, or 0 if s is too long for one, which fits reports
+	int utf8(String s) {
+		if (utf8Length(s) > 0xFFFF) {
+			tooLong = true;
+			return 0;
+		}
+		return entry("U" + s, () -> {
+			pool.writeByte(UTF8);
+			pool.writeUTF(s);
+		});
+	}
+
+	// returns the length of s in the modified UTF-8 of class files, where the char 0 takes 2 bytes
+	private static int utf8Length(String s) {
+		int length = s.length();
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			if (c == 0 || c >= 0x80) {
+				length += c < 0x800 ? 1 : 2;
+			}
+		}
+		return length;
+	}
+
+	// internalName uses / between the parts of the package, as in java/lang/Object
+	int classRef(String internalName) {
+		int name = utf8(internalName);
+		return entry("C" + internalName, () -> {
+			pool.writeByte(CLASS);
+			pool.writeShort(name);
+		});
+	}
+
+	int string(String s) {
+		int value = utf8(s);
+		return entry("S" + s, () -> {
+			pool.writeByte(STRING);
+			pool.writeShort(value);
+		});
+	}
+
+	int integer(int value) {
+		return entry("I" + value, () -> {
+			pool.writeByte(INTEGER);
+			pool.writeInt(value);
+		});
+	}
+
+	int floatConstant(float value) {
+		int bits = Float.floatToRawIntBits(value);
+		return entry("F" + bits, () -> {
+			pool.writeByte(FLOAT);
+			pool.writeInt(bits);
+		});
+	}
+
+	int fieldRef(String owner, String name, String descriptor) {
+		return memberRef(FIELDREF, owner, name, descriptor);
+	}
+
+	int methodRef(String owner, String name, String descriptor) {
+		return memberRef(METHODREF, owner, name, descriptor);
+	}
+
+	private int memberRef(int tag, String owner, String name, String descriptor) {
+		int c = classRef(owner);
+		int n = utf8(name);
+		int d = utf8(descriptor);
+		int nameAndType = entry("N" + name + " " + descriptor, () -> {
+			pool.writeByte(NAME_AND_TYPE);
+			pool.writeShort(n);
+			pool.writeShort(d);
+		});
+		return entry(tag + owner + "." + name + " " + descriptor, () -> {
+			pool.writeByte(tag);
+			pool.writeShort(c);
+			pool.writeShort(nameAndType);
+		});
+	}
+
+	private interface EntryWriter {
+		void write() throws IOException;
+	}
+
+	// returns the index of the entry with the given key, writing it if it is new
+	private int entry(String key, EntryWriter writer) {
+		Integer index = entries.get(key);
+		if (index != null) {
+			return index;
+		}
+		try {
+			writer.write();
+		}
+		catch (IOException e) {
+			// writing to a ByteArrayOutputStream does not fail, and utf8 checks the length of strings
+			throw new IllegalStateException(e);
+		}
+		entries.put(key, poolCount);
+		return poolCount++;
+	}
+
+	// returns false if the constant pool has more entries than a class file can index, or a string
+	// too long for it
+	boolean fits() {
+		return poolCount <= 0xFFFF && !tooLong;
+	}
+
+	Code newCode() {
+		return new Code();
+	}
+
+	// adds a method with the given code, or returns false if the code is too long for a method
+	boolean addMethod(int access, String name, String descriptor, Code code, int maxLocals) {
+		if (code.length > 0xFFFF || !code.patch()) {
+			return false;
+		}
+		int nameIndex = utf8(name);
+		int descriptorIndex = utf8(descriptor);
+		int codeName = utf8("Code");
+		try {
+			methods.writeShort(access);
+			methods.writeShort(nameIndex);
+			methods.writeShort(descriptorIndex);
+			methods.writeShort(1);
+			// the Code attribute, with no exception table and no attributes of its own
+			methods.writeShort(codeName);
+			methods.writeInt(12 + code.length);
+			methods.writeShort(code.maxStack);
+			methods.writeShort(maxLocals);
+			methods.writeInt(code.length);
+			methods.write(code.bytes, 0, code.length);
+			methods.writeShort(0);
+			methods.writeShort(0);
+		}
+		catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+		methodCount++;
+		return true;
+	}
+
+	// returns the class file, with the methods added so far
+	byte[] toByteArray(int access, String thisClass, String superClass, String... interfaces) {
+		int thisIndex = classRef(thisClass);
+		int superIndex = classRef(superClass);
+		int[] interfaceIndices = new int[interfaces.length];
+		for (int i = 0; i < interfaces.length; i++) {
+			interfaceIndices[i] = classRef(interfaces[i]);
+		}
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		try {
+			out.writeInt(0xCAFEBABE);
+			out.writeShort(0);
+			out.writeShort(VERSION);
+			out.writeShort(poolCount);
+			poolBytes.writeTo(out);
+			out.writeShort(access);
+			out.writeShort(thisIndex);
+			out.writeShort(superIndex);
+			out.writeShort(interfaces.length);
+			for (int index : interfaceIndices) {
+				out.writeShort(index);
+			}
+			// no fields
+			out.writeShort(0);
+			out.writeShort(methodCount);
+			methodBytes.writeTo(out);
+			// no attributes
+			out.writeShort(0);
+		}
+		catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+		return bytes.toByteArray();
+	}
+
+}
@@ -1,5 +1,10 @@
 package edu.ufl.cise.plc;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.file.Path;
+
 //This class eliminates hard coded dependencies on the actual Lexer class.  You can call your lexer whatever you
 //want as long as it implements the ILexer interface and you have provided an appropriate body for the getLexer method.
 
@@ -14,5 +19,92 @@ public class CompilerComponentFactory {
 		/*throw new UnsupportedOperationException(
 				"CompilerComponentFactory must be modified to return an instance of your lexer");*/
 	}
-	
+
+	//returns a lexer that runs the DFA from a transition table instead of nested switches.
+	//it produces the same tokens as getLexer.
+	public static ILexer getTableLexer(String input) {
+		return new TableLexer(input);
+	}
+
+	//returns a lexer that interns identifiers in symbols instead of a table of its own, so their ids
+	//can be compared with those of other sources using the same table
+	public static ILexer getLexer(String input, SymbolTable symbols) {
+		Lexer lexer = new Lexer(input);
+		lexer.symbols = symbols;
+		return lexer;
+	}
+
+	//returns a parser for the input
+	public static IParser getParser(String input) {
+		return new PrattParser(getLexer(input));
+	}
+
+	//returns a parser for the input whose identifiers are interned in symbols
+	public static IParser getParser(String input, SymbolTable symbols) {
+		return new PrattParser(getLexer(input, symbols));
+	}
+
+	//returns a parser for a UTF-8 source file
+	public static IParser getParser(Path input) throws IOException {
+		return new PrattParser(getLexer(input));
+	}
+
+	//returns a parser for a UTF-8 source file whose identifiers are interned in symbols
+	public static IParser getParser(Path input, SymbolTable symbols) throws IOException {
+		Lexer lexer = Lexer.of(input);
+		lexer.symbols = symbols;
+		return new PrattParser(lexer);
+	}
+
+	//returns a parser that does not recurse, so deeply nested input is parsed, or rejected with a
+	//SyntaxException when it is nested more than StackParser.DEFAULT_MAX_DEPTH deep
+	public static IParser getStackSafeParser(String input) {
+		return new StackParser(getLexer(input));
+	}
+
+	//returns a parser that does not recurse, with the given limit on nesting
+	public static IParser getStackSafeParser(String input, int maxDepth) {
+		return new StackParser(getLexer(input), maxDepth);
+	}
+
+	//returns a parser that reports every error in the input instead of stopping at the first one
+	public static RecoveringParser getRecoveringParser(String input) {
+		return new RecoveringParser(getLexer(input));
+	}
+
+	//lexes and parses the input into a FlatAST, which keeps the nodes in arrays instead of objects
+	public static FlatAST getFlatAST(String input) throws PLCException {
+		return FlatAST.parse(TokenBuffer.lex(input));
+	}
+
+	//returns the recursive descent parser, with one method per precedence level, for comparison
+	public static IParser getRecursiveDescentParser(String input) {
+		return new Parser(getLexer(input));
+	}
+
+	//returns a compiler that turns an expression into a tree of evaluator nodes
+	public static IExprCompiler getInterpreter() {
+		return Interpreter::compile;
+	}
+
+	//returns a compiler that turns an expression into JVM bytecode, for expressions evaluated many times
+	public static IExprCompiler getBytecodeCompiler() {
+		return BytecodeCompiler::compile;
+	}
+
+	//returns a lexer that reads its input from a Reader one chunk at a time
+	public static ILexer getLexer(Reader input) {
+		return new Lexer(input);
+	}
+
+	//returns a lexer that scans the remaining characters of a CharBuffer
+	public static ILexer getLexer(CharBuffer input) {
+		return new Lexer(input);
+	}
+
+	//returns a lexer over a UTF-8 source file, which is memory mapped instead of read into a String
+	public static ILexer getLexer(Path input) throws IOException {
+		return Lexer.of(input);
+	}
+
 }
@@ -0,0 +1,376 @@
+package edu.ufl.cise.plc;
+
+import edu.ufl.cise.plc.IToken.Kind;
+import edu.ufl.cise.plc.IToken.SourceLocation;
+import edu.ufl.cise.plc.ast.ASTVisitor;
+import edu.ufl.cise.plc.ast.BinaryExpr;
+import edu.ufl.cise.plc.ast.BooleanLitExpr;
+import edu.ufl.cise.plc.ast.ConditionalExpr;
+import edu.ufl.cise.plc.ast.Expr;
+import edu.ufl.cise.plc.ast.FloatLitExpr;
+import edu.ufl.cise.plc.ast.IdentExpr;
+import edu.ufl.cise.plc.ast.IntLitExpr;
+import edu.ufl.cise.plc.ast.PixelSelector;
+import edu.ufl.cise.plc.ast.StringLitExpr;
+import edu.ufl.cise.plc.ast.Types.Type;
+import edu.ufl.cise.plc.ast.UnaryExpr;
+import edu.ufl.cise.plc.ast.UnaryExprPostfix;
+
+// rewrites an expression so that later phases do less work each time it is evaluated:
+//  - operators applied to literals are replaced by a literal of the result. ints wrap around like
+//    Java ints, an int operand of a float operator is converted to float, and division or remainder
+//    by an int 0 is left for the program to fail on when it runs.
+//  - a conditional whose condition is a literal is replaced by the branch it selects.
+//  - operations that give back their operand are removed: x * 1, 1 * x and x / 1 for an int or
+//    float x, x + 0, 0 + x and x - 0 for an int x, --x for an int or float x, and !!b, true & b and
+//    false | b for a boolean b. x + 0 is kept for a float x, since -0.0 + 0 is 0.0, and so is
+//    x * 1 for a color or image x, which is not always x.
+//  - false & b and true | b are replaced by their left operand, since b is never evaluated.
+// an expression is only rewritten when the types of its operands, with the types of the variables
+// declared in the environment, are the ones the rule holds for. so an expression that does not type
+// check, such as b + 0 for a boolean b or if (true) 1 else "x" fi, is not folded into one that does,
+// and Interpreter still rejects it.
+// each visit method returns the rewritten node, and sets type to its type, or to null if it does not
+// type check. nodes whose children do not change are returned as they are, so folding an expression
+// with no constants allocates only the folder.
+// a literal created by folding has a token with the text of its value, at the location of the
+// first token of the expression it replaces.
+public class ConstantFolder implements ASTVisitor {
+	final Environment env;
+	// type of the expression returned by the last visit, or null if it does not type check
+	Type type;
+
+	private ConstantFolder(Environment _env) {
+		env = _env;
+	}
+
+	// returns e with its constants folded, for the variables declared in env
+	public static Expr fold(Expr e, Environment env) {
+		return new ConstantFolder(env).visit(e);
+	}
+
+	private Expr visit(Expr e) {
+		try {
+			return (Expr) e.visit(this, null);
+		}
+		catch (RuntimeException ex) {
+			throw ex;
+		}
+		catch (Exception ex) {
+			// the visit methods below throw no checked exceptions
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	@Override
+	public Object visitBooleanLitExpr(BooleanLitExpr booleanLitExpr, Object arg) {
+		type = Type.BOOLEAN;
+		return booleanLitExpr;
+	}
+
+	@Override
+	public Object visitStringLitExpr(StringLitExpr stringLitExpr, Object arg) {
+		type = Type.STRING;
+		return stringLitExpr;
+	}
+
+	@Override
+	public Object visitIntLitExpr(IntLitExpr intLitExpr, Object arg) {
+		type = Type.INT;
+		return intLitExpr;
+	}
+
+	@Override
+	public Object visitFloatLitExpr(FloatLitExpr floatLitExpr, Object arg) {
+		type = Type.FLOAT;
+		return floatLitExpr;
+	}
+
+	@Override
+	public Object visitIdentExpr(IdentExpr identExpr, Object arg) {
+		int slot = env.slot(identExpr);
+		type = slot < 0 ? null : env.type(slot);
+		return identExpr;
+	}
+
+	@Override
+	public Object visitUnaryExpr(UnaryExpr unaryExpr, Object arg) {
+		Expr e = visit(unaryExpr.getExpr());
+		IToken op = unaryExpr.getOp();
+		SourceLocation loc = unaryExpr.getSourceLoc();
+		// the operand of an operator that gives back its operand has the type of the result
+		type = unaryType(op.getKind(), type);
+		switch (op.getKind()) {
+		case BANG -> {
+			if (e instanceof BooleanLitExpr b) {
+				return booleanLit(!b.getValue(), loc);
+			}
+			if (type == Type.BOOLEAN && e instanceof UnaryExpr inner && inner.getOp().getKind() == Kind.BANG) {
+				return inner.getExpr();
+			}
+		}
+		case MINUS -> {
+			if (e instanceof IntLitExpr i) {
+				return intLit(-i.getValue(), loc);
+			}
+			if (e instanceof FloatLitExpr f) {
+				return floatLit(-f.getValue(), loc);
+			}
+			if (type != null && e instanceof UnaryExpr inner && inner.getOp().getKind() == Kind.MINUS) {
+				return inner.getExpr();
+			}
+		}
+		default -> {
+		}
+		}
+		return e == unaryExpr.getExpr() ? unaryExpr : new UnaryExpr(unaryExpr.getFirstToken(), op, e);
+	}
+
+	@Override
+	public Object visitBinaryExpr(BinaryExpr binaryExpr, Object arg) {
+		Expr left = visit(binaryExpr.getLeft());
+		Type leftType = type;
+		Expr right = visit(binaryExpr.getRight());
+		Type rightType = type;
+		Kind op = binaryExpr.getOp().getKind();
+		SourceLocation loc = binaryExpr.getSourceLoc();
+		// a literal that an operation folds to has the type of the operation
+		type = binaryType(op, leftType, rightType);
+		Expr folded = null;
+		if (left instanceof IntLitExpr l && right instanceof IntLitExpr r) {
+			folded = foldInts(op, l.getValue(), r.getValue(), loc);
+		}
+		else if (isNumber(left) && isNumber(right)) {
+			folded = foldFloats(op, floatValue(left), floatValue(right), loc);
+		}
+		else if (left instanceof BooleanLitExpr l && right instanceof BooleanLitExpr r) {
+			folded = foldBooleans(op, l.getValue(), r.getValue(), loc);
+		}
+		else if (left instanceof StringLitExpr l && right instanceof StringLitExpr r) {
+			if (op == Kind.EQUALS || op == Kind.NOT_EQUALS) {
+				folded = booleanLit(l.getValue().equals(r.getValue()) == (op == Kind.EQUALS), loc);
+			}
+		}
+		else if (type != null) {
+			folded = simplify(op, left, leftType, right, rightType);
+		}
+		if (folded != null) {
+			return folded;
+		}
+		if (left == binaryExpr.getLeft() && right == binaryExpr.getRight()) {
+			return binaryExpr;
+		}
+		return new BinaryExpr(binaryExpr.getFirstToken(), left, binaryExpr.getOp(), right);
+	}
+
+	@Override
+	public Object visitConditionalExpr(ConditionalExpr conditionalExpr, Object arg) {
+		Expr condition = visit(conditionalExpr.getCondition());
+		Type conditionType = type;
+		Expr trueCase = visit(conditionalExpr.getTrueCase());
+		Type trueType = type;
+		Expr falseCase = visit(conditionalExpr.getFalseCase());
+		type = conditionType == Type.BOOLEAN && trueType == type ? trueType : null;
+		// the branch that is not taken is dropped only if both branches type check
+		if (type != null && condition instanceof BooleanLitExpr b) {
+			return b.getValue() ? trueCase : falseCase;
+		}
+		if (condition == conditionalExpr.getCondition() && trueCase == conditionalExpr.getTrueCase()
+				&& falseCase == conditionalExpr.getFalseCase()) {
+			return conditionalExpr;
+		}
+		return new ConditionalExpr(conditionalExpr.getFirstToken(), condition, trueCase, falseCase);
+	}
+
+	// sets type to INT if both coordinates are INT, and to null if not
+	@Override
+	public Object visitPixelSelector(PixelSelector pixelSelector, Object arg) {
+		Expr x = visit(pixelSelector.getX());
+		Type xType = type;
+		Expr y = visit(pixelSelector.getY());
+		type = xType == Type.INT && type == Type.INT ? Type.INT : null;
+		if (x == pixelSelector.getX() && y == pixelSelector.getY()) {
+			return pixelSelector;
+		}
+		return new PixelSelector(pixelSelector.getFirstToken(), x, y);
+	}
+
+	@Override
+	public Object visitUnaryExprPostfix(UnaryExprPostfix unaryExprPostfix, Object arg) {
+		Expr e = visit(unaryExprPostfix.getExpr());
+		Type imageType = type;
+		PixelSelector selector = (PixelSelector) visitPixelSelector(unaryExprPostfix.getSelector(), arg);
+		type = imageType == Type.IMAGE && type == Type.INT ? Type.COLOR : null;
+		if (e == unaryExprPostfix.getExpr() && selector == unaryExprPostfix.getSelector()) {
+			return unaryExprPostfix;
+		}
+		return new UnaryExprPostfix(unaryExprPostfix.getFirstToken(), e, selector);
+	}
+
+	// returns the literal that l op r folds to, or null if it is not folded
+	private static Expr foldInts(Kind op, int l, int r, SourceLocation loc) {
+		return switch (op) {
+		case PLUS -> intLit(l + r, loc);
+		case MINUS -> intLit(l - r, loc);
+		case TIMES -> intLit(l * r, loc);
+		case DIV -> r == 0 ? null : intLit(l / r, loc);
+		case MOD -> r == 0 ? null : intLit(l % r, loc);
+		case LT -> booleanLit(l < r, loc);
+		case GT -> booleanLit(l > r, loc);
+		case LE -> booleanLit(l <= r, loc);
+		case GE -> booleanLit(l >= r, loc);
+		case EQUALS -> booleanLit(l == r, loc);
+		case NOT_EQUALS -> booleanLit(l != r, loc);
+		default -> null;
+		};
+	}
+
+	private static Expr foldFloats(Kind op, float l, float r, SourceLocation loc) {
+		return switch (op) {
+		case PLUS -> floatLit(l + r, loc);
+		case MINUS -> floatLit(l - r, loc);
+		case TIMES -> floatLit(l * r, loc);
+		case DIV -> floatLit(l / r, loc);
+		case MOD -> floatLit(l % r, loc);
+		case LT -> booleanLit(l < r, loc);
+		case GT -> booleanLit(l > r, loc);
+		case LE -> booleanLit(l <= r, loc);
+		case GE -> booleanLit(l >= r, loc);
+		case EQUALS -> booleanLit(l == r, loc);
+		case NOT_EQUALS -> booleanLit(l != r, loc);
+		default -> null;
+		};
+	}
+
+	private static Expr foldBooleans(Kind op, boolean l, boolean r, SourceLocation loc) {
+		return switch (op) {
+		case AND -> booleanLit(l && r, loc);
+		case OR -> booleanLit(l || r, loc);
+		case EQUALS -> booleanLit(l == r, loc);
+		case NOT_EQUALS -> booleanLit(l != r, loc);
+		default -> null;
+		};
+	}
+
+	// returns the operand that left op right simplifies to, or null if it does not. the operation
+	// type checks, so the operands of & and | are booleans.
+	private static Expr simplify(Kind op, Expr left, Type leftType, Expr right, Type rightType) {
+		switch (op) {
+		case TIMES -> {
+			if (isInt(right, 1) && isNumber(leftType)) {
+				return left;
+			}
+			if (isInt(left, 1) && isNumber(rightType)) {
+				return right;
+			}
+		}
+		case DIV -> {
+			if (isInt(right, 1) && isNumber(leftType)) {
+				return left;
+			}
+		}
+		case PLUS -> {
+			if (isInt(right, 0) && leftType == Type.INT) {
+				return left;
+			}
+			if (isInt(left, 0) && rightType == Type.INT) {
+				return right;
+			}
+		}
+		case MINUS -> {
+			if (isInt(right, 0) && leftType == Type.INT) {
+				return left;
+			}
+		}
+		case AND -> {
+			if (left instanceof BooleanLitExpr b) {
+				return b.getValue() ? right : left;
+			}
+		}
+		case OR -> {
+			if (left instanceof BooleanLitExpr b) {
+				return b.getValue() ? left : right;
+			}
+		}
+		default -> {
+		}
+		}
+		return null;
+	}
+
+	// the types below are those given by Interpreter, or null if the expression does not type check
+
+	private static Type unaryType(Kind op, Type e) {
+		return switch (op) {
+		case BANG -> e == Type.BOOLEAN ? e : null;
+		case MINUS -> isNumber(e) ? e : null;
+		case COLOR_OP -> e == Type.COLOR ? Type.INT : null;
+		case IMAGE_OP -> e == Type.IMAGE ? Type.INT : null;
+		default -> null;
+		};
+	}
+
+	private static Type binaryType(Kind op, Type l, Type r) {
+		if (l == null || r == null) {
+			return null;
+		}
+		boolean ints = l == Type.INT && r == Type.INT;
+		boolean numbers = isNumber(l) && isNumber(r);
+		return switch (op) {
+		case AND, OR -> l == Type.BOOLEAN && r == Type.BOOLEAN ? Type.BOOLEAN : null;
+		case PLUS, MINUS, TIMES, DIV, MOD -> ints ? Type.INT
+				: numbers ? Type.FLOAT
+				: isColor(l) && isColor(r) ? Type.COLOR
+				: (l == Type.IMAGE || isColor(l)) && (r == Type.IMAGE || isColor(r)) ? Type.IMAGE : null;
+		case LT, GT, LE, GE -> numbers ? Type.BOOLEAN : null;
+		case EQUALS, NOT_EQUALS -> numbers || l == r ? Type.BOOLEAN : null;
+		default -> null;
+		};
+	}
+
+	// true if e is an int literal with the given value. float literals are not used, since x * 1.0 is
+	// a float even when x is an int.
+	private static boolean isInt(Expr e, int value) {
+		return e instanceof IntLitExpr i && i.getValue() == value;
+	}
+
+	private static boolean isNumber(Expr e) {
+		return e instanceof IntLitExpr || e instanceof FloatLitExpr;
+	}
+
+	private static boolean isNumber(Type type) {
+		return type == Type.INT || type == Type.FLOAT;
+	}
+
+	private static boolean isColor(Type type) {
+		return type == Type.INT || type == Type.COLOR;
+	}
+
+	private static float floatValue(Expr e) {
+		return e instanceof IntLitExpr i ? i.getValue() : ((FloatLitExpr) e).getValue();
+	}
+
+	private static Expr intLit(int value, SourceLocation loc) {
+		Token t = token(Kind.INT_LIT, Integer.toString(value), loc);
+		t.setValue(value);
+		return new IntLitExpr(t);
+	}
+
+	private static Expr floatLit(float value, SourceLocation loc) {
+		Token t = token(Kind.FLOAT_LIT, Float.toString(value), loc);
+		t.setValue(Float.floatToRawIntBits(value));
+		return new FloatLitExpr(t);
+	}
+
+	private static Expr booleanLit(boolean value, SourceLocation loc) {
+		Token t = token(Kind.BOOLEAN_LIT, Boolean.toString(value), loc);
+		t.setValue(value ? 1 : 0);
+		return new BooleanLitExpr(t);
+	}
+
+	// a token that is not in any source, so its position is -1
+	private static Token token(Kind kind, String text, SourceLocation loc) {
+		return new Token(kind, text, -1, text.length(), loc.line(), loc.column());
+	}
+
+}
@@ -0,0 +1,170 @@
+package edu.ufl.cise.plc;
+
+import java.util.Arrays;
+
+import edu.ufl.cise.plc.ast.IdentExpr;
+import edu.ufl.cise.plc.ast.Types.Type;
+import edu.ufl.cise.plc.runtime.Image;
+
+// the variables an expression can read, each declared with a type and given a slot.
+// values are kept unboxed: ints, booleans (as 1 or 0) and colors (as ARGB, see ColorOps) in ints,
+// floats in floats, and strings and images in objects, all indexed by slot.
+// an expression compiled against an environment reads the slots directly, so it can be evaluated
+// with any environment that has the same declarations, such as a copy used by another thread.
+// the names of the variables are interned in a symbol table, which is the environment's own unless it
+// is given the one the expressions are lexed with, and slots maps the id of each name in it to the
+// slot of its variable. an identifier lexed with that table is resolved by its id, with no hashing,
+// and only one lexed with another table is looked up by name. the values are sized by the number of
+// variables, and slots by the number of names in the table, which lives only as long as the
+// compilation that uses it.
+public class Environment {
+	// table the names of the variables are interned in
+	final SymbolTable symbols;
+	// slot of the variable named by each id in symbols, or -1 if there is none
+	int[] slots = new int[0];
+	// type of the variable in each slot
+	Type[] types = new Type[16];
+	int count;
+	int[] ints = new int[16];
+	float[] floats = new float[16];
+	Object[] objects = new Object[16];
+
+	public Environment() {
+		this(new SymbolTable());
+	}
+
+	// creates an environment whose names are interned in symbols, so identifiers lexed with it are
+	// resolved by id
+	public Environment(SymbolTable _symbols) {
+		symbols = _symbols;
+	}
+
+	// returns a new environment with the same declarations and values, and the same symbol table
+	public Environment copy() {
+		Environment env = new Environment(symbols);
+		env.slots = slots.clone();
+		env.types = types.clone();
+		env.count = count;
+		env.ints = ints.clone();
+		env.floats = floats.clone();
+		env.objects = objects.clone();
+		return env;
+	}
+
+	// declares a variable and returns its slot
+	public int declare(String name, Type type) {
+		int symbol = symbols.intern(name);
+		if (slot(symbols, symbol) >= 0) {
+			throw new IllegalArgumentException(name + " is already declared");
+		}
+		if (symbol >= slots.length) {
+			int old = slots.length;
+			slots = Arrays.copyOf(slots, Math.max(symbol + 1, old * 2));
+			Arrays.fill(slots, old, slots.length, -1);
+		}
+		if (count == types.length) {
+			types = Arrays.copyOf(types, count * 2);
+			ints = Arrays.copyOf(ints, count * 2);
+			floats = Arrays.copyOf(floats, count * 2);
+			objects = Arrays.copyOf(objects, count * 2);
+		}
+		slots[symbol] = count;
+		types[count] = type;
+		return count++;
+	}
+
+	// returns the slot of the variable with the given name, or -1 if it is not declared
+	public int slot(String name) {
+		int symbol = symbols.find(name);
+		return symbol < 0 ? -1 : slot(symbols, symbol);
+	}
+
+	// returns the slot of the variable whose name has the given id in table, or -1 if it is not
+	// declared. the id is used directly if table is the environment's, else the name is looked up
+	public int slot(SymbolTable table, int symbol) {
+		if (table != symbols) {
+			return slot(table.name(symbol));
+		}
+		return symbol < slots.length ? slots[symbol] : -1;
+	}
+
+	// returns the slot of the variable an identifier names, or -1 if it is not declared
+	public int slot(IdentExpr identExpr) {
+		SymbolTable table = identExpr.getSymbolTable();
+		return table != null ? slot(table, identExpr.getSymbol()) : slot(identExpr.getText());
+	}
+
+	// returns the table the names of the variables are interned in
+	public SymbolTable symbols() {
+		return symbols;
+	}
+
+	// returns the type of the variable in slot
+	public Type type(int slot) {
+		return types[slot];
+	}
+
+	public void setInt(String name, int value) {
+		ints[slot(name, Type.INT)] = value;
+	}
+
+	public void setBoolean(String name, boolean value) {
+		ints[slot(name, Type.BOOLEAN)] = value ? 1 : 0;
+	}
+
+	// sets a color variable to an ARGB value
+	public void setColor(String name, int argb) {
+		ints[slot(name, Type.COLOR)] = argb;
+	}
+
+	public void setFloat(String name, float value) {
+		floats[slot(name, Type.FLOAT)] = value;
+	}
+
+	public void setString(String name, String value) {
+		objects[slot(name, Type.STRING)] = value;
+	}
+
+	public void setImage(String name, Image value) {
+		objects[slot(name, Type.IMAGE)] = value;
+	}
+
+	// the setters below are used by compiled expressions, which have already resolved the slot
+
+	public void setInt(int slot, int value) {
+		ints[slot] = value;
+	}
+
+	public void setFloat(int slot, float value) {
+		floats[slot] = value;
+	}
+
+	public void setObject(int slot, Object value) {
+		objects[slot] = value;
+	}
+
+	public int getInt(int slot) {
+		return ints[slot];
+	}
+
+	public float getFloat(int slot) {
+		return floats[slot];
+	}
+
+	public Object getObject(int slot) {
+		return objects[slot];
+	}
+
+	// returns the slot of the variable with the given name, which must have the given type
+	private int slot(String name, Type type) {
+		int slot = slot(name);
+		if (slot < 0) {
+			throw new IllegalArgumentException(name + " is not declared");
+		}
+		if (types[slot] != type) {
+			throw new IllegalArgumentException(name + " is " + types[slot] + ", not " + type);
+		}
+		return slot;
+	}
+
+}
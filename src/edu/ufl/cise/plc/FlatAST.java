@@ -0,0 +1,368 @@
+package edu.ufl.cise.plc;
+
+import java.util.Arrays;
+
+import edu.ufl.cise.plc.IToken.Kind;
+import edu.ufl.cise.plc.IToken.SourceLocation;
+import edu.ufl.cise.plc.ast.ASTNode;
+import edu.ufl.cise.plc.ast.BinaryExpr;
+import edu.ufl.cise.plc.ast.BooleanLitExpr;
+import edu.ufl.cise.plc.ast.ConditionalExpr;
+import edu.ufl.cise.plc.ast.Expr;
+import edu.ufl.cise.plc.ast.FloatLitExpr;
+import edu.ufl.cise.plc.ast.IdentExpr;
+import edu.ufl.cise.plc.ast.IntLitExpr;
+import edu.ufl.cise.plc.ast.PixelSelector;
+import edu.ufl.cise.plc.ast.StringLitExpr;
+import edu.ufl.cise.plc.ast.UnaryExpr;
+import edu.ufl.cise.plc.ast.UnaryExprPostfix;
+
+// an AST stored as parallel arrays over a TokenBuffer, instead of one object per node.
+// a node is an int index: its kind, the index of its first token and operator token, and the indices
+// of up to three children are kept in arrays, so a tree of any size is a handful of objects.
+// nodes are added after their children, so the root is the last node and every child has a smaller
+// index than its parent.
+// the tree is read through the accessors below or a FlatASTVisitor, and materialize builds the
+// equivalent tree of edu.ufl.cise.plc.ast objects when one is needed.
+public class FlatAST {
+	// kinds of nodes, one for each class of edu.ufl.cise.plc.ast
+	public enum NodeKind {
+		BOOLEAN_LIT, STRING_LIT, INT_LIT, FLOAT_LIT, IDENT, UNARY, BINARY, CONDITIONAL, PIXEL_SELECTOR, UNARY_POSTFIX
+	}
+
+	static final NodeKind[] NODE_KINDS = NodeKind.values();
+
+	// tokens of the source
+	final TokenBuffer tokens;
+	// ordinal of the kind of each node
+	byte[] kinds;
+	// index of the first token of each node, which is the firstToken of the object node
+	int[] firsts;
+	// index of the operator token of each UNARY and BINARY node, or -1
+	int[] ops;
+	// children of each node, or -1:
+	//   UNARY: a = expr, BINARY: a = left, b = right, CONDITIONAL: a = condition, b = true case,
+	//   c = false case, PIXEL_SELECTOR: a = x, b = y, UNARY_POSTFIX: a = expr, b = selector
+	int[] as;
+	int[] bs;
+	int[] cs;
+	// number of nodes
+	int size;
+	// index of the root node
+	int root;
+
+	FlatAST(TokenBuffer _tokens, int capacity) {
+		tokens = _tokens;
+		kinds = new byte[capacity];
+		firsts = new int[capacity];
+		ops = new int[capacity];
+		as = new int[capacity];
+		bs = new int[capacity];
+		cs = new int[capacity];
+	}
+
+	// parses the tokens as a single expression, which must be followed by the end of the input
+	public static FlatAST parse(TokenBuffer tokens) throws PLCException {
+		FlatAST ast = new FlatAST(tokens, tokens.size() / 2 + 16);
+		ast.root = new Builder(ast).parse();
+		return ast;
+	}
+
+	// appends a node and returns its index
+	int add(NodeKind kind, int first, int op, int a, int b, int c) {
+		if (size == kinds.length) {
+			int capacity = size * 2;
+			kinds = Arrays.copyOf(kinds, capacity);
+			firsts = Arrays.copyOf(firsts, capacity);
+			ops = Arrays.copyOf(ops, capacity);
+			as = Arrays.copyOf(as, capacity);
+			bs = Arrays.copyOf(bs, capacity);
+			cs = Arrays.copyOf(cs, capacity);
+		}
+		kinds[size] = (byte) kind.ordinal();
+		firsts[size] = first;
+		ops[size] = op;
+		as[size] = a;
+		bs[size] = b;
+		cs[size] = c;
+		return size++;
+	}
+
+	// returns the tokens the tree was parsed from
+	public TokenBuffer tokens() {
+		return tokens;
+	}
+
+	// returns the number of nodes
+	public int size() {
+		return size;
+	}
+
+	// returns the index of the root node
+	public int root() {
+		return root;
+	}
+
+	public NodeKind kind(int node) {
+		return NODE_KINDS[kinds[node]];
+	}
+
+	// returns the index of the first token of the node in the token buffer
+	public int firstToken(int node) {
+		return firsts[node];
+	}
+
+	// returns the index of the operator token of a UNARY or BINARY node
+	public int op(int node) {
+		return ops[node];
+	}
+
+	// returns the kind of the operator of a UNARY or BINARY node
+	public Kind opKind(int node) {
+		return tokens.kind(ops[node]);
+	}
+
+	// returns the text of the first token of the node
+	public String text(int node) {
+		return tokens.text(firsts[node]);
+	}
+
+	// returns the location of the first token of the node
+	public SourceLocation location(int node) {
+		return tokens.location(firsts[node]);
+	}
+
+	// the values of literal and IDENT nodes, read from the token buffer without creating objects
+	public int intValue(int node) {
+		return tokens.value(firsts[node]);
+	}
+
+	public float floatValue(int node) {
+		return Float.intBitsToFloat(tokens.value(firsts[node]));
+	}
+
+	public boolean booleanValue(int node) {
+		return tokens.value(firsts[node]) != 0;
+	}
+
+	public String stringValue(int node) {
+		return tokens.stringValue(firsts[node]);
+	}
+
+	public int symbol(int node) {
+		return tokens.value(firsts[node]);
+	}
+
+	// children, by the names of the getters of the object nodes
+	public int expr(int node) {
+		return as[node];
+	}
+
+	public int left(int node) {
+		return as[node];
+	}
+
+	public int right(int node) {
+		return bs[node];
+	}
+
+	public int condition(int node) {
+		return as[node];
+	}
+
+	public int trueCase(int node) {
+		return bs[node];
+	}
+
+	public int falseCase(int node) {
+		return cs[node];
+	}
+
+	public int x(int node) {
+		return as[node];
+	}
+
+	public int y(int node) {
+		return bs[node];
+	}
+
+	public int selector(int node) {
+		return bs[node];
+	}
+
+	// calls the method of v for the kind of the node
+	public Object visit(int node, FlatASTVisitor v, Object arg) throws Exception {
+		return switch (NODE_KINDS[kinds[node]]) {
+		case BOOLEAN_LIT -> v.visitBooleanLitExpr(this, node, arg);
+		case STRING_LIT -> v.visitStringLitExpr(this, node, arg);
+		case INT_LIT -> v.visitIntLitExpr(this, node, arg);
+		case FLOAT_LIT -> v.visitFloatLitExpr(this, node, arg);
+		case IDENT -> v.visitIdentExpr(this, node, arg);
+		case UNARY -> v.visitUnaryExpr(this, node, arg);
+		case BINARY -> v.visitBinaryExpr(this, node, arg);
+		case CONDITIONAL -> v.visitConditionalExpr(this, node, arg);
+		case PIXEL_SELECTOR -> v.visitPixelSelector(this, node, arg);
+		case UNARY_POSTFIX -> v.visitUnaryExprPostfix(this, node, arg);
+		};
+	}
+
+	// builds the tree of edu.ufl.cise.plc.ast objects, with the same nodes and first tokens as the
+	// tree the parsers build. children come before parents, so one pass in index order is enough.
+	public ASTNode materialize() {
+		ASTNode[] nodes = new ASTNode[size];
+		for (int i = 0; i < size; i++) {
+			IToken first = tokens.get(firsts[i]);
+			nodes[i] = switch (NODE_KINDS[kinds[i]]) {
+			case BOOLEAN_LIT -> new BooleanLitExpr(first);
+			case STRING_LIT -> new StringLitExpr(first);
+			case INT_LIT -> new IntLitExpr(first);
+			case FLOAT_LIT -> new FloatLitExpr(first);
+			case IDENT -> new IdentExpr(first);
+			case UNARY -> new UnaryExpr(first, first, (Expr) nodes[as[i]]);
+			case BINARY -> new BinaryExpr(first, (Expr) nodes[as[i]], tokens.get(ops[i]), (Expr) nodes[bs[i]]);
+			case CONDITIONAL -> new ConditionalExpr(first, (Expr) nodes[as[i]], (Expr) nodes[bs[i]], (Expr) nodes[cs[i]]);
+			case PIXEL_SELECTOR -> new PixelSelector(first, (Expr) nodes[as[i]], (Expr) nodes[bs[i]]);
+			case UNARY_POSTFIX -> new UnaryExprPostfix(first, (Expr) nodes[as[i]], (PixelSelector) nodes[bs[i]]);
+			};
+		}
+		return nodes[root];
+	}
+
+	// parses the tokens into the arrays, with the same grammar, binding powers and errors as PrattParser
+	static class Builder {
+		final FlatAST ast;
+		final TokenBuffer tokens;
+		// index of the current token, which has not been consumed yet
+		int t;
+
+		Builder(FlatAST _ast) {
+			ast = _ast;
+			tokens = _ast.tokens;
+		}
+
+		int parse() throws PLCException {
+			t = check(0);
+			int e = expr();
+			match(Kind.EOF);
+			return e;
+		}
+
+		// returns i, or throws if token i is illegal
+		int check(int i) throws LexicalException {
+			if (tokens.kind(i) == Kind.ERROR) {
+				throw new LexicalException("illegal token " + tokens.text(i), tokens.location(i));
+			}
+			return i;
+		}
+
+		Kind kind() {
+			return tokens.kind(t);
+		}
+
+		// consumes the current token and returns its index
+		int consume() throws LexicalException {
+			int curr = t;
+			if (tokens.kind(curr) != Kind.EOF) {
+				t = check(curr + 1);
+			}
+			return curr;
+		}
+
+		int match(Kind kind) throws PLCException {
+			if (kind() != kind) {
+				throw new SyntaxException("expected " + kind + " but found " + kind(), tokens.location(t));
+			}
+			return consume();
+		}
+
+		// Expr ::= ConditionalExpr | LogicalOrExpr
+		int expr() throws PLCException {
+			if (kind() == Kind.KW_IF) {
+				int first = consume();
+				match(Kind.LPAREN);
+				int condition = expr();
+				match(Kind.RPAREN);
+				int trueCase = expr();
+				match(Kind.KW_ELSE);
+				int falseCase = expr();
+				match(Kind.KW_FI);
+				return ast.add(NodeKind.CONDITIONAL, first, -1, condition, trueCase, falseCase);
+			}
+			return binaryExpr(1);
+		}
+
+		// a chain of unary expressions joined by operators with at least the given power
+		int binaryExpr(int minPower) throws PLCException {
+			int first = t;
+			int left = unaryExpr();
+			while (true) {
+				int power = PrattParser.POWER[tokens.kind(t).ordinal()];
+				if (power < minPower || power == 0) {
+					return left;
+				}
+				int op = consume();
+				int right = binaryExpr(power + 1);
+				left = ast.add(NodeKind.BINARY, first, op, left, right, -1);
+			}
+		}
+
+		// UnaryExpr ::= ( '!' | '-' | COLOR_OP | IMAGE_OP ) UnaryExpr | UnaryExprPostfix
+		int unaryExpr() throws PLCException {
+			switch (kind()) {
+			case BANG, MINUS, COLOR_OP, IMAGE_OP -> {
+				int op = consume();
+				int e = unaryExpr();
+				return ast.add(NodeKind.UNARY, op, op, e, -1, -1);
+			}
+			default -> {
+				return unaryExprPostfix();
+			}
+			}
+		}
+
+		// UnaryExprPostfix ::= PrimaryExpr PixelSelector?
+		int unaryExprPostfix() throws PLCException {
+			int first = t;
+			int e = primaryExpr();
+			if (kind() == Kind.LSQUARE) {
+				int lsquare = consume();
+				int x = expr();
+				match(Kind.COMMA);
+				int y = expr();
+				match(Kind.RSQUARE);
+				int selector = ast.add(NodeKind.PIXEL_SELECTOR, lsquare, -1, x, y, -1);
+				return ast.add(NodeKind.UNARY_POSTFIX, first, -1, e, selector, -1);
+			}
+			return e;
+		}
+
+		// PrimaryExpr ::= BOOLEAN_LIT | STRING_LIT | INT_LIT | FLOAT_LIT | IDENT | '(' Expr ')'
+		int primaryExpr() throws PLCException {
+			switch (kind()) {
+			case BOOLEAN_LIT -> {
+				return ast.add(NodeKind.BOOLEAN_LIT, consume(), -1, -1, -1, -1);
+			}
+			case STRING_LIT -> {
+				return ast.add(NodeKind.STRING_LIT, consume(), -1, -1, -1, -1);
+			}
+			case INT_LIT -> {
+				return ast.add(NodeKind.INT_LIT, consume(), -1, -1, -1, -1);
+			}
+			case FLOAT_LIT -> {
+				return ast.add(NodeKind.FLOAT_LIT, consume(), -1, -1, -1, -1);
+			}
+			case IDENT -> {
+				return ast.add(NodeKind.IDENT, consume(), -1, -1, -1, -1);
+			}
+			case LPAREN -> {
+				consume();
+				int e = expr();
+				match(Kind.RPAREN);
+				return e;
+			}
+			default -> throw new SyntaxException("unexpected token " + kind(), tokens.location(t));
+			}
+		}
+	}
+
+}
@@ -0,0 +1,27 @@
+package edu.ufl.cise.plc;
+
+// the counterpart of ASTVisitor for a FlatAST, with one method per kind of node.
+// nodes are passed as their index in the tree, and are read through the accessors of FlatAST.
+public interface FlatASTVisitor {
+
+	Object visitBooleanLitExpr(FlatAST ast, int node, Object arg) throws Exception;
+
+	Object visitStringLitExpr(FlatAST ast, int node, Object arg) throws Exception;
+
+	Object visitIntLitExpr(FlatAST ast, int node, Object arg) throws Exception;
+
+	Object visitFloatLitExpr(FlatAST ast, int node, Object arg) throws Exception;
+
+	Object visitUnaryExpr(FlatAST ast, int node, Object arg) throws Exception;
+
+	Object visitBinaryExpr(FlatAST ast, int node, Object arg) throws Exception;
+
+	Object visitIdentExpr(FlatAST ast, int node, Object arg) throws Exception;
+
+	Object visitConditionalExpr(FlatAST ast, int node, Object arg) throws Exception;
+
+	Object visitPixelSelector(FlatAST ast, int node, Object arg) throws Exception;
+
+	Object visitUnaryExprPostfix(FlatAST ast, int node, Object arg) throws Exception;
+
+}
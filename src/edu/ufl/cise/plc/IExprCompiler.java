@@ -0,0 +1,12 @@
+package edu.ufl.cise.plc;
+
+import edu.ufl.cise.plc.Interpreter.CompiledExpr;
+import edu.ufl.cise.plc.ast.Expr;
+
+public interface IExprCompiler {
+
+	//type checks e against the variables declared in env, and returns it ready to be evaluated
+	//with env, or any environment with the same declarations
+	public CompiledExpr compile(Expr e, Environment env) throws TypeCheckException;
+
+}
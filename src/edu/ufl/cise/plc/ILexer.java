@@ -2,6 +2,13 @@ package edu.ufl.cise.plc;
 
 public interface ILexer {
 
+	// maximum number of tokens that can be looked ahead with peek(k)
+	int LOOKAHEAD = 8;
+
 	IToken next() throws LexicalException;
 	IToken peek() throws LexicalException;
+
+	// returns the token k places after the next one without consuming anything, so peek(0) is peek().
+	// k must be less than LOOKAHEAD.
+	IToken peek(int k) throws LexicalException;
 }
@@ -76,5 +76,12 @@ public interface IToken {
 	//The delimiters should be removed and escape sequences replaced by the characters they represent.  
 	public String getStringValue();
 
+	//returns the id of the identifier in the symbol table of the lexer that scanned it if kind is IDENT,
+	//else -1
+	public int getSymbol();
+
+	//returns the symbol table that getSymbol returns an id in if kind is IDENT, else null
+	public SymbolTable getSymbolTable();
+
 	
 }
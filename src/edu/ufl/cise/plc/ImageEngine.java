@@ -0,0 +1,106 @@
+package edu.ufl.cise.plc;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import edu.ufl.cise.plc.Interpreter.CompiledExpr;
+import edu.ufl.cise.plc.ast.Expr;
+import edu.ufl.cise.plc.ast.Types.Type;
+import edu.ufl.cise.plc.runtime.ColorOps;
+import edu.ufl.cise.plc.runtime.Image;
+
+// evaluates an expression at every pixel of a new image, with the int variables x and y set to the
+// column and row of the pixel, so img[x, y] / 2 darkens img, and getWidth img - 1 - x flips it.
+// the expression is compiled once, by Interpreter or by any IExprCompiler, and the image is split
+// into tiles of whole rows that are evaluated in parallel on a ForkJoinPool. each tile evaluates with
+// its own copy of the environment, so the tiles only share the pixel array, which they write in
+// disjoint ranges.
+// the expression must be a COLOR, or an INT used as a gray color as in color arithmetic. values are
+// kept unboxed from the compiled expression to the pixel array, so nothing is allocated per pixel.
+public class ImageEngine {
+
+	private ImageEngine() {
+	}
+
+	// evaluates e with the interpreter, on the common pool. x and y are declared as ints if env does
+	// not declare them.
+	public static Image render(Expr e, Environment env, int width, int height) throws TypeCheckException {
+		Environment base = env.copy();
+		for (String name : new String[] { "x", "y" }) {
+			if (base.slot(name) < 0) {
+				base.declare(name, Type.INT);
+			}
+		}
+		CompiledExpr c = Interpreter.compile(e, base);
+		if (c.type != Type.COLOR && c.type != Type.INT) {
+			throw new TypeCheckException("image expression must be COLOR, not " + c.type, e.getSourceLoc());
+		}
+		ForkJoinPool pool = ForkJoinPool.commonPool();
+		return render(c, base, width, height, pool, pool.getParallelism() * 4);
+	}
+
+	// evaluates c, which was compiled for env, on pool, in at most the given number of tiles.
+	// env must declare x and y as ints. c can be rendered any number of times, so an expression
+	// compiled to bytecode is only loaded once.
+	public static Image render(CompiledExpr c, Environment env, int width, int height, ForkJoinPool pool, int tiles)
+			throws TypeCheckException {
+		if (c.type != Type.COLOR && c.type != Type.INT) {
+			throw new TypeCheckException("image expression must be COLOR, not " + c.type);
+		}
+		int xSlot = intSlot(env, "x");
+		int ySlot = intSlot(env, "y");
+		Image image = new Image(width, height);
+		tiles = Math.max(1, Math.min(tiles, height));
+		ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[tiles];
+		for (int i = 0; i < tiles; i++) {
+			int from = (int) ((long) height * i / tiles);
+			int to = (int) ((long) height * (i + 1) / tiles);
+			Environment local = env.copy();
+			tasks[i] = pool.submit(() -> renderRows(c, local, xSlot, ySlot, image, from, to));
+		}
+		// join every tile before returning, even if one has failed, so none is still writing the image
+		RuntimeException failure = null;
+		for (ForkJoinTask<?> task : tasks) {
+			try {
+				task.join();
+			}
+			catch (RuntimeException ex) {
+				failure = failure == null ? ex : failure;
+			}
+		}
+		if (failure != null) {
+			throw failure;
+		}
+		return image;
+	}
+
+	// returns the slot of the int variable name
+	private static int intSlot(Environment env, String name) {
+		int slot = env.slot(name);
+		if (slot < 0) {
+			throw new IllegalArgumentException(name + " is not declared");
+		}
+		if (env.type(slot) != Type.INT) {
+			throw new IllegalArgumentException(name + " is " + env.type(slot) + ", not INT");
+		}
+		return slot;
+	}
+
+	// evaluates the rows from from to to, with env used by this tile only
+	private static void renderRows(CompiledExpr c, Environment env, int xSlot, int ySlot, Image image, int from,
+			int to) {
+		int[] pixels = image.pixels;
+		int width = image.width;
+		boolean gray = c.type == Type.INT;
+		for (int y = from; y < to; y++) {
+			env.setInt(ySlot, y);
+			int row = y * width;
+			for (int x = 0; x < width; x++) {
+				env.setInt(xSlot, x);
+				int value = c.evalInt(env);
+				pixels[row + x] = gray ? ColorOps.fromInt(value) : value;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,494 @@
+package edu.ufl.cise.plc;
+
+import java.util.Objects;
+
+import edu.ufl.cise.plc.IToken.Kind;
+import edu.ufl.cise.plc.ast.ASTVisitor;
+import edu.ufl.cise.plc.ast.BinaryExpr;
+import edu.ufl.cise.plc.ast.BooleanLitExpr;
+import edu.ufl.cise.plc.ast.ConditionalExpr;
+import edu.ufl.cise.plc.ast.Expr;
+import edu.ufl.cise.plc.ast.FloatLitExpr;
+import edu.ufl.cise.plc.ast.IdentExpr;
+import edu.ufl.cise.plc.ast.IntLitExpr;
+import edu.ufl.cise.plc.ast.PixelSelector;
+import edu.ufl.cise.plc.ast.StringLitExpr;
+import edu.ufl.cise.plc.ast.Types.Type;
+import edu.ufl.cise.plc.ast.UnaryExpr;
+import edu.ufl.cise.plc.ast.UnaryExprPostfix;
+import edu.ufl.cise.plc.runtime.ColorOps;
+import edu.ufl.cise.plc.runtime.Image;
+import edu.ufl.cise.plc.runtime.ImageOps;
+
+// evaluates expressions by first compiling them, once, into a tree of evaluator nodes that are each
+// specialized for one operator and the types of its operands: an int add node, a float compare node,
+// a short-circuit boolean and node, and so on. each kind of node returns its result unboxed, as an
+// int, float, boolean or object, so evaluating an expression allocates nothing.
+// compiling checks the types of the expression against the variables declared in an Environment,
+// and picks the node for each operator from the types of its operands:
+//  - & and | take booleans.
+//  - + - * / % take two ints, two numbers (an int is converted to float if the other is a float),
+//    or two colors (an int is converted to a color with all three components equal to it).
+//    they also take an image and an image, color or int, either way round, and give a new image
+//    with the operator applied to every pixel by ImageOps.
+//  - < > <= >= take two numbers, and == and != take two numbers or two values of the same type.
+//  - ! takes a boolean, - takes a number, and getRed, getGreen and getBlue take a color and give an int.
+//  - getWidth and getHeight take an image and give an int, and img[x, y] takes an image and two ints
+//    and gives the color of that pixel, read with Image.get.
+//  - a conditional takes a boolean condition and two cases of the same type.
+// an operator whose operands are all constant is evaluated while compiling, unless that throws, so
+// that an error such as division by zero is still raised each time the expression is evaluated.
+public class Interpreter implements ASTVisitor {
+
+	// evaluator nodes for each representation of a value
+	public interface IntNode {
+		int eval(Environment env);
+	}
+
+	public interface FloatNode {
+		float eval(Environment env);
+	}
+
+	public interface BooleanNode {
+		boolean eval(Environment env);
+	}
+
+	public interface ObjectNode {
+		Object eval(Environment env);
+	}
+
+	// a compiled expression: its type and the root of its evaluator nodes.
+	// INT and COLOR values are evaluated by an IntNode, FLOAT by a FloatNode, BOOLEAN by a BooleanNode,
+	// and STRING and IMAGE by an ObjectNode. the other nodes are null.
+	public static final class CompiledExpr {
+		public final Type type;
+		final IntNode ints;
+		final FloatNode floats;
+		final BooleanNode booleans;
+		final ObjectNode objects;
+		// true if the value does not depend on the environment
+		final boolean constant;
+
+		CompiledExpr(Type _type, IntNode _ints, FloatNode _floats, BooleanNode _booleans, ObjectNode _objects,
+				boolean _constant) {
+			type = _type;
+			ints = _ints;
+			floats = _floats;
+			booleans = _booleans;
+			objects = _objects;
+			constant = _constant;
+		}
+
+		// returns the root evaluator node
+		public Object getNode() {
+			return ints != null ? ints : floats != null ? floats : booleans != null ? booleans : objects;
+		}
+
+		// returns the value of an INT expression, or the ARGB value of a COLOR expression
+		public int evalInt(Environment env) {
+			return ints.eval(env);
+		}
+
+		public float evalFloat(Environment env) {
+			return floats.eval(env);
+		}
+
+		public boolean evalBoolean(Environment env) {
+			return booleans.eval(env);
+		}
+
+		public Object evalObject(Environment env) {
+			return objects.eval(env);
+		}
+
+		// returns the value boxed, for callers that do not know the type. a color is an Integer.
+		public Object eval(Environment env) {
+			return switch (type) {
+			case INT, COLOR -> ints.eval(env);
+			case FLOAT -> floats.eval(env);
+			case BOOLEAN -> booleans.eval(env);
+			default -> objects.eval(env);
+			};
+		}
+	}
+
+	// compiles e for the variables declared in env
+	public static CompiledExpr compile(Expr e, Environment env) throws TypeCheckException {
+		return new Interpreter().compile(e, (Object) env);
+	}
+
+	private CompiledExpr compile(Expr e, Object env) throws TypeCheckException {
+		try {
+			return (CompiledExpr) e.visit(this, env);
+		}
+		catch (TypeCheckException | RuntimeException ex) {
+			throw ex;
+		}
+		catch (Exception ex) {
+			// the visit methods throw no other checked exceptions
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	@Override
+	public Object visitBooleanLitExpr(BooleanLitExpr booleanLitExpr, Object arg) {
+		boolean value = booleanLitExpr.getValue();
+		return booleanExpr(env -> value, true);
+	}
+
+	@Override
+	public Object visitStringLitExpr(StringLitExpr stringLitExpr, Object arg) {
+		String value = stringLitExpr.getValue();
+		return objectExpr(Type.STRING, env -> value, true);
+	}
+
+	@Override
+	public Object visitIntLitExpr(IntLitExpr intLitExpr, Object arg) {
+		int value = intLitExpr.getValue();
+		return intExpr(Type.INT, env -> value, true);
+	}
+
+	@Override
+	public Object visitFloatLitExpr(FloatLitExpr floatLitExpr, Object arg) {
+		float value = floatLitExpr.getValue();
+		return floatExpr(env -> value, true);
+	}
+
+	@Override
+	public Object visitIdentExpr(IdentExpr identExpr, Object arg) throws TypeCheckException {
+		int slot = ((Environment) arg).slot(identExpr);
+		if (slot < 0) {
+			throw new TypeCheckException("undeclared identifier " + identExpr.getText(), identExpr.getSourceLoc());
+		}
+		Type type = ((Environment) arg).type(slot);
+		return switch (type) {
+		case INT, COLOR -> intExpr(type, env -> env.ints[slot], false);
+		case FLOAT -> floatExpr(env -> env.floats[slot], false);
+		case BOOLEAN -> booleanExpr(env -> env.ints[slot] != 0, false);
+		default -> objectExpr(type, env -> env.objects[slot], false);
+		};
+	}
+
+	@Override
+	public Object visitUnaryExpr(UnaryExpr unaryExpr, Object arg) throws TypeCheckException {
+		CompiledExpr e = compile(unaryExpr.getExpr(), arg);
+		IToken op = unaryExpr.getOp();
+		switch (op.getKind()) {
+		case BANG -> {
+			if (e.type == Type.BOOLEAN) {
+				BooleanNode b = e.booleans;
+				return booleanExpr(env -> !b.eval(env), e.constant);
+			}
+		}
+		case MINUS -> {
+			if (e.type == Type.INT) {
+				IntNode i = e.ints;
+				return intExpr(Type.INT, env -> -i.eval(env), e.constant);
+			}
+			if (e.type == Type.FLOAT) {
+				FloatNode f = e.floats;
+				return floatExpr(env -> -f.eval(env), e.constant);
+			}
+		}
+		case COLOR_OP -> {
+			if (e.type == Type.COLOR) {
+				IntNode c = e.ints;
+				IntNode component = switch (op.getText()) {
+				case "getRed" -> env -> ColorOps.red(c.eval(env));
+				case "getGreen" -> env -> ColorOps.green(c.eval(env));
+				default -> env -> ColorOps.blue(c.eval(env));
+				};
+				return intExpr(Type.INT, component, e.constant);
+			}
+		}
+		case IMAGE_OP -> {
+			if (e.type == Type.IMAGE) {
+				ObjectNode i = e.objects;
+				IntNode size = op.getText().equals("getWidth") ? env -> ((Image) i.eval(env)).width
+						: env -> ((Image) i.eval(env)).height;
+				return intExpr(Type.INT, size, e.constant);
+			}
+		}
+		default -> {
+		}
+		}
+		throw new TypeCheckException("incompatible type for operator " + op.getText() + ": " + e.type,
+				op.getSourceLocation());
+	}
+
+	@Override
+	public Object visitBinaryExpr(BinaryExpr binaryExpr, Object arg) throws TypeCheckException {
+		CompiledExpr l = compile(binaryExpr.getLeft(), arg);
+		CompiledExpr r = compile(binaryExpr.getRight(), arg);
+		Kind op = binaryExpr.getOp().getKind();
+		boolean constant = l.constant && r.constant;
+		boolean ints = l.type == Type.INT && r.type == Type.INT;
+		boolean numbers = isNumber(l.type) && isNumber(r.type);
+		switch (op) {
+		case AND, OR -> {
+			if (l.type == Type.BOOLEAN && r.type == Type.BOOLEAN) {
+				BooleanNode a = l.booleans;
+				BooleanNode b = r.booleans;
+				BooleanNode node = op == Kind.AND ? env -> a.eval(env) && b.eval(env) : env -> a.eval(env) || b.eval(env);
+				return booleanExpr(node, constant);
+			}
+		}
+		case PLUS, MINUS, TIMES, DIV, MOD -> {
+			if (ints) {
+				return intExpr(Type.INT, intOp(op, l.ints, r.ints), constant);
+			}
+			if (numbers) {
+				return floatExpr(floatOp(op, toFloat(l), toFloat(r)), constant);
+			}
+			if (isColor(l.type) && isColor(r.type)) {
+				return intExpr(Type.COLOR, colorOp(op, toColor(l), toColor(r)), constant);
+			}
+			if ((l.type == Type.IMAGE || isColor(l.type)) && (r.type == Type.IMAGE || isColor(r.type))) {
+				return objectExpr(Type.IMAGE, imageOp(op, l, r), constant);
+			}
+		}
+		case LT, GT, LE, GE, EQUALS, NOT_EQUALS -> {
+			boolean equality = op == Kind.EQUALS || op == Kind.NOT_EQUALS;
+			if (ints || (equality && l.type == Type.COLOR && r.type == Type.COLOR)) {
+				return booleanExpr(intCompare(op, l.ints, r.ints), constant);
+			}
+			if (numbers) {
+				return booleanExpr(floatCompare(op, toFloat(l), toFloat(r)), constant);
+			}
+			if (equality && l.type == r.type) {
+				boolean equals = op == Kind.EQUALS;
+				if (l.type == Type.BOOLEAN) {
+					BooleanNode a = l.booleans;
+					BooleanNode b = r.booleans;
+					return booleanExpr(env -> (a.eval(env) == b.eval(env)) == equals, constant);
+				}
+				ObjectNode a = l.objects;
+				ObjectNode b = r.objects;
+				return booleanExpr(env -> Objects.equals(a.eval(env), b.eval(env)) == equals, constant);
+			}
+		}
+		default -> {
+		}
+		}
+		throw new TypeCheckException("incompatible types for operator " + binaryExpr.getOp().getText() + ": " + l.type
+				+ " and " + r.type, binaryExpr.getOp().getSourceLocation());
+	}
+
+	@Override
+	public Object visitConditionalExpr(ConditionalExpr conditionalExpr, Object arg) throws TypeCheckException {
+		CompiledExpr c = compile(conditionalExpr.getCondition(), arg);
+		if (c.type != Type.BOOLEAN) {
+			throw new TypeCheckException("condition must be BOOLEAN, not " + c.type,
+					conditionalExpr.getCondition().getSourceLoc());
+		}
+		CompiledExpr t = compile(conditionalExpr.getTrueCase(), arg);
+		CompiledExpr f = compile(conditionalExpr.getFalseCase(), arg);
+		if (t.type != f.type) {
+			throw new TypeCheckException("cases of conditional have different types: " + t.type + " and " + f.type,
+					conditionalExpr.getSourceLoc());
+		}
+		// both cases are checked, but only the one selected by a constant condition is kept
+		if (c.constant) {
+			return c.booleans.eval(null) ? t : f;
+		}
+		BooleanNode b = c.booleans;
+		return switch (t.type) {
+		case INT, COLOR -> {
+			IntNode x = t.ints;
+			IntNode y = f.ints;
+			yield intExpr(t.type, env -> b.eval(env) ? x.eval(env) : y.eval(env), false);
+		}
+		case FLOAT -> {
+			FloatNode x = t.floats;
+			FloatNode y = f.floats;
+			yield floatExpr(env -> b.eval(env) ? x.eval(env) : y.eval(env), false);
+		}
+		case BOOLEAN -> {
+			BooleanNode x = t.booleans;
+			BooleanNode y = f.booleans;
+			yield booleanExpr(env -> b.eval(env) ? x.eval(env) : y.eval(env), false);
+		}
+		default -> {
+			ObjectNode x = t.objects;
+			ObjectNode y = f.objects;
+			yield objectExpr(t.type, env -> b.eval(env) ? x.eval(env) : y.eval(env), false);
+		}
+		};
+	}
+
+	// a pixel selector is only compiled as part of a UnaryExprPostfix
+	@Override
+	public Object visitPixelSelector(PixelSelector pixelSelector, Object arg) throws TypeCheckException {
+		throw new TypeCheckException("pixel selector without an image", pixelSelector.getSourceLoc());
+	}
+
+	@Override
+	public Object visitUnaryExprPostfix(UnaryExprPostfix unaryExprPostfix, Object arg) throws TypeCheckException {
+		CompiledExpr e = compile(unaryExprPostfix.getExpr(), arg);
+		if (e.type != Type.IMAGE) {
+			throw new TypeCheckException("pixel selector applied to " + e.type + ", not IMAGE",
+					unaryExprPostfix.getSelector().getSourceLoc());
+		}
+		PixelSelector selector = unaryExprPostfix.getSelector();
+		CompiledExpr x = compile(selector.getX(), arg);
+		CompiledExpr y = compile(selector.getY(), arg);
+		if (x.type != Type.INT || y.type != Type.INT) {
+			throw new TypeCheckException("pixel coordinates must be INT, not " + x.type + " and " + y.type,
+					selector.getSourceLoc());
+		}
+		ObjectNode i = e.objects;
+		IntNode a = x.ints;
+		IntNode b = y.ints;
+		return intExpr(Type.COLOR, env -> ((Image) i.eval(env)).get(a.eval(env), b.eval(env)),
+				e.constant && x.constant && y.constant);
+	}
+
+	private static IntNode intOp(Kind op, IntNode a, IntNode b) {
+		return switch (op) {
+		case PLUS -> env -> a.eval(env) + b.eval(env);
+		case MINUS -> env -> a.eval(env) - b.eval(env);
+		case TIMES -> env -> a.eval(env) * b.eval(env);
+		case DIV -> env -> a.eval(env) / b.eval(env);
+		default -> env -> a.eval(env) % b.eval(env);
+		};
+	}
+
+	private static FloatNode floatOp(Kind op, FloatNode a, FloatNode b) {
+		return switch (op) {
+		case PLUS -> env -> a.eval(env) + b.eval(env);
+		case MINUS -> env -> a.eval(env) - b.eval(env);
+		case TIMES -> env -> a.eval(env) * b.eval(env);
+		case DIV -> env -> a.eval(env) / b.eval(env);
+		default -> env -> a.eval(env) % b.eval(env);
+		};
+	}
+
+	private static IntNode colorOp(Kind op, IntNode a, IntNode b) {
+		return switch (op) {
+		case PLUS -> env -> ColorOps.add(a.eval(env), b.eval(env));
+		case MINUS -> env -> ColorOps.subtract(a.eval(env), b.eval(env));
+		case TIMES -> env -> ColorOps.multiply(a.eval(env), b.eval(env));
+		case DIV -> env -> ColorOps.divide(a.eval(env), b.eval(env));
+		default -> env -> ColorOps.mod(a.eval(env), b.eval(env));
+		};
+	}
+
+	// an image and an image, or an image and a color or int on either side
+	private static ObjectNode imageOp(Kind op, CompiledExpr l, CompiledExpr r) {
+		int code = imageOperator(op);
+		if (l.type == Type.IMAGE && r.type == Type.IMAGE) {
+			ObjectNode a = l.objects;
+			ObjectNode b = r.objects;
+			return env -> ImageOps.apply((Image) a.eval(env), (Image) b.eval(env), code);
+		}
+		if (l.type == Type.IMAGE) {
+			ObjectNode a = l.objects;
+			IntNode b = toColor(r);
+			return env -> ImageOps.apply((Image) a.eval(env), b.eval(env), code);
+		}
+		IntNode a = toColor(l);
+		ObjectNode b = r.objects;
+		return env -> ImageOps.apply(a.eval(env), (Image) b.eval(env), code);
+	}
+
+	// returns the ImageOps operator for an arithmetic operator
+	static int imageOperator(Kind op) {
+		return switch (op) {
+		case PLUS -> ImageOps.ADD;
+		case MINUS -> ImageOps.SUBTRACT;
+		case TIMES -> ImageOps.MULTIPLY;
+		case DIV -> ImageOps.DIVIDE;
+		default -> ImageOps.MOD;
+		};
+	}
+
+	// colors are only compared with == and !=
+	private static BooleanNode intCompare(Kind op, IntNode a, IntNode b) {
+		return switch (op) {
+		case LT -> env -> a.eval(env) < b.eval(env);
+		case GT -> env -> a.eval(env) > b.eval(env);
+		case LE -> env -> a.eval(env) <= b.eval(env);
+		case GE -> env -> a.eval(env) >= b.eval(env);
+		case EQUALS -> env -> a.eval(env) == b.eval(env);
+		default -> env -> a.eval(env) != b.eval(env);
+		};
+	}
+
+	private static BooleanNode floatCompare(Kind op, FloatNode a, FloatNode b) {
+		return switch (op) {
+		case LT -> env -> a.eval(env) < b.eval(env);
+		case GT -> env -> a.eval(env) > b.eval(env);
+		case LE -> env -> a.eval(env) <= b.eval(env);
+		case GE -> env -> a.eval(env) >= b.eval(env);
+		case EQUALS -> env -> a.eval(env) == b.eval(env);
+		default -> env -> a.eval(env) != b.eval(env);
+		};
+	}
+
+	private static boolean isNumber(Type type) {
+		return type == Type.INT || type == Type.FLOAT;
+	}
+
+	private static boolean isColor(Type type) {
+		return type == Type.INT || type == Type.COLOR;
+	}
+
+	// returns the node of a number as a float
+	private static FloatNode toFloat(CompiledExpr e) {
+		if (e.type == Type.FLOAT) {
+			return e.floats;
+		}
+		IntNode i = e.ints;
+		return env -> i.eval(env);
+	}
+
+	// returns the node of an int or color as a color
+	private static IntNode toColor(CompiledExpr e) {
+		if (e.type == Type.COLOR) {
+			return e.ints;
+		}
+		IntNode i = e.ints;
+		return env -> ColorOps.fromInt(i.eval(env));
+	}
+
+	// the methods below wrap a node in a CompiledExpr. a constant node is evaluated now and replaced by
+	// a node returning its value. only int arithmetic can throw, and then the node is kept as it is.
+
+	static CompiledExpr intExpr(Type type, IntNode node, boolean constant) {
+		if (constant) {
+			try {
+				int value = node.eval(null);
+				node = env -> value;
+			}
+			catch (ArithmeticException e) {
+				constant = false;
+			}
+		}
+		return new CompiledExpr(type, node, null, null, null, constant);
+	}
+
+	static CompiledExpr floatExpr(FloatNode node, boolean constant) {
+		if (constant) {
+			float value = node.eval(null);
+			node = env -> value;
+		}
+		return new CompiledExpr(Type.FLOAT, null, node, null, null, constant);
+	}
+
+	static CompiledExpr booleanExpr(BooleanNode node, boolean constant) {
+		if (constant) {
+			boolean value = node.eval(null);
+			node = env -> value;
+		}
+		return new CompiledExpr(Type.BOOLEAN, null, null, node, null, constant);
+	}
+
+	static CompiledExpr objectExpr(Type type, ObjectNode node, boolean constant) {
+		if (constant) {
+			Object value = node.eval(null);
+			node = env -> value;
+		}
+		return new CompiledExpr(type, null, null, null, node, constant);
+	}
+
+}
@@ -0,0 +1,116 @@
+package edu.ufl.cise.plc;
+
+import edu.ufl.cise.plc.IToken.Kind;
+
+// recognizes keywords, types, boolean literals, color constants and color/image ops.
+// the words are selected by length and then by first character, so an identifier is
+// classified with one comparison against at most one candidate and no String is allocated.
+// the recognizer has no state, so it is shared by every lexer.
+public final class Keywords {
+
+	private Keywords() {
+	}
+
+	// returns the kind of the word in chars[start, start + length), or IDENT if it is not reserved
+	public static Kind lookup(char[] chars, int start, int length) {
+		char first = chars[start];
+		switch (length) {
+		case 2 -> {
+			switch (first) {
+			case 'i': return match(chars, start, "if", Kind.KW_IF);
+			case 'f': return match(chars, start, "fi", Kind.KW_FI);
+			}
+		}
+		case 3 -> {
+			switch (first) {
+			case 'i': return match(chars, start, "int", Kind.TYPE);
+			case 'R': return match(chars, start, "RED", Kind.COLOR_CONST);
+			}
+		}
+		case 4 -> {
+			switch (first) {
+			case 'e': return match(chars, start, "else", Kind.KW_ELSE);
+			case 'v': return match(chars, start, "void", Kind.KW_VOID);
+			case 't': return match(chars, start, "true", Kind.BOOLEAN_LIT);
+			case 'B': return match(chars, start, "BLUE", Kind.COLOR_CONST);
+			case 'C': return match(chars, start, "CYAN", Kind.COLOR_CONST);
+			case 'G': return match(chars, start, "GRAY", Kind.COLOR_CONST);
+			case 'P': return match(chars, start, "PINK", Kind.COLOR_CONST);
+			}
+		}
+		case 5 -> {
+			switch (first) {
+			case 'w': return match(chars, start, "write", Kind.KW_WRITE);
+			case 'c': return match(chars, start, "color", Kind.TYPE);
+			case 'i': return match(chars, start, "image", Kind.TYPE);
+			case 'B': return match(chars, start, "BLACK", Kind.COLOR_CONST);
+			case 'G': return match(chars, start, "GREEN", Kind.COLOR_CONST);
+			case 'W': return match(chars, start, "WHITE", Kind.COLOR_CONST);
+			case 'f':
+				// float and false share the first two characters
+				if (chars[start + 1] == 'l') {
+					return match(chars, start, "float", Kind.TYPE);
+				}
+				return match(chars, start, "false", Kind.BOOLEAN_LIT);
+			}
+		}
+		case 6 -> {
+			switch (first) {
+			case 's': return match(chars, start, "string", Kind.TYPE);
+			case 'O': return match(chars, start, "ORANGE", Kind.COLOR_CONST);
+			case 'Y': return match(chars, start, "YELLOW", Kind.COLOR_CONST);
+			case 'g': return match(chars, start, "getRed", Kind.COLOR_OP);
+			}
+		}
+		case 7 -> {
+			switch (first) {
+			case 'c': return match(chars, start, "console", Kind.KW_CONSOLE);
+			case 'b': return match(chars, start, "boolean", Kind.TYPE);
+			case 'M': return match(chars, start, "MAGENTA", Kind.COLOR_CONST);
+			case 'g': return match(chars, start, "getBlue", Kind.COLOR_OP);
+			}
+		}
+		case 8 -> {
+			if (first == 'g') {
+				// getGreen and getWidth differ in the fourth character
+				if (chars[start + 3] == 'G') {
+					return match(chars, start, "getGreen", Kind.COLOR_OP);
+				}
+				return match(chars, start, "getWidth", Kind.IMAGE_OP);
+			}
+		}
+		case 9 -> {
+			switch (first) {
+			case 'D': return match(chars, start, "DARK_GRAY", Kind.COLOR_CONST);
+			case 'g': return match(chars, start, "getHeight", Kind.IMAGE_OP);
+			}
+		}
+		case 10 -> {
+			if (first == 'L') {
+				return match(chars, start, "LIGHT_GRAY", Kind.COLOR_CONST);
+			}
+		}
+		}
+		return Kind.IDENT;
+	}
+
+	// returns the kind of the word, or IDENT if it is not reserved
+	public static Kind lookup(String word) {
+		if (word.isEmpty()) {
+			return Kind.IDENT;
+		}
+		return lookup(word.toCharArray(), 0, word.length());
+	}
+
+	// returns kind if the characters starting at start spell word, else IDENT.
+	// the caller has already checked the length and the first character.
+	private static Kind match(char[] chars, int start, String word, Kind kind) {
+		for (int i = 1; i < word.length(); i++) {
+			if (chars[start + i] != word.charAt(i)) {
+				return Kind.IDENT;
+			}
+		}
+		return kind;
+	}
+
+}
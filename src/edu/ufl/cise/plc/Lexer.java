@@ -1,23 +1,69 @@
 package edu.ufl.cise.plc;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Map;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
 
 import edu.ufl.cise.plc.IToken.Kind;
 
 public class Lexer implements ILexer {
-	// stores tokens in array list
-	ArrayList<Token> tokens;
-	// current token index in array list
-	int index;
-	// holds source code in a String
-	String source;
-	// current position in the input string
+	// marks the end of the input, returned when reading past the last character
+	static final char EOF_CHAR = '\uFFFF';
+	
+	// size of the window used when the source is read in chunks
+	static final int CHUNK_SIZE = 8192;
+	// how runs of blanks, comment text and identifier chars are skipped, set by the property plc.lexer.skip:
+	// "loop" (the default) skips them in a tight loop outside the DFA, "swar" with the word at a time
+	// scans of Swar, and "none" runs the DFA on every char.
+	static final int SKIP_NONE = 0;
+	static final int SKIP_LOOP = 1;
+	static final int SKIP_SWAR = 2;
+	static final int SKIP = switch (System.getProperty("plc.lexer.skip", "loop")) {
+	case "none" -> SKIP_NONE;
+	case "swar" -> SKIP_SWAR;
+	default -> SKIP_LOOP;
+	};
+	
+	// holds source code in a char array
+	char[] chars;
+	// number of characters of the source in the array
+	int limit;
+	// position in the source of chars[0], which is not 0 when only a window of the source is in the array
+	int offset;
+	// reads the next chunk of the source once the array has been scanned, or null if there is no more
+	Reader in;
+	// true if token text must be copied out of the array when the token is created,
+	// because the array is reused for the next chunk or is shared with the caller
+	boolean sliceText;
+	// index in the array of the current position in the input
 	int pos;
-	// stores the indices of every new line character
-	ArrayList<Integer> newLines;
-	// map of all kind keywords
-	Map<String, Kind> map = new HashMap<String, Kind>();
+	// line number of the current position
+	int line;
+	// index of the first character of the current line
+	int lineStart;
+	// index of the first character of the last token scanned
+	int startPos;
+	// line and column of the first character of the last token scanned
+	int startLine;
+	int startColumn;
+	// value of the last INT_LIT scanned
+	int intLiteral;
+	// table the identifiers are interned in, which is the lexer's own unless it was given one
+	SymbolTable symbols;
+	// ring of the tokens scanned ahead by peek, which are handed out by next before scanning more
+	final Token[] ahead = new Token[LOOKAHEAD];
+	// index in the ring of the next token, and number of tokens in the ring
+	int head;
+	int count;
+	// the EOF token, once it has been reached
+	Token eof;
 	
 	// states of the DFA algorithm 
 	private enum State {
@@ -30,242 +76,322 @@ public class Lexer implements ILexer {
 		HAVE_EQ,
 		HAVE_MINUS,
 		IN_STRLIT,
+		HAVE_ESC,
 		IN_COMM,
 	}
 
 	// constructor for the lexer class
 	public Lexer(String input) {
-		tokens = new ArrayList<Token>();
-		index = 0;
-		source = input + '0';
-		pos = 0;
-		findNewLines(input);
-		initMap();
-		createTokens();
+		this(input.toCharArray(), input.length());
+	}
+	
+	// creates a lexer over the first limit characters of the array, which is not copied
+	Lexer(char[] _chars, int _limit) {
+		this(_chars, _limit, 0);
+	}
+	
+	// creates a lexer that starts scanning at start, which must be the end of a token or 0.
+	// lines are counted from start, so only the positions of the tokens are meaningful.
+	Lexer(char[] _chars, int _limit, int start) {
+		this(_chars, _limit, start, new SymbolTable());
+	}
+	
+	// creates a lexer that starts scanning at start, and interns identifiers in symbols
+	Lexer(char[] _chars, int _limit, int start, SymbolTable _symbols) {
+		chars = _chars;
+		limit = _limit;
+		pos = start;
+		line = 0;
+		lineStart = start;
+		startPos = start;
+		symbols = _symbols;
+	}
+	
+	// creates a lexer that reads the source from in, one chunk at a time
+	public Lexer(Reader _in) {
+		this(new char[CHUNK_SIZE], 0);
+		in = _in;
+		sliceText = true;
+	}
+	
+	// creates a lexer over the remaining characters of buf.
+	// the array behind a heap buffer is scanned in place, other buffers are read in chunks.
+	public Lexer(CharBuffer buf) {
+		this(buf.hasArray() ? buf.array() : new char[CHUNK_SIZE],
+				buf.hasArray() ? buf.arrayOffset() + buf.limit() : 0,
+				buf.hasArray() ? buf.arrayOffset() + buf.position() : 0);
+		if (buf.hasArray()) {
+			// positions of tokens are counted from the first remaining character
+			offset = -pos;
+			sliceText = true;
+		}
+		else {
+			in = new CharBufferReader(buf.duplicate());
+			sliceText = true;
+		}
+	}
+	
+	// creates a lexer over the remaining bytes of buf, decoded with the given charset one chunk at a time
+	public Lexer(ByteBuffer buf, Charset charset) {
+		this(new ByteBufferReader(buf.duplicate(), charset));
 	}
 	
-	// initializes the map of keywords and colors
-	public void initMap() {
-		// keywords
-		map.put("if", Kind.KW_IF);
-		map.put("fi", Kind.KW_FI);
-		map.put("else", Kind.KW_ELSE);
-		map.put("write", Kind.KW_WRITE);
-		map.put("console", Kind.KW_CONSOLE);
-		map.put("void", Kind.KW_VOID);
-		// types
-		map.put("int", Kind.TYPE);
-		map.put("float", Kind.TYPE);
-		map.put("string", Kind.TYPE);
-		map.put("boolean", Kind.TYPE);
-		map.put("color", Kind.TYPE);
-		map.put("image", Kind.TYPE);
-		// booleans
-		map.put("true", Kind.BOOLEAN_LIT);
-		map.put("false", Kind.BOOLEAN_LIT);
-		// color constants
-		map.put("BLACK", Kind.COLOR_CONST);
-		map.put("BLUE", Kind.COLOR_CONST);
-		map.put("CYAN", Kind.COLOR_CONST);
-		map.put("DARK_GRAY", Kind.COLOR_CONST);
-		map.put("GRAY", Kind.COLOR_CONST);
-		map.put("GREEN", Kind.COLOR_CONST);
-		map.put("LIGHT_GRAY", Kind.COLOR_CONST);
-		map.put("MAGENTA", Kind.COLOR_CONST);
-		map.put("ORANGE", Kind.COLOR_CONST);
-		map.put("PINK", Kind.COLOR_CONST);
-		map.put("RED", Kind.COLOR_CONST);
-		map.put("WHITE", Kind.COLOR_CONST);
-		map.put("YELLOW", Kind.COLOR_CONST);
-		// color ops
-		map.put("getRed", Kind.COLOR_OP);
-		map.put("getGreen", Kind.COLOR_OP);
-		map.put("getBlue", Kind.COLOR_OP);
-		// image ops
-		map.put("getWidth", Kind.IMAGE_OP);
-		map.put("getHeight", Kind.IMAGE_OP);
+	// creates a lexer over a UTF-8 (or ASCII) file, which is memory mapped and decoded one chunk at a time
+	public static Lexer of(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path)) {
+			// the mapping stays valid after the channel is closed
+			ByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			return new Lexer(bytes, StandardCharsets.UTF_8);
+		}
 	}
 	
-	// finds the indices of every new line character
-	private void findNewLines(String input) {
-		newLines = new ArrayList<Integer>();
-		if (input.length() == 0) {
-			return;
+	// returns the character at index i, or EOF_CHAR past the end of the input
+	char charAt(int i) {
+		if (i < limit) {
+			return chars[i];
 		}
-		for (int i = 0; i < input.length(); i++) {
-			if (input.charAt(i) == '\n') {
-				newLines.add(i);
+		return in != null ? fill(i) : EOF_CHAR;
+	}
+	
+	// reads chunks of the source until index i is in the array, and returns the character there.
+	// the characters before the current token are dropped to make room, so indices move down.
+	private char fill(int i) {
+		int shift = startPos;
+		if (shift > 0) {
+			System.arraycopy(chars, shift, chars, 0, limit - shift);
+			limit -= shift;
+			pos -= shift;
+			startPos -= shift;
+			lineStart -= shift;
+			offset += shift;
+			i -= shift;
+		}
+		while (i >= limit) {
+			if (chars.length - limit < 2) {
+				// the current token fills the window.
+				// at least two chars are always read, so a surrogate pair always fits.
+				chars = Arrays.copyOf(chars, chars.length * 2);
+			}
+			int n;
+			try {
+				n = in.read(chars, limit, chars.length - limit);
 			}
+			catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			if (n < 0) {
+				in = null;
+				return EOF_CHAR;
+			}
+			limit += n;
+		}
+		return chars[i];
+	}
+	
+	// returns the index of the first char from i on in the array that is not a space, tab or carriage return.
+	// SKIP is a constant, so only one of the branches is compiled.
+	private int skipBlanks(int i) {
+		if (SKIP == SKIP_SWAR) {
+			return Swar.skipBlanks(chars, i, limit);
 		}
-		// if the input had no end line at the end, add it
-		if (input.charAt(input.length() - 1) != '\n') {
-			newLines.add(input.length());
+		return SKIP == SKIP_LOOP ? Swar.skipBlanksScalar(chars, i, limit) : i;
+	}
+	
+	// returns the index of the next new line from i on in the array, or limit
+	private int skipLine(int i) {
+		if (SKIP == SKIP_SWAR) {
+			return Swar.indexOf(chars, i, limit, '\n');
+		}
+		return SKIP == SKIP_LOOP ? Swar.indexOfScalar(chars, i, limit, '\n') : i;
+	}
+	
+	// returns the index of the first char from i on in the array that cannot be part of an identifier
+	private int skipIdentifier(int i) {
+		if (SKIP == SKIP_SWAR) {
+			return Swar.skipIdentifier(chars, i, limit);
+		}
+		return SKIP == SKIP_LOOP ? Swar.skipIdentifierScalar(chars, i, limit) : i;
+	}
+	
+	// returns the value of the digits from start to end, or -1 if it is too large for an int
+	long intValue(int start, int end) {
+		long value = 0;
+		for (int i = start; i < end; i++) {
+			value = value * 10 + (chars[i] - '0');
+			if (value > Integer.MAX_VALUE) {
+				return -1;
+			}
 		}
+		return value;
 	}
 	
-	// implements DFA algorithm
-	private void createTokens() {
+	// implements DFA algorithm, scanning only as far as the next token.
+	// returns the kind of the token, which spans the characters from startPos to pos.
+	// no objects are created, so callers can store the token however they like.
+	Kind scan() {
 		State state = State.START;
-		String curr = "";
-		int startPos = 0;
 		while (true) {
-			char ch = source.charAt(pos);
+			char ch = charAt(pos);
 			switch (state) {
 			case START -> {
 				startPos = pos;
+				startLine = line;
+				startColumn = pos - lineStart;
+				// check if we're at the end of the source
+				if (pos >= limit) {
+					// do not advance past the end, so EOF is returned from now on
+					return Kind.EOF;
+				}
 				switch (ch) {
-				case ' ', '\n', '\t', '\r' -> {
+				case ' ', '\t', '\r' -> {
+					// skip the whole run of blanks in the array
+					pos = skipBlanks(pos + 1);
+				}
+				case '\n' -> {
 					pos++;
+					line++;
+					lineStart = pos;
 				}
 				case '(' -> {
-					tokens.add(new Token(Kind.LPAREN, "(", startPos, 1, newLines));
 					pos++;
+					return Kind.LPAREN;
 				}
 				case ')' -> {
-					tokens.add(new Token(Kind.RPAREN, ")", startPos, 1, newLines));
 					pos++;
+					return Kind.RPAREN;
 				}
 				case '[' -> {
-					tokens.add(new Token(Kind.LSQUARE, "[", startPos, 1, newLines));
 					pos++;
+					return Kind.LSQUARE;
 				}
 				case ']' -> {
-					tokens.add(new Token(Kind.RSQUARE, "]", startPos, 1, newLines));
 					pos++;
+					return Kind.RSQUARE;
 				}
 				case '<' -> {
-					char next = source.charAt(pos+1);
+					char next = charAt(pos+1);
 					if(next == '<') {
-						tokens.add(new Token(Kind.LANGLE, "<<", startPos, 1, newLines));
-						pos++;
+						pos += 2;
+						return Kind.LANGLE;
 					}
 					else if(next == '=') {
-						tokens.add(new Token(Kind.LE, "<=", startPos, 1, newLines));
-						pos++;
+						pos += 2;
+						return Kind.LE;
 					}
 					else if(next == '-') {
-						tokens.add(new Token(Kind.LARROW, "<-", startPos, 1, newLines));
-						pos++;
+						pos += 2;
+						return Kind.LARROW;
 					}
 					else {
-						tokens.add(new Token(Kind.LT, "<", startPos, 1, newLines));
+						pos++;
+						return Kind.LT;
 					}
-					pos++;
 				}
 				case '>' -> {
-					char next = source.charAt(pos+1);
+					char next = charAt(pos+1);
 					if(next == '>') {
-						tokens.add(new Token(Kind.RANGLE, ">>", startPos, 1, newLines));
-						pos++;
+						pos += 2;
+						return Kind.RANGLE;
 					}
 					else if(next == '=') {
-						tokens.add(new Token(Kind.GE, ">=", startPos, 1, newLines));
-						pos++;
+						pos += 2;
+						return Kind.GE;
 					}
 					else {
-						tokens.add(new Token(Kind.GT, ">", startPos, 1, newLines));
+						pos++;
+						return Kind.GT;
 					}
-					pos++;
 				}
 				case '+' -> {
-					tokens.add(new Token(Kind.PLUS, "+", startPos, 1, newLines));
 					pos++;
+					return Kind.PLUS;
 				}
 				case '-' -> {
-					char next = source.charAt(pos+1);
+					char next = charAt(pos+1);
 					if(next == '>') {
-						tokens.add(new Token(Kind.RARROW, "->", startPos, 1, newLines));
-						pos++;
+						pos += 2;
+						return Kind.RARROW;
 					}
 					else {
-						tokens.add(new Token(Kind.MINUS, "-", startPos, 1, newLines));
+						pos++;
+						return Kind.MINUS;
 					}
-					pos++;
 				}
 				case '"' -> {
 					state = State.IN_STRLIT;
-					curr += '\"';
 					pos++;
 				}
 				case '#' -> {
 					state = State.IN_COMM;
-					pos++;
+					// skip to the end of the line, or of the array
+					pos = skipLine(pos + 1);
+					// comments are not kept in the array when it is refilled
+					startPos = pos;
 				}
 				case '*' -> {
-					tokens.add(new Token(Kind.TIMES, "*", startPos, 1, newLines));
 					pos++;
+					return Kind.TIMES;
 				}
 				case '/' -> {
-					tokens.add(new Token(Kind.DIV, "/", startPos, 1, newLines));
 					pos++;
+					return Kind.DIV;
 				}
 				case '%' -> {
-					tokens.add(new Token(Kind.MOD, "%", startPos, 1, newLines));
 					pos++;
+					return Kind.MOD;
 				}
 				case '&' -> {
-					tokens.add(new Token(Kind.AND, "&", startPos, 1, newLines));
 					pos++;
+					return Kind.AND;
 				}
 				case '|' -> {
-					tokens.add(new Token(Kind.OR, "%", startPos, 1, newLines));
 					pos++;
+					return Kind.OR;
 				}
 				case '!' -> {
-					char next = source.charAt(pos+1);
+					char next = charAt(pos+1);
 					if(next == '=') {
-						tokens.add(new Token(Kind.NOT_EQUALS, "!=", startPos, 1, newLines));
-						pos++;
+						pos += 2;
+						return Kind.NOT_EQUALS;
 					}
 					else {
-						tokens.add(new Token(Kind.BANG, "!", startPos, 1, newLines));
+						pos++;
+						return Kind.BANG;
 					}
-					pos++;
 				}
 				case ';' -> {
-					tokens.add(new Token(Kind.SEMI, ";", startPos, 1, newLines));
 					pos++;
+					return Kind.SEMI;
 				}
 				case ',' -> {
-					tokens.add(new Token(Kind.COMMA, ",", startPos, 1, newLines));
 					pos++;
+					return Kind.COMMA;
 				}
 				case '^' -> {
-					tokens.add(new Token(Kind.RETURN, "^", startPos, 1, newLines));
 					pos++;
+					return Kind.RETURN;
 				}
 				case 'A','B','C','D','E','F','G','H','I','J','K','L','M','N','O','P','Q','R','S','T','U','V','W','X','Y','Z','a','b','c','d','e','f','g','h','i','j','k','l','m','n','o','p','q','r','s','t','u','v','w','x','y','z','_','$' -> {
 					state = State.IN_IDENT;
-					curr += ch;
-					pos++;
+					// skip the rest of the identifier in the array
+					pos = skipIdentifier(pos + 1);
 				}
 				case '=' -> {
 					state = State.HAVE_EQ;
-					curr += ch;
 					pos++;
 				}
 				case '1','2','3','4','5','6','7','8','9' -> {
 					state = State.IN_NUM;
-					curr += ch;
 					pos++;
 				}
 				case '0' -> {
-					// check if we're at the end of the source
-					if (pos == (source.length() - 1)) {
-						tokens.add(new Token(Kind.EOF, "0", startPos, 1, newLines));
-						return;
-					} else {
-						state = State.HAVE_ZERO;
-						curr += ch;
-						pos++;
-					}
+					state = State.HAVE_ZERO;
+					pos++;
 				}
 				default -> {
 					// an illegal token has been detected
-					curr += ch;
-					tokens.add(new Token(Kind.ERROR, curr, startPos, 1, newLines));
 					pos++;
-					curr = "";
+					return Kind.ERROR;
 				}
 				}
 			}
@@ -273,57 +399,46 @@ public class Lexer implements ILexer {
 				switch(ch) {
 				case '.' -> {
 					state = State.HAVE_DOT;
-					curr += ch;
 					pos++;
 				}
 				default -> {
 					// a dot was not detected after the zero, so it's only a 0
 					// next char is not part of this token, so do not increment pos
-					tokens.add(new Token(Kind.INT_LIT, curr, startPos, curr.length(), newLines));
-					state = State.START;
-					curr = "";
+					intLiteral = 0;
+					return Kind.INT_LIT;
 				}
 				}
 			}
 			case IN_FLOAT -> {
 				switch(ch) {
 				case '0','1','2','3','4','5','6','7','8','9' -> {
-					curr += ch;
 					pos++;
 				}
 				default -> {
 					// a float token has been detected
-					tokens.add(new Token(Kind.FLOAT_LIT, curr, startPos, curr.length(), newLines));
 					// next char is not part of this token, so do not increment pos
-					state = State.START;
-					curr = "";
+					return Kind.FLOAT_LIT;
 				}
 				}
 			}
 			case IN_NUM -> {
 				switch(ch) {
 				case '0','1','2','3','4','5','6','7','8','9' -> {
-					curr += ch;
 					pos++;
 				}
 				case '.' -> {
 					state = State.HAVE_DOT;
-					curr += ch;
 					pos++;
 				}
 				default -> {
 					// check if the integer is not above the maximum value
-					try {
-						int intVal = Integer.parseInt(curr);
-						tokens.add(new Token(Kind.INT_LIT, curr, startPos, curr.length(), newLines));
-						state = State.START;
-						curr = "";
-					}
-					catch(NumberFormatException e) {
-						tokens.add(new Token(Kind.ERROR, curr, startPos, curr.length(), newLines));
-						state = State.START;
-						curr = "";
+					long value = intValue(startPos, pos);
+					if (value < 0) {
+						return Kind.ERROR;
 					}
+					// the value is kept, so it never has to be parsed again
+					intLiteral = (int) value;
+					return Kind.INT_LIT;
 				}
 				}
 			}
@@ -331,84 +446,81 @@ public class Lexer implements ILexer {
 				switch(ch) {
 				case '0','1','2','3','4','5','6','7','8','9' -> {
 					state = State.IN_FLOAT;
-					curr += ch;
 					pos++;
 				}
 				default -> {
 					// there was no digit after the dot, so the token is not a float.
-					tokens.add(new Token(Kind.ERROR, curr, startPos, curr.length(), newLines));
 					// next char is not part of this token, so do not increment pos
-					state = State.START;
-					curr = "";
+					return Kind.ERROR;
 				}
 				}
 			}
 			case HAVE_EQ -> {
 				switch(ch) {
 				case '=' -> {
-					curr += ch;
 					pos++;
-					tokens.add(new Token(Kind.EQUALS, curr, startPos, curr.length(), newLines));
-					state = State.START;
-					curr = "";
+					return Kind.EQUALS;
 				}
 				default -> {
 					// an assignment operator has been detected
-					tokens.add(new Token(Kind.ASSIGN, curr, startPos, curr.length(), newLines));
 					// next char is not part of this token, so do not increment pos
-					state = State.START;
-					curr = "";
+					return Kind.ASSIGN;
 				}
 				}
 			}
 			case IN_IDENT -> {
 				switch(ch) {
 				case 'A','B','C','D','E','F','G','H','I','J','K','L','M','N','O','P','Q','R','S','T','U','V','W','X','Y','Z','a','b','c','d','e','f','g','h','i','j','k','l','m','n','o','p','q','r','s','t','u','v','w','x','y','z','_','$','0','1','2','3','4','5','6','7','8','9' -> {
-					// if the next character is the EOF
-					if ((ch == '0') && (pos == (source.length() - 1))) {
-						tokens.add(new Token(Kind.IDENT, curr, startPos, curr.length(), newLines));
-						// return to the START state and handle the EOF character
-						state = State.START;
-						// next char is not part of this token, so do not increment pos
-						curr = "";
-					}
-					else {
-						curr += ch;
-						pos++;
-					}
+					pos++;
 				}
 				default -> {
-					
-					// if the identifier is in the keywords map
-					if(map.containsKey(curr)) {
-						// adds token for the keyword
-						tokens.add(new Token(map.get(curr), curr, startPos, curr.length(), newLines));
-					}
-					else {
-						// else it is an identifier
-						tokens.add(new Token(Kind.IDENT, curr, startPos, curr.length(), newLines));
-					}
 					// next char is not part of this token, so do not increment pos
-					state = State.START;
-					curr = "";
+					return Keywords.lookup(chars, startPos, pos - startPos);
 				}
 				}
 			}
 			case IN_STRLIT -> {
 				switch(ch) {
-				case 'A','B','C','D','E','F','G','H','I','J','K','L','M','N','O','P','Q','R','S','T','U','V','W','X','Y','Z','a','b','c','d','e','f','g','h','i','j','k','l','m','n','o','p','q','r','s','t','u','v','w','x','y','z',' ' -> {
-					curr += ch;
+				case '"' -> {
 					pos++;
+					return Kind.STRING_LIT;
 				}
-				case '"' -> {
-					curr += ch;
+				case '\\' -> {
+					state = State.HAVE_ESC;
+					pos++;
+				}
+				case '\n' -> {
+					// string literals may span lines
+					pos++;
+					line++;
+					lineStart = pos;
+				}
+				default -> {
+					if (pos >= limit) {
+						// the string literal was not closed
+						return Kind.ERROR;
+					}
+					pos++;
+				}
+				}
+			}
+			case HAVE_ESC -> {
+				switch(ch) {
+				case 'b', 't', 'n', 'f', 'r', '"', '\'', '\\' -> {
+					state = State.IN_STRLIT;
 					pos++;
-					tokens.add(new Token(Kind.STRING_LIT, curr, startPos, curr.length(), newLines));
-					state = State.START;
-					curr = "";
 				}
 				default -> {
-					throw new IllegalStateException("string literal bug");
+					// not a legal escape sequence. the char after the backslash is part of the error,
+					// and is counted if it ends a line, so the tokens after it have the right lines.
+					if (pos < limit) {
+						pos++;
+						if (ch == '\n') {
+							line++;
+							lineStart = pos;
+						}
+					}
+					return Kind.ERROR;
 				}
 				}
 			}
@@ -416,10 +528,20 @@ public class Lexer implements ILexer {
 				switch(ch) {
 				case '\n' -> {
 					pos++;
+					line++;
+					lineStart = pos;
 					state = State.START;
 				}
 				default -> {
-					pos++;
+					if (pos >= limit) {
+						// the comment runs to the end of the input
+						state = State.START;
+					}
+					else {
+						pos++;
+						// comments are not kept in the array when it is refilled
+						startPos = pos;
+					}
 				}
 				}
 			}
@@ -427,24 +549,162 @@ public class Lexer implements ILexer {
 			}
 		}
 	}
+	
+	
+	// returns the value of the last token scanned if it is an IDENT, INT_LIT, FLOAT_LIT or BOOLEAN_LIT.
+	// floats are returned as their bits, booleans as 1 or 0, and identifiers as their id in symbols.
+	int tokenValue(Kind kind) {
+		return switch (kind) {
+		case IDENT -> symbols.intern(chars, startPos, pos - startPos);
+		case INT_LIT -> intLiteral;
+		case FLOAT_LIT -> Float.floatToRawIntBits(floatValue(startPos, pos));
+		case BOOLEAN_LIT -> chars[startPos] == 't' ? 1 : 0;
+		default -> 0;
+		};
+	}
+	
+	// powers of ten that are exact floats
+	private static final float[] POW10 = { 1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f };
+	
+	// returns the value of the float literal from start to end
+	private float floatValue(int start, int end) {
+		// if the digits fit in a float and the divisor is an exact power of ten,
+		// one float division gives the correctly rounded value
+		long digits = 0;
+		int decimals = -1;
+		for (int i = start; i < end && digits < (1 << 24); i++) {
+			char ch = chars[i];
+			if (ch == '.') {
+				decimals = 0;
+			}
+			else {
+				digits = digits * 10 + (ch - '0');
+				if (decimals >= 0) {
+					decimals++;
+				}
+			}
+		}
+		if (digits < (1 << 24) && decimals < POW10.length) {
+			return digits / POW10[decimals];
+		}
+		return Float.parseFloat(new String(chars, start, end - start));
+	}
+	
+	// scans the next token into a Token object, whose text is only sliced out when needed
+	// and whose value is decoded now if it is a literal or an identifier
+	private Token scanToken() {
+		Kind kind = scan();
+		int length = pos - startPos;
+		Token t;
+		if (sliceText) {
+			String text = Token.FIXED_TEXT[kind.ordinal()];
+			if (text == null) {
+				text = new String(chars, startPos, length);
+			}
+			t = new Token(kind, text, offset + startPos, length, startLine, startColumn);
+		}
+		else {
+			t = new Token(kind, chars, startPos, length, startLine, startColumn);
+		}
+		if (kind == Kind.IDENT || kind == Kind.INT_LIT || kind == Kind.FLOAT_LIT || kind == Kind.BOOLEAN_LIT) {
+			t.setValue(tokenValue(kind));
+		}
+		if (kind == Kind.IDENT) {
+			t.symbols = symbols;
+		}
+		return t;
+	}
+	
+	// scans the remaining input into buf, up to and including the EOF token
+	void scanAll(TokenBuffer buf) {
+		Kind kind;
+		do {
+			kind = scan();
+			buf.add(kind, startPos, pos - startPos, tokenValue(kind));
+		} while (kind != Kind.EOF);
+	}
+	
+	// scans the next token, remembering the EOF token so it is returned on every later call
+	private Token advance() throws LexicalException {
+		if (eof != null) {
+			return eof;
+		}
+		Token t;
+		try {
+			t = scanToken();
+		}
+		catch (UncheckedIOException e) {
+			throw new LexicalException(e.getCause());
+		}
+		if (t.kind == Kind.EOF) {
+			eof = t;
+		}
+		return t;
+	}
+	
+	// throws if t is an illegal token
+	private IToken check(Token t) throws LexicalException {
+		if (t.kind == Kind.ERROR) {
+			throw new LexicalException("illegal token " + t.getText(), t.getSourceLocation());
+		}
+		return t;
+	}
 
-	// returns the next token in the token array list and increments pos
+	// returns the next token, scanning it from the input only when it is needed
 	public IToken next() throws LexicalException {
-		// get the next token in the list
-		int curr = index;
-		index++;
-		// if the next token is an illegal character, throw error
-		if (tokens.get(curr).kind == Kind.ERROR) {
-			throw new LexicalException("input bug");
+		Token t;
+		if (count == 0) {
+			t = advance();
 		}
 		else {
-			return tokens.get(curr);
+			t = ahead[head];
+			ahead[head] = null;
+			head = (head + 1) & (LOOKAHEAD - 1);
+			count--;
 		}
+		// if the next token is an illegal character, throw error
+		// the lexer has already moved past it, so scanning can continue after the error
+		return check(t);
 	}
 
-	// returns the next token in the token array list but does not increment pos
+	// returns the next token but does not consume it
 	public IToken peek() throws LexicalException {
-		return null;
+		return peek(0);
+	}
+
+	// returns the token k places after the next one, scanning only as far as that token
+	public IToken peek(int k) throws LexicalException {
+		if (k < 0 || k >= LOOKAHEAD) {
+			throw new IllegalArgumentException("cannot look " + k + " tokens ahead");
+		}
+		while (count <= k) {
+			ahead[(head + count) & (LOOKAHEAD - 1)] = advance();
+			count++;
+		}
+		return check(ahead[(head + k) & (LOOKAHEAD - 1)]);
+	}
+	
+	// reads a CharBuffer that has no accessible array
+	private static class CharBufferReader extends Reader {
+		final CharBuffer buf;
+		
+		CharBufferReader(CharBuffer _buf) {
+			buf = _buf;
+		}
+		
+		@Override
+		public int read(char[] cbuf, int off, int len) {
+			if (!buf.hasRemaining()) {
+				return -1;
+			}
+			int n = Math.min(len, buf.remaining());
+			buf.get(cbuf, off, n);
+			return n;
+		}
+		
+		@Override
+		public void close() {
+		}
 	}
 
 }
@@ -18,7 +18,7 @@ public class LexicalException extends PLCException {
 	}
 	
 	public LexicalException(String error_message, int line, int column) {
-		super(line + ":" + column + "  " + error_message);
+		super(error_message, line, column);
 	}
 
 }
@@ -0,0 +1,174 @@
+package edu.ufl.cise.plc;
+
+import java.util.Arrays;
+
+import edu.ufl.cise.plc.IToken.SourceLocation;
+
+// maps positions in a source to lines and columns.
+// the offset of the first character of every line is stored once in an int array,
+// so a lookup is a binary search instead of a scan over every line.
+// the array is a gap buffer, so an edit changes the index in place: the lines before the gap are at
+// the start of the array and the rest at its end, and the gap is moved to each edit, which moves only
+// the lines between it and the last edit. the starts of the lines after the gap are kept relative to
+// the end of the source, so the edits before them change none of them.
+public class LineIndex {
+	// offset of the first character of each line before the gap, then the gap, then the offset less
+	// length of each line after it
+	int[] starts;
+	// number of lines
+	int count;
+	// number of lines before the gap, which is the index in starts where the gap begins
+	int gap;
+	// index in starts of the first line after the gap
+	int afterGap;
+	// number of characters in the source
+	int length;
+
+	LineIndex(int[] starts, int count, int length) {
+		this.starts = starts;
+		this.count = count;
+		this.length = length;
+		gap = count;
+		afterGap = starts.length;
+	}
+
+	// builds the index for a whole source
+	public static LineIndex of(CharSequence input) {
+		int[] starts = new int[16];
+		int count = 0;
+		starts[count++] = 0;
+		for (int i = 0; i < input.length(); i++) {
+			if (input.charAt(i) == '\n') {
+				if (count == starts.length) {
+					starts = Arrays.copyOf(starts, count * 2);
+				}
+				starts[count++] = i + 1;
+			}
+		}
+		return new LineIndex(starts, count, input.length());
+	}
+
+	// builds the index for the first length characters of a source held in a char array
+	public static LineIndex of(char[] chars, int length) {
+		int[] starts = new int[16];
+		int count = 0;
+		starts[count++] = 0;
+		for (int i = 0; i < length; i++) {
+			if (chars[i] == '\n') {
+				if (count == starts.length) {
+					starts = Arrays.copyOf(starts, count * 2);
+				}
+				starts[count++] = i + 1;
+			}
+		}
+		return new LineIndex(starts, count, length);
+	}
+
+	// changes the index to that of the source after replacing removed characters at offset with
+	// inserted, and returns it. only the inserted text is scanned, and the work depends on the size of
+	// the edit and its distance from the last one, not on the size of the source.
+	public LineIndex edit(int offset, int removed, CharSequence inserted) {
+		// lines starting at or before offset are not changed by the edit
+		int before = line(offset) + 1;
+		// lines starting in the removed characters are removed, and the ones after them are kept
+		int kept = before;
+		while (kept < count && start(kept) <= offset + removed) {
+			kept++;
+		}
+		int added = 0;
+		for (int i = 0; i < inserted.length(); i++) {
+			if (inserted.charAt(i) == '\n') {
+				added++;
+			}
+		}
+		moveGap(before);
+		afterGap += kept - before;
+		if (afterGap - gap < added) {
+			grow(added);
+		}
+		for (int i = 0; i < inserted.length(); i++) {
+			if (inserted.charAt(i) == '\n') {
+				starts[gap++] = offset + i + 1;
+			}
+		}
+		count += added - (kept - before);
+		length += inserted.length() - removed;
+		return this;
+	}
+
+	// moves the gap to just before line i, changing the starts of the lines that move across it
+	private void moveGap(int i) {
+		if (i < gap) {
+			int n = gap - i;
+			System.arraycopy(starts, i, starts, afterGap - n, n);
+			gap = i;
+			afterGap -= n;
+			for (int j = afterGap; j < afterGap + n; j++) {
+				starts[j] -= length;
+			}
+		}
+		else if (i > gap) {
+			int n = i - gap;
+			System.arraycopy(starts, afterGap, starts, gap, n);
+			for (int j = gap; j < i; j++) {
+				starts[j] += length;
+			}
+			gap = i;
+			afterGap += n;
+		}
+	}
+
+	// makes the gap room for at least n more lines
+	private void grow(int n) {
+		int[] grown = new int[Math.max(starts.length * 2, count + n)];
+		int end = starts.length - afterGap;
+		System.arraycopy(starts, 0, grown, 0, gap);
+		System.arraycopy(starts, afterGap, grown, grown.length - end, end);
+		afterGap = grown.length - end;
+		starts = grown;
+	}
+
+	// returns the offset of the first character of line i
+	private int start(int i) {
+		return i < gap ? starts[i] : starts[i + afterGap - gap] + length;
+	}
+
+	// returns the number of lines
+	public int lineCount() {
+		return count;
+	}
+
+	// returns the offset of the first character of the given line
+	public int lineStart(int line) {
+		return start(line);
+	}
+
+	// returns the line containing pos
+	public int line(int pos) {
+		// find the last line that starts at or before pos
+		int low = 0;
+		int high = count - 1;
+		while (low < high) {
+			int mid = (low + high + 1) >>> 1;
+			if (start(mid) <= pos) {
+				low = mid;
+			}
+			else {
+				high = mid - 1;
+			}
+		}
+		return low;
+	}
+
+	// returns the column of pos within its line
+	public int column(int pos) {
+		return pos - start(line(pos));
+	}
+
+	// returns the line and column of pos
+	public SourceLocation location(int pos) {
+		int line = line(pos);
+		return new SourceLocation(line, pos - start(line));
+	}
+
+}
@@ -8,21 +8,32 @@ import edu.ufl.cise.plc.IToken.SourceLocation;
 
 @SuppressWarnings("serial")
 public class PLCException extends Exception {
+	// where in the source the error was found, or null if it is not tied to a location
+	final SourceLocation location;
 
 	public PLCException(String message) {
 		super(message);
+		location = null;
 	}
 
 	public PLCException(Throwable cause) {
 		super(cause);
+		location = null;
 	}
 	
 	public PLCException(String error_message, int line, int column) {
 		super(line + ":" + column + "  " + error_message);
+		location = new SourceLocation(line, column);
 	}
 
 	public PLCException(String error_message, SourceLocation loc) {
 		super(loc.line()+ ":" + loc.column() + " " + error_message);
+		location = loc;
+	}
+
+	// returns where in the source the error was found, or null
+	public SourceLocation getLocation() {
+		return location;
 	}
 
 }
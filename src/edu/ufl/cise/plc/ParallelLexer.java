@@ -0,0 +1,176 @@
+package edu.ufl.cise.plc;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import edu.ufl.cise.plc.IToken.Kind;
+
+// lexes one large source on several threads and produces the same TokenBuffer as the sequential lexer.
+// the source is split into chunks just after new line characters, where the DFA is normally back in the
+// START state, and every chunk is lexed speculatively on its own. the chunks are then stitched together
+// in order: a chunk is kept if its first token starts where the previous chunk says the next token
+// starts. otherwise the start was wrong (for example inside a string literal), so lexing continues
+// sequentially from the previous chunk until a token starts at the same place as one of the chunk's,
+// and the rest of the chunk is kept from there.
+// the chunks intern their identifiers in one table, so the ids are the same wherever a token was lexed.
+public class ParallelLexer {
+	// sources shorter than this are not worth splitting
+	static final int MIN_CHUNK = 1 << 16;
+
+	// the result of lexing one chunk speculatively
+	static class Chunk {
+		// chunk covers the characters from start to end
+		final int start;
+		final int end;
+		// tokens starting in the chunk
+		TokenBuffer tokens;
+		// where the first token after the chunk starts, or -1 for the last chunk
+		int next;
+		// table of the whole source
+		final SymbolTable symbols;
+		// start of every line beginning in the chunk, apart from the first line of the source
+		int[] lineStarts;
+		int lineCount;
+
+		Chunk(int _start, int _end, SymbolTable _symbols) {
+			start = _start;
+			end = _end;
+			symbols = _symbols;
+		}
+	}
+
+	private ParallelLexer() {
+	}
+
+	// lexes the input on the common pool
+	public static TokenBuffer lex(String input) {
+		char[] chars = input.toCharArray();
+		ForkJoinPool pool = ForkJoinPool.commonPool();
+		return lex(chars, pool, Math.min(pool.getParallelism() * 4, chars.length / MIN_CHUNK));
+	}
+
+	// lexes the whole array on pool, in at most the given number of chunks
+	public static TokenBuffer lex(char[] chars, ForkJoinPool pool, int chunks) {
+		Chunk[] parts = split(chars, Math.max(1, chunks));
+		ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[parts.length];
+		for (int i = 0; i < parts.length; i++) {
+			Chunk chunk = parts[i];
+			tasks[i] = pool.submit(() -> scan(chars, chunk));
+		}
+		for (ForkJoinTask<?> task : tasks) {
+			task.join();
+		}
+		return stitch(chars, parts);
+	}
+
+	// splits the source into chunks of about the same size, each starting just after a new line
+	static Chunk[] split(char[] chars, int chunks) {
+		SymbolTable symbols = new SymbolTable();
+		int[] bounds = new int[chunks + 1];
+		int n = 0;
+		bounds[n++] = 0;
+		for (int k = 1; k < chunks; k++) {
+			int i = Math.max((int) ((long) chars.length * k / chunks), bounds[n - 1]);
+			while (i < chars.length && chars[i] != '\n') {
+				i++;
+			}
+			if (i + 1 < chars.length && i + 1 > bounds[n - 1]) {
+				bounds[n++] = i + 1;
+			}
+		}
+		bounds[n++] = chars.length;
+		Chunk[] parts = new Chunk[n - 1];
+		for (int i = 0; i < parts.length; i++) {
+			parts[i] = new Chunk(bounds[i], bounds[i + 1], symbols);
+		}
+		return parts;
+	}
+
+	// lexes the tokens starting in the chunk, and records the lines starting in it
+	static void scan(char[] chars, Chunk chunk) {
+		boolean last = chunk.end == chars.length;
+		chunk.tokens = new TokenBuffer(chars, null, chunk.symbols, (chunk.end - chunk.start) / 4 + 16);
+		Lexer lexer = new Lexer(chars, chars.length, chunk.start, chunk.symbols);
+		chunk.next = -1;
+		while (true) {
+			Kind kind = lexer.scan();
+			if (!last && lexer.startPos >= chunk.end) {
+				// this token belongs to the next chunk
+				chunk.next = lexer.startPos;
+				break;
+			}
+			chunk.tokens.add(kind, lexer.startPos, lexer.pos - lexer.startPos, lexer.tokenValue(kind));
+			if (kind == Kind.EOF) {
+				break;
+			}
+		}
+		int[] starts = new int[16];
+		int count = 0;
+		for (int i = chunk.start; i < chunk.end; i++) {
+			if (chars[i] == '\n') {
+				if (count == starts.length) {
+					starts = Arrays.copyOf(starts, count * 2);
+				}
+				starts[count++] = i + 1;
+			}
+		}
+		chunk.lineStarts = starts;
+		chunk.lineCount = count;
+	}
+
+	// joins the chunks into one buffer, re-lexing wherever a chunk started in the wrong state
+	static TokenBuffer stitch(char[] chars, Chunk[] parts) {
+		int lineCount = 1;
+		int tokenCount = 0;
+		for (Chunk chunk : parts) {
+			lineCount += chunk.lineCount;
+			tokenCount += chunk.tokens.size;
+		}
+		int[] starts = new int[lineCount];
+		int n = 1;
+		for (Chunk chunk : parts) {
+			System.arraycopy(chunk.lineStarts, 0, starts, n, chunk.lineCount);
+			n += chunk.lineCount;
+		}
+		SymbolTable symbols = parts[0].symbols;
+		TokenBuffer buf = new TokenBuffer(chars, new LineIndex(starts, lineCount, chars.length), symbols, tokenCount + 16);
+		// where the next token starts, as found by the chunks kept so far
+		int expected = 0;
+		for (Chunk chunk : parts) {
+			TokenBuffer tokens = chunk.tokens;
+			int first = tokens.size > 0 ? tokens.positions[0] : chunk.next;
+			// the first chunk starts at the beginning of the source, so it is always right
+			if (chunk.start == 0 || first == expected) {
+				buf.append(tokens, 0);
+				expected = chunk.next;
+				continue;
+			}
+			// the chunk was lexed from the wrong state, so lex from the end of the last token kept
+			int restart = buf.size == 0 ? 0 : buf.positions[buf.size - 1] + buf.lengths[buf.size - 1];
+			Lexer lexer = new Lexer(chars, chars.length, restart, symbols);
+			while (true) {
+				Kind kind = lexer.scan();
+				int start = lexer.startPos;
+				if (chunk.end < chars.length && start >= chunk.end) {
+					// the whole chunk has been replaced, so check the next one against this token
+					expected = start;
+					break;
+				}
+				int k = Arrays.binarySearch(tokens.positions, 0, tokens.size, start);
+				if (k >= 0) {
+					// back in step with the chunk
+					buf.append(tokens, k);
+					expected = chunk.next;
+					break;
+				}
+				buf.add(kind, start, lexer.pos - start, lexer.tokenValue(kind));
+				if (kind == Kind.EOF) {
+					break;
+				}
+			}
+		}
+		return buf;
+	}
+
+}
@@ -0,0 +1,13 @@
+package edu.ufl.cise.plc;
+
+import java.util.List;
+
+import edu.ufl.cise.plc.ast.ASTNode;
+
+// outcome of parsing with error recovery: the AST, which has null in place of every expression that
+// could not be parsed, and every lexical and syntax error found, in source order
+public record ParseResult(ASTNode ast, List<PLCException> errors) {
+	public boolean succeeded() {
+		return errors.isEmpty();
+	}
+}
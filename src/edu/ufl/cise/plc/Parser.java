@@ -0,0 +1,220 @@
+package edu.ufl.cise.plc;
+
+import edu.ufl.cise.plc.IToken.Kind;
+import edu.ufl.cise.plc.ast.ASTNode;
+import edu.ufl.cise.plc.ast.BinaryExpr;
+import edu.ufl.cise.plc.ast.BooleanLitExpr;
+import edu.ufl.cise.plc.ast.ConditionalExpr;
+import edu.ufl.cise.plc.ast.Expr;
+import edu.ufl.cise.plc.ast.FloatLitExpr;
+import edu.ufl.cise.plc.ast.IdentExpr;
+import edu.ufl.cise.plc.ast.IntLitExpr;
+import edu.ufl.cise.plc.ast.PixelSelector;
+import edu.ufl.cise.plc.ast.StringLitExpr;
+import edu.ufl.cise.plc.ast.UnaryExpr;
+import edu.ufl.cise.plc.ast.UnaryExprPostfix;
+
+// recursive descent parser with one method per rule of the expression grammar:
+//   Expr ::= ConditionalExpr | LogicalOrExpr
+//   ConditionalExpr ::= 'if' '(' Expr ')' Expr 'else' Expr 'fi'
+//   LogicalOrExpr ::= LogicalAndExpr ( '|' LogicalAndExpr )*
+//   LogicalAndExpr ::= ComparisonExpr ( '&' ComparisonExpr )*
+//   ComparisonExpr ::= AdditiveExpr ( ( '<' | '>' | '==' | '!=' | '<=' | '>=' ) AdditiveExpr )*
+//   AdditiveExpr ::= MultiplicativeExpr ( ( '+' | '-' ) MultiplicativeExpr )*
+//   MultiplicativeExpr ::= UnaryExpr ( ( '*' | '/' | '%' ) UnaryExpr )*
+//   UnaryExpr ::= ( '!' | '-' | COLOR_OP | IMAGE_OP ) UnaryExpr | UnaryExprPostfix
+//   UnaryExprPostfix ::= PrimaryExpr PixelSelector?
+//   PrimaryExpr ::= BOOLEAN_LIT | STRING_LIT | INT_LIT | FLOAT_LIT | IDENT | '(' Expr ')'
+//   PixelSelector ::= '[' Expr ',' Expr ']'
+public class Parser implements IParser {
+	// source of the tokens
+	ILexer lexer;
+	// current token, which has not been consumed yet
+	IToken t;
+
+	public Parser(ILexer _lexer) {
+		lexer = _lexer;
+	}
+
+	// parses a single expression, which must be followed by the end of the input
+	@Override
+	public ASTNode parse() throws PLCException {
+		t = nextToken();
+		Expr e = expr();
+		match(Kind.EOF);
+		return e;
+	}
+
+	// returns true if the current token is one of the given kinds
+	boolean isKind(Kind... kinds) {
+		for (Kind k : kinds) {
+			if (t.getKind() == k) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	// consumes the current token and returns it
+	IToken consume() throws PLCException {
+		IToken curr = t;
+		if (curr.getKind() != Kind.EOF) {
+			t = nextToken();
+		}
+		return curr;
+	}
+
+	// returns the next token from the lexer
+	IToken nextToken() throws PLCException {
+		return lexer.next();
+	}
+
+	// consumes the current token if it has the given kind, else throws
+	IToken match(Kind kind) throws PLCException {
+		if (t.getKind() != kind) {
+			throw new SyntaxException("expected " + kind + " but found " + t.getKind(), t.getSourceLocation());
+		}
+		return consume();
+	}
+
+	// Expr ::= ConditionalExpr | LogicalOrExpr
+	Expr expr() throws PLCException {
+		if (isKind(Kind.KW_IF)) {
+			return conditionalExpr();
+		}
+		return logicalOrExpr();
+	}
+
+	// ConditionalExpr ::= 'if' '(' Expr ')' Expr 'else' Expr 'fi'
+	Expr conditionalExpr() throws PLCException {
+		IToken first = match(Kind.KW_IF);
+		match(Kind.LPAREN);
+		Expr condition = expr();
+		match(Kind.RPAREN);
+		Expr trueCase = expr();
+		match(Kind.KW_ELSE);
+		Expr falseCase = expr();
+		match(Kind.KW_FI);
+		return new ConditionalExpr(first, condition, trueCase, falseCase);
+	}
+
+	// LogicalOrExpr ::= LogicalAndExpr ( '|' LogicalAndExpr )*
+	Expr logicalOrExpr() throws PLCException {
+		IToken first = t;
+		Expr left = logicalAndExpr();
+		while (isKind(Kind.OR)) {
+			IToken op = consume();
+			Expr right = logicalAndExpr();
+			left = new BinaryExpr(first, left, op, right);
+		}
+		return left;
+	}
+
+	// LogicalAndExpr ::= ComparisonExpr ( '&' ComparisonExpr )*
+	Expr logicalAndExpr() throws PLCException {
+		IToken first = t;
+		Expr left = comparisonExpr();
+		while (isKind(Kind.AND)) {
+			IToken op = consume();
+			Expr right = comparisonExpr();
+			left = new BinaryExpr(first, left, op, right);
+		}
+		return left;
+	}
+
+	// ComparisonExpr ::= AdditiveExpr ( ( '<' | '>' | '==' | '!=' | '<=' | '>=' ) AdditiveExpr )*
+	Expr comparisonExpr() throws PLCException {
+		IToken first = t;
+		Expr left = additiveExpr();
+		while (isKind(Kind.LT, Kind.GT, Kind.EQUALS, Kind.NOT_EQUALS, Kind.LE, Kind.GE)) {
+			IToken op = consume();
+			Expr right = additiveExpr();
+			left = new BinaryExpr(first, left, op, right);
+		}
+		return left;
+	}
+
+	// AdditiveExpr ::= MultiplicativeExpr ( ( '+' | '-' ) MultiplicativeExpr )*
+	Expr additiveExpr() throws PLCException {
+		IToken first = t;
+		Expr left = multiplicativeExpr();
+		while (isKind(Kind.PLUS, Kind.MINUS)) {
+			IToken op = consume();
+			Expr right = multiplicativeExpr();
+			left = new BinaryExpr(first, left, op, right);
+		}
+		return left;
+	}
+
+	// MultiplicativeExpr ::= UnaryExpr ( ( '*' | '/' | '%' ) UnaryExpr )*
+	Expr multiplicativeExpr() throws PLCException {
+		IToken first = t;
+		Expr left = unaryExpr();
+		while (isKind(Kind.TIMES, Kind.DIV, Kind.MOD)) {
+			IToken op = consume();
+			Expr right = unaryExpr();
+			left = new BinaryExpr(first, left, op, right);
+		}
+		return left;
+	}
+
+	// UnaryExpr ::= ( '!' | '-' | COLOR_OP | IMAGE_OP ) UnaryExpr | UnaryExprPostfix
+	Expr unaryExpr() throws PLCException {
+		if (isKind(Kind.BANG, Kind.MINUS, Kind.COLOR_OP, Kind.IMAGE_OP)) {
+			IToken op = consume();
+			Expr e = unaryExpr();
+			return new UnaryExpr(op, op, e);
+		}
+		return unaryExprPostfix();
+	}
+
+	// UnaryExprPostfix ::= PrimaryExpr PixelSelector?
+	Expr unaryExprPostfix() throws PLCException {
+		IToken first = t;
+		Expr e = primaryExpr();
+		if (isKind(Kind.LSQUARE)) {
+			PixelSelector selector = pixelSelector();
+			return new UnaryExprPostfix(first, e, selector);
+		}
+		return e;
+	}
+
+	// PrimaryExpr ::= BOOLEAN_LIT | STRING_LIT | INT_LIT | FLOAT_LIT | IDENT | '(' Expr ')'
+	Expr primaryExpr() throws PLCException {
+		switch (t.getKind()) {
+		case BOOLEAN_LIT -> {
+			return new BooleanLitExpr(consume());
+		}
+		case STRING_LIT -> {
+			return new StringLitExpr(consume());
+		}
+		case INT_LIT -> {
+			return new IntLitExpr(consume());
+		}
+		case FLOAT_LIT -> {
+			return new FloatLitExpr(consume());
+		}
+		case IDENT -> {
+			return new IdentExpr(consume());
+		}
+		case LPAREN -> {
+			consume();
+			Expr e = expr();
+			match(Kind.RPAREN);
+			return e;
+		}
+		default -> throw new SyntaxException("unexpected token " + t.getKind(), t.getSourceLocation());
+		}
+	}
+
+	// PixelSelector ::= '[' Expr ',' Expr ']'
+	PixelSelector pixelSelector() throws PLCException {
+		IToken first = match(Kind.LSQUARE);
+		Expr x = expr();
+		match(Kind.COMMA);
+		Expr y = expr();
+		match(Kind.RSQUARE);
+		return new PixelSelector(first, x, y);
+	}
+
+}
@@ -0,0 +1,60 @@
+package edu.ufl.cise.plc;
+
+import edu.ufl.cise.plc.IToken.Kind;
+import edu.ufl.cise.plc.ast.BinaryExpr;
+import edu.ufl.cise.plc.ast.Expr;
+
+// parses the expression grammar like Parser, but all the binary operator levels
+//   LogicalOrExpr, LogicalAndExpr, ComparisonExpr, AdditiveExpr, MultiplicativeExpr
+// are handled by one precedence climbing loop, driven by the binding power of each operator kind.
+// an operand that is a single literal takes five calls (expr, binaryExpr, unaryExpr, unaryExprPostfix,
+// primaryExpr) instead of one per level. the rest of the grammar, and the ASTs built, are the same
+// as Parser's.
+public class PrattParser extends Parser {
+	// binding power of each binary operator, indexed by the ordinal of its kind, or 0 for other kinds.
+	// operators with a higher power bind more tightly, and all of them are left associative.
+	static final int[] POWER = new int[Kind.values().length];
+	static {
+		POWER[Kind.OR.ordinal()] = 1;
+		POWER[Kind.AND.ordinal()] = 2;
+		for (Kind k : new Kind[] { Kind.LT, Kind.GT, Kind.EQUALS, Kind.NOT_EQUALS, Kind.LE, Kind.GE }) {
+			POWER[k.ordinal()] = 3;
+		}
+		POWER[Kind.PLUS.ordinal()] = 4;
+		POWER[Kind.MINUS.ordinal()] = 4;
+		POWER[Kind.TIMES.ordinal()] = 5;
+		POWER[Kind.DIV.ordinal()] = 5;
+		POWER[Kind.MOD.ordinal()] = 5;
+	}
+
+	public PrattParser(ILexer _lexer) {
+		super(_lexer);
+	}
+
+	// Expr ::= ConditionalExpr | LogicalOrExpr
+	@Override
+	Expr expr() throws PLCException {
+		if (isKind(Kind.KW_IF)) {
+			return conditionalExpr();
+		}
+		return binaryExpr(1);
+	}
+
+	// parses a chain of unary expressions joined by operators with at least the given power.
+	// the right operand of an operator only takes operators that bind more tightly, so the chain
+	// is grouped to the left.
+	Expr binaryExpr(int minPower) throws PLCException {
+		IToken first = t;
+		Expr left = unaryExpr();
+		while (true) {
+			int power = POWER[t.getKind().ordinal()];
+			if (power < minPower || power == 0) {
+				return left;
+			}
+			IToken op = consume();
+			Expr right = binaryExpr(power + 1);
+			left = new BinaryExpr(first, left, op, right);
+		}
+	}
+
+}
@@ -0,0 +1,117 @@
+package edu.ufl.cise.plc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.ufl.cise.plc.IToken.Kind;
+import edu.ufl.cise.plc.ast.ASTNode;
+import edu.ufl.cise.plc.ast.Expr;
+
+// a parser that keeps going after an error, so one pass reports every error in the source.
+// illegal tokens are reported and dropped, since the lexer has already moved past them.
+// when a token is missing or unexpected, the error is reported and tokens are skipped up to the
+// expected one or to a synchronizing token (one that closes a construct, like ')' or 'fi'),
+// which the enclosing rule can then match. an expression that could not be parsed is left null.
+// after a syntax error, no other syntax error is reported until a token has been matched or an
+// operand parsed, so one mistake does not cause a cascade.
+public class RecoveringParser extends PrattParser {
+	// errors found so far
+	final List<PLCException> errors = new ArrayList<>();
+	// true from a syntax error until parsing is back in step with the input
+	boolean recovering;
+
+	public RecoveringParser(ILexer _lexer) {
+		super(_lexer);
+	}
+
+	// parses the whole input, returning the partial AST and every error found
+	public ParseResult parseAll() {
+		ASTNode ast;
+		try {
+			ast = super.parse();
+		}
+		catch (PLCException e) {
+			// only an error reading the input, which cannot be recovered from
+			errors.add(e);
+			ast = null;
+		}
+		return new ParseResult(ast, List.copyOf(errors));
+	}
+
+	// parses the whole input and throws the first error found, if any
+	@Override
+	public ASTNode parse() throws PLCException {
+		ParseResult result = parseAll();
+		if (!result.succeeded()) {
+			throw result.errors().get(0);
+		}
+		return result.ast();
+	}
+
+	// returns the next legal token, reporting and dropping illegal ones
+	@Override
+	IToken nextToken() throws PLCException {
+		while (true) {
+			try {
+				return lexer.next();
+			}
+			catch (LexicalException e) {
+				if (e.getLocation() == null) {
+					// not an illegal token but an error reading the input
+					throw e;
+				}
+				errors.add(e);
+			}
+		}
+	}
+
+	// consumes the current token if it has the given kind. otherwise reports the error and skips to
+	// a token of that kind, which is consumed, or to a synchronizing token, which is left for the
+	// enclosing rule.
+	@Override
+	IToken match(Kind kind) throws PLCException {
+		if (t.getKind() != kind) {
+			report(new SyntaxException("expected " + kind + " but found " + t.getKind(), t.getSourceLocation()));
+			// nothing may follow the expression, so at the end skip everything
+			while (t.getKind() != kind && (kind == Kind.EOF || !isSync())) {
+				consume();
+			}
+			if (t.getKind() != kind) {
+				return t;
+			}
+		}
+		recovering = false;
+		return consume();
+	}
+
+	// reports an unexpected token and skips to a synchronizing token, returning null for the expression
+	@Override
+	Expr primaryExpr() throws PLCException {
+		if (isKind(Kind.LPAREN)) {
+			return super.primaryExpr();
+		}
+		if (isKind(Kind.BOOLEAN_LIT, Kind.STRING_LIT, Kind.INT_LIT, Kind.FLOAT_LIT, Kind.IDENT)) {
+			recovering = false;
+			return super.primaryExpr();
+		}
+		report(new SyntaxException("unexpected token " + t.getKind(), t.getSourceLocation()));
+		while (!isSync()) {
+			consume();
+		}
+		return null;
+	}
+
+	// returns true if the current token closes a construct, or ends the input
+	boolean isSync() {
+		return isKind(Kind.RPAREN, Kind.RSQUARE, Kind.COMMA, Kind.KW_ELSE, Kind.KW_FI, Kind.SEMI, Kind.EOF);
+	}
+
+	// records a syntax error, unless it follows another one
+	void report(SyntaxException e) {
+		if (!recovering) {
+			errors.add(e);
+			recovering = true;
+		}
+	}
+
+}
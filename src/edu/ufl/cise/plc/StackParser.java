@@ -0,0 +1,280 @@
+package edu.ufl.cise.plc;
+
+import java.util.Arrays;
+
+import edu.ufl.cise.plc.IToken.Kind;
+import edu.ufl.cise.plc.ast.ASTNode;
+import edu.ufl.cise.plc.ast.BinaryExpr;
+import edu.ufl.cise.plc.ast.BooleanLitExpr;
+import edu.ufl.cise.plc.ast.ConditionalExpr;
+import edu.ufl.cise.plc.ast.Expr;
+import edu.ufl.cise.plc.ast.FloatLitExpr;
+import edu.ufl.cise.plc.ast.IdentExpr;
+import edu.ufl.cise.plc.ast.IntLitExpr;
+import edu.ufl.cise.plc.ast.PixelSelector;
+import edu.ufl.cise.plc.ast.StringLitExpr;
+import edu.ufl.cise.plc.ast.UnaryExpr;
+import edu.ufl.cise.plc.ast.UnaryExprPostfix;
+
+// parses the same grammar and builds the same ASTs as Parser, but without recursion, so the depth of
+// nesting is limited only by maxDepth, and going past it is a SyntaxException instead of a
+// StackOverflowError.
+// every construct that contains an Expr (a parenthesized expression, a conditional, a pixel selector
+// and a chain of binary operators), and every prefix operator, pushes a frame while its inner
+// expressions are parsed. binary operators and their operands are kept on explicit stacks and reduced
+// by binding power, as in PrattParser.
+public class StackParser extends Parser {
+	// depth allowed by default, far beyond what the recursive parsers can handle
+	public static final int DEFAULT_MAX_DEPTH = 100_000;
+
+	// kinds of frames
+	private static final int CHAIN = 0; // binary operators and their operands
+	private static final int PREFIX = 1; // a unary operator waiting for its operand
+	private static final int PAREN = 2; // '(' Expr ')'
+	private static final int SELECTOR_X = 3; // '[' Expr ',' Expr ']' waiting for x
+	private static final int SELECTOR_Y = 4; // waiting for y
+	private static final int CONDITION = 5; // 'if' '(' Expr ')' Expr 'else' Expr 'fi' waiting for the condition
+	private static final int TRUE_CASE = 6;
+	private static final int FALSE_CASE = 7;
+
+	// a construct that is waiting for inner expressions. frames are reused as the stack grows and shrinks.
+	static final class Frame {
+		int kind;
+		// the first token of the construct: '(', 'if', '[' or the prefix operator
+		IToken token;
+		// for a pixel selector, the primary expression it follows and its first token
+		Expr expr;
+		IToken first;
+		// the inner expressions parsed so far
+		Expr a;
+		Expr b;
+		// for a chain, where its operands and operators start on the shared stacks
+		int operandBase;
+		int operatorBase;
+	}
+
+	// most frames that may be on the stack at once
+	final int maxDepth;
+	Frame[] frames = new Frame[16];
+	int depth;
+	// operands of the chains, with the first token of each
+	Expr[] operands = new Expr[16];
+	IToken[] operandFirsts = new IToken[16];
+	int operandCount;
+	// operators of the chains
+	IToken[] operators = new IToken[16];
+	int operatorCount;
+
+	public StackParser(ILexer _lexer) {
+		this(_lexer, DEFAULT_MAX_DEPTH);
+	}
+
+	public StackParser(ILexer _lexer, int _maxDepth) {
+		super(_lexer);
+		maxDepth = _maxDepth;
+	}
+
+	// parses a single expression, which must be followed by the end of the input
+	@Override
+	public ASTNode parse() throws PLCException {
+		t = nextToken();
+		// the expression just completed, and the first token of the source it spans
+		Expr e = null;
+		IToken first = null;
+		// true when an Expr starts at t, false when an operand (UnaryExpr) starts at t
+		boolean wantExpr = true;
+		while (true) {
+			// parse forward until an operand is complete
+			if (wantExpr && isKind(Kind.KW_IF)) {
+				push(CONDITION, consume());
+				match(Kind.LPAREN);
+				continue;
+			}
+			if (wantExpr) {
+				Frame chain = push(CHAIN, t);
+				chain.operandBase = operandCount;
+				chain.operatorBase = operatorCount;
+				wantExpr = false;
+			}
+			if (isKind(Kind.BANG, Kind.MINUS, Kind.COLOR_OP, Kind.IMAGE_OP)) {
+				push(PREFIX, consume());
+				continue;
+			}
+			if (isKind(Kind.LPAREN)) {
+				push(PAREN, consume());
+				wantExpr = true;
+				continue;
+			}
+			first = t;
+			e = primaryExpr();
+			// the operand is complete: finish the constructs waiting for it, until one needs another Expr
+			while (true) {
+				if (isKind(Kind.LSQUARE) && first != null) {
+					Frame selector = push(SELECTOR_X, consume());
+					selector.expr = e;
+					selector.first = first;
+					wantExpr = true;
+					break;
+				}
+				Frame top = depth == 0 ? null : frames[depth - 1];
+				if (first != null) {
+					// e is an operand, so apply the prefix operators and add it to the chain
+					while (top.kind == PREFIX) {
+						e = new UnaryExpr(top.token, top.token, e);
+						first = top.token;
+						top = pop();
+					}
+					pushOperand(e, first);
+					int power = PrattParser.POWER[t.getKind().ordinal()];
+					if (power > 0) {
+						// the operators to the left that bind at least as tightly have all their operands
+						reduce(top, power);
+						pushOperator(consume());
+						break;
+					}
+					// the chain is complete
+					reduce(top, 1);
+					e = operands[--operandCount];
+					operands[operandCount] = null;
+					first = null;
+					top = pop();
+				}
+				// e is a complete Expr, which goes into the construct on top
+				if (top == null) {
+					match(Kind.EOF);
+					return e;
+				}
+				switch (top.kind) {
+				case PAREN -> {
+					match(Kind.RPAREN);
+					// the parenthesized expression is an operand starting at '('
+					first = top.token;
+					pop();
+				}
+				case SELECTOR_X -> {
+					match(Kind.COMMA);
+					top.a = e;
+					top.kind = SELECTOR_Y;
+					wantExpr = true;
+				}
+				case SELECTOR_Y -> {
+					match(Kind.RSQUARE);
+					PixelSelector selector = new PixelSelector(top.token, top.a, e);
+					e = new UnaryExprPostfix(top.first, top.expr, selector);
+					first = top.first;
+					pop();
+					// only one pixel selector may follow a primary expression
+					if (isKind(Kind.LSQUARE)) {
+						throw new SyntaxException("unexpected token " + t.getKind(), t.getSourceLocation());
+					}
+				}
+				case CONDITION -> {
+					match(Kind.RPAREN);
+					top.a = e;
+					top.kind = TRUE_CASE;
+					wantExpr = true;
+				}
+				case TRUE_CASE -> {
+					match(Kind.KW_ELSE);
+					top.b = e;
+					top.kind = FALSE_CASE;
+					wantExpr = true;
+				}
+				case FALSE_CASE -> {
+					match(Kind.KW_FI);
+					e = new ConditionalExpr(top.token, top.a, top.b, e);
+					pop();
+				}
+				default -> throw new IllegalStateException("parser bug");
+				}
+				if (wantExpr) {
+					break;
+				}
+			}
+		}
+	}
+
+	// PrimaryExpr ::= BOOLEAN_LIT | STRING_LIT | INT_LIT | FLOAT_LIT | IDENT
+	// parenthesized expressions are handled by parse, with a frame
+	@Override
+	Expr primaryExpr() throws PLCException {
+		switch (t.getKind()) {
+		case BOOLEAN_LIT -> {
+			return new BooleanLitExpr(consume());
+		}
+		case STRING_LIT -> {
+			return new StringLitExpr(consume());
+		}
+		case INT_LIT -> {
+			return new IntLitExpr(consume());
+		}
+		case FLOAT_LIT -> {
+			return new FloatLitExpr(consume());
+		}
+		case IDENT -> {
+			return new IdentExpr(consume());
+		}
+		default -> throw new SyntaxException("unexpected token " + t.getKind(), t.getSourceLocation());
+		}
+	}
+
+	// pushes a frame for a construct starting at token, or throws if the expression is nested too deeply
+	private Frame push(int kind, IToken token) throws SyntaxException {
+		if (depth == maxDepth) {
+			throw new SyntaxException("expression nested more than " + maxDepth + " deep", token.getSourceLocation());
+		}
+		if (depth == frames.length) {
+			frames = Arrays.copyOf(frames, depth * 2);
+		}
+		Frame f = frames[depth];
+		if (f == null) {
+			f = frames[depth] = new Frame();
+		}
+		depth++;
+		f.kind = kind;
+		f.token = token;
+		f.expr = null;
+		f.first = null;
+		f.a = null;
+		f.b = null;
+		return f;
+	}
+
+	// pops the top frame and returns the one below it, or null if the stack is empty
+	private Frame pop() {
+		depth--;
+		return depth == 0 ? null : frames[depth - 1];
+	}
+
+	private void pushOperand(Expr e, IToken first) {
+		if (operandCount == operands.length) {
+			operands = Arrays.copyOf(operands, operandCount * 2);
+			operandFirsts = Arrays.copyOf(operandFirsts, operandCount * 2);
+		}
+		operands[operandCount] = e;
+		operandFirsts[operandCount] = first;
+		operandCount++;
+	}
+
+	private void pushOperator(IToken op) {
+		if (operatorCount == operators.length) {
+			operators = Arrays.copyOf(operators, operatorCount * 2);
+		}
+		operators[operatorCount++] = op;
+	}
+
+	// replaces the operators of the chain with at least the given power, and their operands, by BinaryExprs.
+	// the operand on top of the stack is the right operand of the operator on top of the stack.
+	private void reduce(Frame chain, int minPower) {
+		while (operatorCount > chain.operatorBase
+				&& PrattParser.POWER[operators[operatorCount - 1].getKind().ordinal()] >= minPower) {
+			IToken op = operators[--operatorCount];
+			operators[operatorCount] = null;
+			Expr right = operands[--operandCount];
+			operands[operandCount] = null;
+			int left = operandCount - 1;
+			operands[left] = new BinaryExpr(operandFirsts[left], operands[left], op, right);
+		}
+	}
+
+}
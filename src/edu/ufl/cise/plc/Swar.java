@@ -0,0 +1,119 @@
+package edu.ufl.cise.plc;
+
+// bulk scans over the source characters, used by the lexer to skip runs of characters that
+// cannot end a token. four chars are packed into a long, one in each 16 bit lane, and tested at
+// once with integer arithmetic (SIMD within a register), so there is one branch per four chars.
+// each scan has a scalar version, which finishes the last few chars and handles non-ASCII text.
+// the lexer uses the scalar versions unless plc.lexer.skip is "swar": on JDK 17, C2 does not merge
+// the four char loads that make up a word, and a tight scalar loop is faster (see SwarBenchmark).
+public final class Swar {
+	// 1 in the lowest bit of every lane
+	static final long ONES = 0x0001000100010001L;
+	// the highest bit of every lane
+	static final long HIGHS = 0x8000800080008000L;
+	// the bits of every lane that are set only in non-ASCII chars
+	static final long NON_ASCII = 0xFF80FF80FF80FF80L;
+	// 0x20 in every lane, which maps upper case letters to lower case
+	static final long CASE = 0x0020002000200020L;
+
+	private Swar() {
+	}
+
+	// returns the four chars starting at i, the first in the lowest lane
+	static long word(char[] chars, int i) {
+		return chars[i] | (long) chars[i + 1] << 16 | (long) chars[i + 2] << 32 | (long) chars[i + 3] << 48;
+	}
+
+	// returns the index of the lane of the lowest high bit set in mask
+	static int lane(long mask) {
+		return Long.numberOfTrailingZeros(mask) >>> 4;
+	}
+
+	// sets the high bit of each lane of an ASCII word that is between lo and hi.
+	// no lane can borrow from the next one, since every lane is below 0x80 and its high bit is set.
+	static long between(long w, char lo, char hi) {
+		return ((w | HIGHS) - lo * ONES) & ((hi * ONES | HIGHS) - w) & HIGHS;
+	}
+
+	// returns the index of the first ch from start to end, or end if there is none
+	public static int indexOf(char[] chars, int start, int end, char ch) {
+		long pattern = ch * ONES;
+		int i = start;
+		for (; i + 4 <= end; i += 4) {
+			long x = word(chars, i) ^ pattern;
+			// the high bit is set in each lane that is 0, and may also be set in the lanes above it
+			// by the borrow, so only the lowest one is exact
+			long found = (x - ONES) & ~x & HIGHS;
+			if (found != 0) {
+				return i + lane(found);
+			}
+		}
+		return indexOfScalar(chars, i, end, ch);
+	}
+
+	public static int indexOfScalar(char[] chars, int start, int end, char ch) {
+		int i = start;
+		while (i < end && chars[i] != ch) {
+			i++;
+		}
+		return i;
+	}
+
+	// returns the index of the first char from start to end that cannot be part of an identifier,
+	// or end if there is none
+	public static int skipIdentifier(char[] chars, int start, int end) {
+		int i = start;
+		for (; i + 4 <= end; i += 4) {
+			long w = word(chars, i);
+			if ((w & NON_ASCII) != 0) {
+				break;
+			}
+			long lower = w | CASE;
+			long part = between(lower, 'a', 'z') | between(w, '0', '9') | between(w, '_', '_') | between(w, '$', '$');
+			long stop = ~part & HIGHS;
+			if (stop != 0) {
+				return i + lane(stop);
+			}
+		}
+		return skipIdentifierScalar(chars, i, end);
+	}
+
+	public static int skipIdentifierScalar(char[] chars, int start, int end) {
+		int i = start;
+		while (i < end && isIdentifierPart(chars[i])) {
+			i++;
+		}
+		return i;
+	}
+
+	static boolean isIdentifierPart(char ch) {
+		return (ch >= 'a' && ch <= 'z') || (ch >= 'A' && ch <= 'Z') || (ch >= '0' && ch <= '9') || ch == '_' || ch == '$';
+	}
+
+	// returns the index of the first char from start to end that is not a space, tab or carriage return,
+	// or end if there is none. new lines are not skipped, since the lexer counts them.
+	public static int skipBlanks(char[] chars, int start, int end) {
+		int i = start;
+		for (; i + 4 <= end; i += 4) {
+			long w = word(chars, i);
+			if ((w & NON_ASCII) != 0) {
+				break;
+			}
+			long blank = between(w, ' ', ' ') | between(w, '\t', '\t') | between(w, '\r', '\r');
+			long stop = ~blank & HIGHS;
+			if (stop != 0) {
+				return i + lane(stop);
+			}
+		}
+		return skipBlanksScalar(chars, i, end);
+	}
+
+	public static int skipBlanksScalar(char[] chars, int start, int end) {
+		int i = start;
+		while (i < end && (chars[i] == ' ' || chars[i] == '\t' || chars[i] == '\r')) {
+			i++;
+		}
+		return i;
+	}
+
+}
@@ -0,0 +1,143 @@
+package edu.ufl.cise.plc;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// interns the spellings of identifiers, giving each distinct spelling a dense int id starting at 0,
+// so later phases can keep per-name data in arrays indexed by id instead of maps keyed by String.
+// a table lives as long as the compilation that uses it: each lexer has its own unless it is given
+// one, and the chunks of one source (ParallelLexer) and the files of one batch (BatchCompiler) share
+// one, so the ids of their identifiers can be compared. no table is shared by the whole process.
+// the table is safe to share between threads, for example lexers running on several files at once.
+// looking up a spelling that is already in the table takes no lock: the buckets hold immutable
+// entries and are read with volatile semantics. only adding a new spelling locks the table.
+public final class SymbolTable {
+	// an interned spelling, which never changes once it is in a bucket
+	static final class Entry {
+		final char[] chars;
+		final int hash;
+		final int id;
+		final String name;
+		// next entry in the same bucket
+		final Entry next;
+
+		Entry(char[] _chars, int _hash, int _id, String _name, Entry _next) {
+			chars = _chars;
+			hash = _hash;
+			id = _id;
+			name = _name;
+			next = _next;
+		}
+	}
+
+	// buckets of the hash table, which is replaced by a bigger one as it fills up
+	volatile AtomicReferenceArray<Entry> buckets = new AtomicReferenceArray<>(64);
+	// entries indexed by id
+	volatile Entry[] byId = new Entry[64];
+	// number of spellings in the table, only changed while holding the lock
+	int size;
+
+	public SymbolTable() {
+	}
+
+	// returns the id of the spelling of the given length starting at start in chars, adding it if it is new
+	public int intern(char[] chars, int start, int length) {
+		int hash = hash(chars, start, length);
+		AtomicReferenceArray<Entry> table = buckets;
+		Entry e = find(table.get(hash & (table.length() - 1)), hash, chars, start, length);
+		if (e != null) {
+			return e.id;
+		}
+		return add(hash, chars, start, length);
+	}
+
+	// returns the id of name, adding it if it is new
+	public int intern(String name) {
+		return intern(name.toCharArray(), 0, name.length());
+	}
+
+	// returns the id of name, or -1 if it is not in the table
+	public int find(String name) {
+		char[] chars = name.toCharArray();
+		int hash = hash(chars, 0, chars.length);
+		AtomicReferenceArray<Entry> table = buckets;
+		Entry e = find(table.get(hash & (table.length() - 1)), hash, chars, 0, chars.length);
+		if (e != null) {
+			return e.id;
+		}
+		// the table may have been replaced, so look again under the lock
+		synchronized (this) {
+			table = buckets;
+			e = find(table.get(hash & (table.length() - 1)), hash, chars, 0, chars.length);
+			return e != null ? e.id : -1;
+		}
+	}
+
+	// returns the spelling with the given id
+	public String name(int id) {
+		return byId[id].name;
+	}
+
+	// returns the number of spellings in the table, which is one more than the largest id
+	public synchronized int size() {
+		return size;
+	}
+
+	// adds a spelling under the lock, unless another thread added it first
+	private synchronized int add(int hash, char[] chars, int start, int length) {
+		AtomicReferenceArray<Entry> table = buckets;
+		int b = hash & (table.length() - 1);
+		Entry e = find(table.get(b), hash, chars, start, length);
+		if (e != null) {
+			return e.id;
+		}
+		int id = size;
+		if (id == byId.length) {
+			byId = Arrays.copyOf(byId, id * 2);
+		}
+		char[] copy = Arrays.copyOfRange(chars, start, start + length);
+		e = new Entry(copy, hash, id, new String(copy), table.get(b));
+		byId[id] = e;
+		// the entry is published only after it is in byId, so name works for any id handed out
+		table.set(b, e);
+		size++;
+		if (size > table.length() * 3 / 4) {
+			resize(table);
+		}
+		return id;
+	}
+
+	// moves every entry to a table twice the size. readers still using the old table may miss
+	// spellings added from now on, but then they take the lock and look again.
+	private void resize(AtomicReferenceArray<Entry> old) {
+		AtomicReferenceArray<Entry> table = new AtomicReferenceArray<>(old.length() * 2);
+		int mask = table.length() - 1;
+		for (int id = 0; id < size; id++) {
+			Entry e = byId[id];
+			int b = e.hash & mask;
+			Entry moved = new Entry(e.chars, e.hash, e.id, e.name, table.get(b));
+			table.set(b, moved);
+		}
+		buckets = table;
+	}
+
+	// returns the entry of the bucket starting with e that has the given spelling, or null
+	private static Entry find(Entry e, int hash, char[] chars, int start, int length) {
+		for (; e != null; e = e.next) {
+			if (e.hash == hash && e.chars.length == length && Arrays.equals(e.chars, 0, length, chars, start, start + length)) {
+				return e;
+			}
+		}
+		return null;
+	}
+
+	// hashes the spelling, spreading the high bits into the low ones used to pick the bucket
+	private static int hash(char[] chars, int start, int length) {
+		int h = 0;
+		for (int i = start; i < start + length; i++) {
+			h = 31 * h + chars[i];
+		}
+		return h ^ (h >>> 16);
+	}
+
+}
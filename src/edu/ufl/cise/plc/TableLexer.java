@@ -0,0 +1,255 @@
+package edu.ufl.cise.plc;
+
+import java.io.Reader;
+
+import edu.ufl.cise.plc.IToken.Kind;
+
+// a lexer that runs the same DFA as Lexer, but from a transition table instead of nested switches.
+// each character is mapped to a class by an ASCII lookup table, and the next action is read from a
+// [state][class] table, so the inner loop is two array loads and a few bit tests per character.
+// everything apart from scanning (token objects, values, lookahead, chunked input) is inherited.
+public class TableLexer extends Lexer {
+	// character classes
+	private static final int OTHER = 0;
+	private static final int END = 1; // end of the input, not a character
+	private static final int SPACE = 2;
+	private static final int NEW_LINE = 3;
+	private static final int LETTER = 4;
+	private static final int ESC_LETTER = 5; // letters that may follow \ in a string literal
+	private static final int ZERO = 6;
+	private static final int DIGIT = 7;
+	private static final int DOT = 8;
+	private static final int QUOTE = 9;
+	private static final int APOSTROPHE = 10;
+	private static final int BACKSLASH = 11;
+	private static final int HASH = 12;
+	private static final int EQ = 13;
+	private static final int LT = 14;
+	private static final int GT = 15;
+	private static final int MINUS = 16;
+	private static final int BANG = 17;
+	// the characters that are always a token on their own each have a class, starting here
+	private static final int SINGLE = 18;
+	private static final String SINGLE_CHARS = "()[]+*/%&|;,^";
+	private static final Kind[] SINGLE_KINDS = { Kind.LPAREN, Kind.RPAREN, Kind.LSQUARE, Kind.RSQUARE, Kind.PLUS,
+			Kind.TIMES, Kind.DIV, Kind.MOD, Kind.AND, Kind.OR, Kind.SEMI, Kind.COMMA, Kind.RETURN };
+	private static final int CLASSES = SINGLE + SINGLE_CHARS.length();
+
+	// states
+	private static final int START = 0;
+	private static final int IN_COMM = 1;
+	private static final int IN_IDENT = 2;
+	private static final int HAVE_ZERO = 3;
+	private static final int IN_NUM = 4;
+	private static final int HAVE_DOT = 5;
+	private static final int IN_FLOAT = 6;
+	private static final int HAVE_EQ = 7;
+	private static final int HAVE_LT = 8;
+	private static final int HAVE_GT = 9;
+	private static final int HAVE_MINUS = 10;
+	private static final int HAVE_BANG = 11;
+	private static final int IN_STRLIT = 12;
+	private static final int HAVE_ESC = 13;
+	private static final int STATES = 14;
+
+	// an action is the next state or the kind of the token accepted, shifted left by two, and these flags
+	private static final int CONSUME = 1; // the character is part of the token
+	private static final int ACCEPT = 2; // the token ends here
+
+	// class of each ASCII character
+	static final byte[] CHAR_CLASS = new byte[128];
+	// action for each state and class, stored as one array indexed by state * CLASSES + class
+	static final int[] TABLE = new int[STATES * CLASSES];
+
+	static {
+		for (char ch = 'a'; ch <= 'z'; ch++) {
+			CHAR_CLASS[ch] = LETTER;
+			CHAR_CLASS[Character.toUpperCase(ch)] = LETTER;
+		}
+		CHAR_CLASS['_'] = LETTER;
+		CHAR_CLASS['$'] = LETTER;
+		for (char ch : "btnfr".toCharArray()) {
+			CHAR_CLASS[ch] = ESC_LETTER;
+		}
+		CHAR_CLASS['0'] = ZERO;
+		for (char ch = '1'; ch <= '9'; ch++) {
+			CHAR_CLASS[ch] = DIGIT;
+		}
+		CHAR_CLASS[' '] = SPACE;
+		CHAR_CLASS['\t'] = SPACE;
+		CHAR_CLASS['\r'] = SPACE;
+		CHAR_CLASS['\n'] = NEW_LINE;
+		CHAR_CLASS['.'] = DOT;
+		CHAR_CLASS['"'] = QUOTE;
+		CHAR_CLASS['\''] = APOSTROPHE;
+		CHAR_CLASS['\\'] = BACKSLASH;
+		CHAR_CLASS['#'] = HASH;
+		CHAR_CLASS['='] = EQ;
+		CHAR_CLASS['<'] = LT;
+		CHAR_CLASS['>'] = GT;
+		CHAR_CLASS['-'] = MINUS;
+		CHAR_CLASS['!'] = BANG;
+		for (int i = 0; i < SINGLE_CHARS.length(); i++) {
+			CHAR_CLASS[SINGLE_CHARS.charAt(i)] = (byte) (SINGLE + i);
+		}
+
+		// any other character is an illegal token on its own
+		setAll(START, accept(Kind.ERROR, true));
+		set(START, END, accept(Kind.EOF, false));
+		set(START, SPACE, go(START));
+		set(START, NEW_LINE, go(START));
+		set(START, LETTER, go(IN_IDENT));
+		set(START, ESC_LETTER, go(IN_IDENT));
+		set(START, ZERO, go(HAVE_ZERO));
+		set(START, DIGIT, go(IN_NUM));
+		set(START, QUOTE, go(IN_STRLIT));
+		set(START, HASH, go(IN_COMM));
+		set(START, EQ, go(HAVE_EQ));
+		set(START, LT, go(HAVE_LT));
+		set(START, GT, go(HAVE_GT));
+		set(START, MINUS, go(HAVE_MINUS));
+		set(START, BANG, go(HAVE_BANG));
+		for (int i = 0; i < SINGLE_KINDS.length; i++) {
+			set(START, SINGLE + i, accept(SINGLE_KINDS[i], true));
+		}
+
+		setAll(IN_IDENT, accept(Kind.IDENT, false));
+		set(IN_IDENT, LETTER, go(IN_IDENT));
+		set(IN_IDENT, ESC_LETTER, go(IN_IDENT));
+		set(IN_IDENT, ZERO, go(IN_IDENT));
+		set(IN_IDENT, DIGIT, go(IN_IDENT));
+
+		setAll(HAVE_ZERO, accept(Kind.INT_LIT, false));
+		set(HAVE_ZERO, DOT, go(HAVE_DOT));
+
+		setAll(IN_NUM, accept(Kind.INT_LIT, false));
+		set(IN_NUM, ZERO, go(IN_NUM));
+		set(IN_NUM, DIGIT, go(IN_NUM));
+		set(IN_NUM, DOT, go(HAVE_DOT));
+
+		// a dot must be followed by a digit
+		setAll(HAVE_DOT, accept(Kind.ERROR, false));
+		set(HAVE_DOT, ZERO, go(IN_FLOAT));
+		set(HAVE_DOT, DIGIT, go(IN_FLOAT));
+
+		setAll(IN_FLOAT, accept(Kind.FLOAT_LIT, false));
+		set(IN_FLOAT, ZERO, go(IN_FLOAT));
+		set(IN_FLOAT, DIGIT, go(IN_FLOAT));
+
+		setAll(HAVE_EQ, accept(Kind.ASSIGN, false));
+		set(HAVE_EQ, EQ, accept(Kind.EQUALS, true));
+
+		setAll(HAVE_LT, accept(Kind.LT, false));
+		set(HAVE_LT, LT, accept(Kind.LANGLE, true));
+		set(HAVE_LT, EQ, accept(Kind.LE, true));
+		set(HAVE_LT, MINUS, accept(Kind.LARROW, true));
+
+		setAll(HAVE_GT, accept(Kind.GT, false));
+		set(HAVE_GT, GT, accept(Kind.RANGLE, true));
+		set(HAVE_GT, EQ, accept(Kind.GE, true));
+
+		setAll(HAVE_MINUS, accept(Kind.MINUS, false));
+		set(HAVE_MINUS, GT, accept(Kind.RARROW, true));
+
+		setAll(HAVE_BANG, accept(Kind.BANG, false));
+		set(HAVE_BANG, EQ, accept(Kind.NOT_EQUALS, true));
+
+		// string literals take any character, including new lines, until the closing quote
+		setAll(IN_STRLIT, go(IN_STRLIT));
+		set(IN_STRLIT, QUOTE, accept(Kind.STRING_LIT, true));
+		set(IN_STRLIT, BACKSLASH, go(HAVE_ESC));
+		set(IN_STRLIT, END, accept(Kind.ERROR, false));
+
+		setAll(HAVE_ESC, accept(Kind.ERROR, true));
+		set(HAVE_ESC, ESC_LETTER, go(IN_STRLIT));
+		set(HAVE_ESC, QUOTE, go(IN_STRLIT));
+		set(HAVE_ESC, APOSTROPHE, go(IN_STRLIT));
+		set(HAVE_ESC, BACKSLASH, go(IN_STRLIT));
+		set(HAVE_ESC, END, accept(Kind.ERROR, false));
+
+		setAll(IN_COMM, go(IN_COMM));
+		set(IN_COMM, NEW_LINE, go(START));
+		// at the end of the input, go back to START without consuming anything, which then returns EOF
+		set(IN_COMM, END, START << 2);
+	}
+
+	// the action that consumes the character and moves to state
+	private static int go(int state) {
+		return state << 2 | CONSUME;
+	}
+
+	// the action that ends a token of the given kind, after the character if consume is true
+	private static int accept(Kind kind, boolean consume) {
+		return kind.ordinal() << 2 | ACCEPT | (consume ? CONSUME : 0);
+	}
+
+	private static void setAll(int state, int action) {
+		for (int c = 0; c < CLASSES; c++) {
+			TABLE[state * CLASSES + c] = action;
+		}
+	}
+
+	private static void set(int state, int c, int action) {
+		TABLE[state * CLASSES + c] = action;
+	}
+
+	public TableLexer(String input) {
+		super(input);
+	}
+
+	// creates a lexer that reads the source from in, one chunk at a time
+	public TableLexer(Reader in) {
+		super(in);
+	}
+
+	// runs the DFA from the table, scanning only as far as the next token.
+	// returns the same kinds and positions as Lexer.scan.
+	@Override
+	Kind scan() {
+		int state = START;
+		while (true) {
+			if (state == START) {
+				startPos = pos;
+				startLine = line;
+				startColumn = pos - lineStart;
+			}
+			else if (state == IN_COMM) {
+				// comments are not kept in the array when it is refilled
+				startPos = pos;
+			}
+			char ch = charAt(pos);
+			int c = pos >= limit ? END : ch < 128 ? CHAR_CLASS[ch] : OTHER;
+			int action = TABLE[state * CLASSES + c];
+			if ((action & CONSUME) != 0) {
+				pos++;
+				// a new line is counted whatever the action, since an illegal escape consumes it and
+				// accepts an error
+				if (ch == '\n') {
+					line++;
+					lineStart = pos;
+				}
+			}
+			if ((action & ACCEPT) != 0) {
+				return accept(TokenBuffer.KINDS[action >>> 2]);
+			}
+			state = action >>> 2;
+		}
+	}
+
+	// finishes the tokens whose kind depends on more than the DFA state
+	private Kind accept(Kind kind) {
+		if (kind == Kind.IDENT) {
+			return Keywords.lookup(chars, startPos, pos - startPos);
+		}
+		if (kind == Kind.INT_LIT) {
+			// check if the integer is not above the maximum value
+			long value = intValue(startPos, pos);
+			if (value < 0) {
+				return Kind.ERROR;
+			}
+			intLiteral = (int) value;
+		}
+		return kind;
+	}
+
+}
@@ -1,20 +1,93 @@
 package edu.ufl.cise.plc;
 
-import java.util.ArrayList;
-
 public class Token implements IToken {
+	// text of the kinds that always have the same text, indexed by ordinal, or null for the others
+	static final String[] FIXED_TEXT = new String[Kind.values().length];
+	static {
+		FIXED_TEXT[Kind.LPAREN.ordinal()] = "(";
+		FIXED_TEXT[Kind.RPAREN.ordinal()] = ")";
+		FIXED_TEXT[Kind.LSQUARE.ordinal()] = "[";
+		FIXED_TEXT[Kind.RSQUARE.ordinal()] = "]";
+		FIXED_TEXT[Kind.LANGLE.ordinal()] = "<<";
+		FIXED_TEXT[Kind.RANGLE.ordinal()] = ">>";
+		FIXED_TEXT[Kind.PLUS.ordinal()] = "+";
+		FIXED_TEXT[Kind.MINUS.ordinal()] = "-";
+		FIXED_TEXT[Kind.TIMES.ordinal()] = "*";
+		FIXED_TEXT[Kind.DIV.ordinal()] = "/";
+		FIXED_TEXT[Kind.MOD.ordinal()] = "%";
+		FIXED_TEXT[Kind.KW_IF.ordinal()] = "if";
+		FIXED_TEXT[Kind.KW_FI.ordinal()] = "fi";
+		FIXED_TEXT[Kind.KW_ELSE.ordinal()] = "else";
+		FIXED_TEXT[Kind.KW_WRITE.ordinal()] = "write";
+		FIXED_TEXT[Kind.KW_CONSOLE.ordinal()] = "console";
+		FIXED_TEXT[Kind.AND.ordinal()] = "&";
+		FIXED_TEXT[Kind.OR.ordinal()] = "|";
+		FIXED_TEXT[Kind.BANG.ordinal()] = "!";
+		FIXED_TEXT[Kind.LT.ordinal()] = "<";
+		FIXED_TEXT[Kind.GT.ordinal()] = ">";
+		FIXED_TEXT[Kind.EQUALS.ordinal()] = "==";
+		FIXED_TEXT[Kind.NOT_EQUALS.ordinal()] = "!=";
+		FIXED_TEXT[Kind.LE.ordinal()] = "<=";
+		FIXED_TEXT[Kind.GE.ordinal()] = ">=";
+		FIXED_TEXT[Kind.SEMI.ordinal()] = ";";
+		FIXED_TEXT[Kind.COMMA.ordinal()] = ",";
+		FIXED_TEXT[Kind.ASSIGN.ordinal()] = "=";
+		FIXED_TEXT[Kind.RARROW.ordinal()] = "->";
+		FIXED_TEXT[Kind.LARROW.ordinal()] = "<-";
+		FIXED_TEXT[Kind.KW_VOID.ordinal()] = "void";
+		FIXED_TEXT[Kind.RETURN.ordinal()] = "^";
+		FIXED_TEXT[Kind.EOF.ordinal()] = "";
+	}
+	
 	public Kind kind;
+	// text of the token, or null until it is sliced out of source
 	public String text;
+	// characters of the source the token was scanned from, if its text has not been sliced yet
+	public char[] source;
 	public int pos;
 	public int length;
-	public ArrayList<Integer> newLines;
+	// line and column of the first character, or -1 until they are looked up in lines
+	public int line;
+	public int column;
+	// line index of the source, used to find the location lazily
+	public LineIndex lines;
+	// location of the token, created on the first call to getSourceLocation
+	SourceLocation loc;
+	// true if value holds the value of a literal, which is then never parsed from the text
+	boolean hasValue;
+	// value of an INT_LIT, bits of a FLOAT_LIT, 1 or 0 for a BOOLEAN_LIT or the symbol id of an IDENT
+	int value;
+	// table the symbol id of an IDENT is in, set by the lexer along with the id
+	SymbolTable symbols;
+	// value of a STRING_LIT, created on the first call to getStringValue
+	String stringValue;
 	
-	public Token(Kind _kind, String _text, int _pos, int _length, ArrayList<Integer> _newLines) {
+	// creates a token whose line and column were tracked by the lexer while scanning
+	public Token(Kind _kind, String _text, int _pos, int _length, int _line, int _column) {
 		kind = _kind;
 		text = _text;
 		pos = _pos;
 		length = _length;
-		newLines = _newLines;
+		line = _line;
+		column = _column;
+	}
+	
+	// creates a token whose text is sliced out of the source characters only when getText is called
+	public Token(Kind _kind, char[] _source, int _pos, int _length, int _line, int _column) {
+		this(_kind, (String) null, _pos, _length, _line, _column);
+		source = _source;
+	}
+	
+	// creates a token whose line and column are looked up in the line index when first needed
+	public Token(Kind _kind, String _text, int _pos, int _length, LineIndex _lines) {
+		this(_kind, _text, _pos, _length, -1, -1);
+		lines = _lines;
+	}
+	
+	// sets the value of a literal that has already been decoded by the lexer
+	void setValue(int _value) {
+		value = _value;
+		hasValue = true;
 	}
 	
 	@Override
@@ -25,53 +98,107 @@ public class Token implements IToken {
 
 	@Override
 	public String getText() {
-		// return the text of the token
+		// return the text of the token, slicing it from the source the first time
+		if (text == null) {
+			text = FIXED_TEXT[kind.ordinal()];
+			if (text == null) {
+				text = new String(source, pos, length);
+			}
+			source = null;
+		}
 		return text;
 	}
 
 	@Override
 	public SourceLocation getSourceLocation() {
-		// use token position and length to find line and column
-		int line = 0;
-		int column = 0;
-		for (int i = 0; i < newLines.size(); i++) {
-			if (pos < newLines.get(i)) {
-				line = i;
-				if (line == 0) {
-					column = pos;
-					break;
-				} else {
-					column = pos - newLines.get(i-1) - 1;
-					break;
-				}
+		// the location is computed once and then cached
+		if (loc == null) {
+			if (line < 0) {
+				line = lines.line(pos);
+				column = pos - lines.lineStart(line);
 			}
+			loc = new SourceLocation(line, column);
 		}
-		SourceLocation loc = new SourceLocation(line, column);
 		return loc;
 	}
 
 	@Override
 	public int getIntValue() {
-		// return integer value of string
-		return Integer.parseInt(text);
+		// return integer value of string, parsing it only if the lexer did not
+		if (!hasValue) {
+			setValue(Integer.parseInt(getText()));
+		}
+		return value;
 	}
 
 	@Override
 	public float getFloatValue() {
-		// return float value of string
-		return Float.valueOf(text).floatValue();
+		// return float value of string, parsing it only if the lexer did not
+		if (!hasValue) {
+			setValue(Float.floatToRawIntBits(Float.parseFloat(getText())));
+		}
+		return Float.intBitsToFloat(value);
 	}
 
 	@Override
 	public boolean getBooleanValue() {
-		// TODO Auto-generated method stub
-		return false;
+		// return boolean value of string
+		if (!hasValue) {
+			setValue(getText().equals("true") ? 1 : 0);
+		}
+		return value != 0;
 	}
 
 	@Override
 	public String getStringValue() {
-		// TODO Auto-generated method stub
-		return null;
+		// return the text without the delimiting quotes and with escape sequences replaced,
+		// decoding it only once
+		if (stringValue == null) {
+			stringValue = source != null ? unescape(source, pos, length) : unescape(getText().toCharArray(), 0, length);
+		}
+		return stringValue;
+	}
+
+	@Override
+	public int getSymbol() {
+		// the symbol id is set by the lexer, so a token that was not scanned by one has none
+		return kind == Kind.IDENT && hasValue ? value : -1;
+	}
+
+	@Override
+	public SymbolTable getSymbolTable() {
+		return kind == Kind.IDENT ? symbols : null;
+	}
+
+	// returns the value of the string literal of the given length starting at pos in chars
+	static String unescape(char[] chars, int pos, int length) {
+		int start = pos + 1;
+		int end = pos + length - 1;
+		// most literals have no escape sequences, so they are copied in one go
+		int i = start;
+		while (i < end && chars[i] != '\\') {
+			i++;
+		}
+		if (i == end) {
+			return new String(chars, start, end - start);
+		}
+		StringBuilder sb = new StringBuilder(end - start);
+		sb.append(chars, start, i - start);
+		while (i < end) {
+			char ch = chars[i++];
+			if (ch == '\\') {
+				ch = switch (chars[i++]) {
+				case 'b' -> '\b';
+				case 't' -> '\t';
+				case 'n' -> '\n';
+				case 'f' -> '\f';
+				case 'r' -> '\r';
+				default -> chars[i - 1];
+				};
+			}
+			sb.append(ch);
+		}
+		return sb.toString();
 	}
 
 }
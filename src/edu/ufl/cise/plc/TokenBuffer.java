@@ -0,0 +1,448 @@
+package edu.ufl.cise.plc;
+
+import java.util.Arrays;
+
+import edu.ufl.cise.plc.IToken.Kind;
+import edu.ufl.cise.plc.IToken.SourceLocation;
+
+// stores all the tokens of a source compactly, as parallel arrays instead of one object per token.
+// kinds are kept as the ordinal of IToken.Kind in a byte array, positions and lengths in int arrays,
+// literal values are decoded once by the lexer and kept in an int array, and locations are found in
+// the line index of the source.
+// IToken views of single tokens are created on demand, or one View can be moved from token to token.
+// an edit changes the buffer in place, like LineIndex. the source and the token arrays are gap
+// buffers whose gaps are moved to each edit, so an edit moves only what lies between it and the last
+// one. the positions of the tokens after the gap are kept relative to the end of the source, so the
+// edits before them change none of them.
+public class TokenBuffer {
+	// kinds indexed by ordinal
+	static final Kind[] KINDS = Kind.values();
+
+	// characters of the source the tokens were scanned from: the ones before the gap, from gapStart
+	// to gapEnd, are at the start of the array and the rest at its end
+	char[] source;
+	int gapStart;
+	int gapEnd;
+	// number of characters of the source
+	int sourceLength;
+	// line index of the source
+	final LineIndex lines;
+	// table the identifiers of the source are interned in
+	final SymbolTable symbols;
+	// the arrays below hold the tokens before the gap at their start and the rest at their end, from
+	// index afterGap on. tokens are only added with the gap at the end.
+	// ordinal of the kind of each token
+	byte[] kinds;
+	// index of the first character of each token, less sourceLength after the gap
+	int[] positions;
+	// number of characters of each token
+	int[] lengths;
+	// value of each INT_LIT, bits of each FLOAT_LIT, 1 or 0 for each BOOLEAN_LIT and id in symbols of each IDENT
+	int[] values;
+	// number of tokens in the buffer
+	int size;
+	// number of tokens before the gap, which is the index where the gap begins
+	int gap;
+	int afterGap;
+
+	TokenBuffer(char[] _source, LineIndex _lines, SymbolTable _symbols, int capacity) {
+		source = _source;
+		gapStart = _source.length;
+		gapEnd = _source.length;
+		sourceLength = _source.length;
+		lines = _lines;
+		symbols = _symbols;
+		kinds = new byte[capacity];
+		positions = new int[capacity];
+		lengths = new int[capacity];
+		values = new int[capacity];
+		size = 0;
+		gap = 0;
+		afterGap = capacity;
+	}
+
+	// scans the whole input into a new buffer, which ends with the EOF token, with its own symbol table
+	public static TokenBuffer lex(String input) {
+		return lex(input, new SymbolTable());
+	}
+
+	// scans the whole input into a new buffer, interning its identifiers in symbols
+	public static TokenBuffer lex(String input, SymbolTable symbols) {
+		char[] chars = input.toCharArray();
+		TokenBuffer buf = new TokenBuffer(chars, LineIndex.of(chars, chars.length), symbols, chars.length / 4 + 16);
+		new Lexer(chars, chars.length, 0, symbols).scanAll(buf);
+		return buf;
+	}
+
+	// appends a token, growing the arrays if they are full
+	void add(Kind kind, int pos, int length, int value) {
+		if (gap == afterGap) {
+			grow(size + 1);
+		}
+		kinds[gap] = (byte) kind.ordinal();
+		positions[gap] = pos;
+		lengths[gap] = length;
+		values[gap] = value;
+		gap++;
+		size++;
+	}
+
+	// grows the arrays so they hold at least n tokens, keeping the tokens after the gap at their end
+	private void grow(int n) {
+		int capacity = Math.max(kinds.length * 2, n);
+		int end = kinds.length - afterGap;
+		int to = capacity - end;
+		kinds = grow(kinds, capacity, end, to);
+		positions = grow(positions, capacity, end, to);
+		lengths = grow(lengths, capacity, end, to);
+		values = grow(values, capacity, end, to);
+		afterGap = to;
+	}
+
+	private byte[] grow(byte[] a, int capacity, int end, int to) {
+		byte[] grown = Arrays.copyOf(a, capacity);
+		System.arraycopy(a, afterGap, grown, to, end);
+		return grown;
+	}
+
+	private int[] grow(int[] a, int capacity, int end, int to) {
+		int[] grown = Arrays.copyOf(a, capacity);
+		System.arraycopy(a, afterGap, grown, to, end);
+		return grown;
+	}
+
+	// appends the tokens of other, starting with token from, where both buffers have their gaps at the end
+	void append(TokenBuffer other, int from) {
+		int n = other.size - from;
+		if (size + n > afterGap) {
+			grow(size + n);
+		}
+		System.arraycopy(other.kinds, from, kinds, size, n);
+		System.arraycopy(other.positions, from, positions, size, n);
+		System.arraycopy(other.lengths, from, lengths, size, n);
+		System.arraycopy(other.values, from, values, size, n);
+		size += n;
+		gap += n;
+	}
+
+	// changes the buffer to that of the source after replacing removed characters at offset with
+	// inserted, and returns it. views of its tokens from before the edit are no longer valid.
+	// the source is re-scanned from the end of the last token before the edit only until a token
+	// starts at the same place as an old one after the edit; the old tokens from there on are kept.
+	// the gaps of the source, the tokens and the lines are moved to the edit, so the work depends on
+	// the size of the edit and its distance from the last one, not on the size of the source, apart
+	// from doubling an array when a gap is too small, which is rare.
+	public TokenBuffer edit(int offset, int removed, String inserted) {
+		int end = offset + inserted.length();
+		// keep the tokens that end before the edit, since the character after each of them is unchanged
+		int first = firstEndingAtOrAfter(offset);
+		int restart = first == 0 ? 0 : pos(first - 1) + length(first - 1);
+		// the old tokens from first on are after the gap, so their positions follow the edit
+		moveGap(first);
+		editSource(offset, removed, inserted, restart);
+		lines.edit(offset, removed, inserted);
+		// the characters from restart on are after the gap in source, where the lexer reads them
+		int skip = gapEnd - gapStart;
+		Lexer lexer = new Lexer(source, source.length, restart + skip, symbols);
+		// the new tokens, which replace the old ones from first to old
+		TokenBuffer scanned = new TokenBuffer(source, lines, symbols, inserted.length() / 4 + 16);
+		// index of the first old token that could line up with the new ones
+		int old = first;
+		while (true) {
+			Kind kind = lexer.scan();
+			int start = lexer.startPos - skip;
+			if (start >= end) {
+				// the token is after the edit, so look for an old token starting at the same place
+				while (old < size && pos(old) < start) {
+					old++;
+				}
+				if (old < size && pos(old) == start) {
+					// from here on the scan would produce the old tokens again
+					break;
+				}
+			}
+			scanned.add(kind, start, lexer.pos - lexer.startPos, lexer.tokenValue(kind));
+			if (kind == Kind.EOF) {
+				old = size;
+				break;
+			}
+		}
+		replace(old, scanned);
+		return this;
+	}
+
+	// replaces removed characters at offset with inserted, and leaves the gap at restart, which is
+	// at or before offset
+	private void editSource(int offset, int removed, String inserted, int restart) {
+		moveSourceGap(offset);
+		gapEnd += removed;
+		if (gapEnd - gapStart < inserted.length()) {
+			int end = source.length - gapEnd;
+			char[] grown = new char[Math.max(source.length * 2, sourceLength - removed + inserted.length())];
+			System.arraycopy(source, 0, grown, 0, gapStart);
+			System.arraycopy(source, gapEnd, grown, grown.length - end, end);
+			gapEnd = grown.length - end;
+			source = grown;
+		}
+		inserted.getChars(0, inserted.length(), source, gapStart);
+		gapStart += inserted.length();
+		sourceLength += inserted.length() - removed;
+		moveSourceGap(restart);
+	}
+
+	// moves the gap of the source to just before the character at pos
+	private void moveSourceGap(int pos) {
+		if (pos < gapStart) {
+			int n = gapStart - pos;
+			System.arraycopy(source, pos, source, gapEnd - n, n);
+			gapStart = pos;
+			gapEnd -= n;
+		}
+		else if (pos > gapStart) {
+			int n = pos - gapStart;
+			System.arraycopy(source, gapEnd, source, gapStart, n);
+			gapStart = pos;
+			gapEnd += n;
+		}
+	}
+
+	// moves the gap of the token arrays to just before token i, changing the positions of the tokens
+	// that move across it
+	private void moveGap(int i) {
+		if (i < gap) {
+			int n = gap - i;
+			int to = afterGap - n;
+			System.arraycopy(kinds, i, kinds, to, n);
+			System.arraycopy(positions, i, positions, to, n);
+			System.arraycopy(lengths, i, lengths, to, n);
+			System.arraycopy(values, i, values, to, n);
+			for (int j = to; j < afterGap; j++) {
+				positions[j] -= sourceLength;
+			}
+			gap = i;
+			afterGap = to;
+		}
+		else if (i > gap) {
+			int n = i - gap;
+			System.arraycopy(kinds, afterGap, kinds, gap, n);
+			System.arraycopy(positions, afterGap, positions, gap, n);
+			System.arraycopy(lengths, afterGap, lengths, gap, n);
+			System.arraycopy(values, afterGap, values, gap, n);
+			for (int j = gap; j < i; j++) {
+				positions[j] += sourceLength;
+			}
+			gap = i;
+			afterGap += n;
+		}
+	}
+
+	// replaces the tokens from the gap up to old with the tokens of scanned
+	private void replace(int old, TokenBuffer scanned) {
+		int n = scanned.size;
+		afterGap += old - gap;
+		size -= old - gap;
+		if (afterGap - gap < n) {
+			grow(size + n);
+		}
+		System.arraycopy(scanned.kinds, 0, kinds, gap, n);
+		System.arraycopy(scanned.positions, 0, positions, gap, n);
+		System.arraycopy(scanned.lengths, 0, lengths, gap, n);
+		System.arraycopy(scanned.values, 0, values, gap, n);
+		gap += n;
+		size += n;
+	}
+
+	// returns the index of the first token ending at or after pos
+	private int firstEndingAtOrAfter(int pos) {
+		int low = 0;
+		int high = size - 1;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (pos(mid) + length(mid) >= pos) {
+				high = mid;
+			}
+			else {
+				low = mid + 1;
+			}
+		}
+		return low;
+	}
+
+	// returns the index in the arrays of token i
+	private int at(int i) {
+		return i < gap ? i : i + afterGap - gap;
+	}
+
+	// returns the index in source of the character at pos, which must not be in the gap
+	private int charAt(int pos) {
+		return pos < gapStart ? pos : pos + gapEnd - gapStart;
+	}
+
+	// returns the number of tokens, including the EOF token
+	public int size() {
+		return size;
+	}
+
+	// returns the kind of token i
+	public Kind kind(int i) {
+		return KINDS[kinds[at(i)]];
+	}
+
+	// returns the index of the first character of token i
+	public int pos(int i) {
+		return i < gap ? positions[i] : positions[i + afterGap - gap] + sourceLength;
+	}
+
+	// returns the number of characters in token i
+	public int length(int i) {
+		return lengths[at(i)];
+	}
+
+	// returns the text of token i
+	public String text(int i) {
+		String text = Token.FIXED_TEXT[kinds[at(i)]];
+		return text != null ? text : new String(source, charAt(pos(i)), length(i));
+	}
+
+	// returns the value of token i, as it is kept in values
+	int value(int i) {
+		return values[at(i)];
+	}
+
+	// returns the String represented by token i, which must be a STRING_LIT
+	String stringValue(int i) {
+		return Token.unescape(source, charAt(pos(i)), length(i));
+	}
+
+	// returns the location of the first character of token i
+	public SourceLocation location(int i) {
+		return lines.location(pos(i));
+	}
+
+	// returns the line index of the source
+	public LineIndex lines() {
+		return lines;
+	}
+
+	// returns the table the ids of the identifiers are in
+	public SymbolTable symbols() {
+		return symbols;
+	}
+
+	// returns a new view of token i, which can be kept, for example in the AST
+	public IToken get(int i) {
+		return new View(i);
+	}
+
+	// returns a view of the first token, to be moved over the buffer with moveTo
+	public View view() {
+		return new View(0);
+	}
+
+	// returns a lexer that hands out the tokens of the buffer in order
+	public ILexer lexer() {
+		return new BufferLexer();
+	}
+
+	// an IToken reading its fields from the buffer
+	public final class View implements IToken {
+		// index of the token in the buffer
+		int index;
+
+		View(int _index) {
+			index = _index;
+		}
+
+		// moves the view to token i, so the same object can be reused for every token
+		public View moveTo(int i) {
+			index = i;
+			return this;
+		}
+
+		// returns the index of the token in the buffer
+		public int index() {
+			return index;
+		}
+
+		@Override
+		public Kind getKind() {
+			return kind(index);
+		}
+
+		@Override
+		public String getText() {
+			return text(index);
+		}
+
+		@Override
+		public SourceLocation getSourceLocation() {
+			return location(index);
+		}
+
+		@Override
+		public int getIntValue() {
+			return value(index);
+		}
+
+		@Override
+		public float getFloatValue() {
+			return Float.intBitsToFloat(value(index));
+		}
+
+		@Override
+		public boolean getBooleanValue() {
+			return value(index) != 0;
+		}
+
+		@Override
+		public String getStringValue() {
+			return stringValue(index);
+		}
+
+		@Override
+		public int getSymbol() {
+			return kind(index) == Kind.IDENT ? value(index) : -1;
+		}
+
+		@Override
+		public SymbolTable getSymbolTable() {
+			return kind(index) == Kind.IDENT ? symbols : null;
+		}
+	}
+
+	// hands out the tokens of the buffer in order, throwing on illegal tokens like Lexer does
+	class BufferLexer implements ILexer {
+		// index of the next token
+		int index;
+
+		public IToken next() throws LexicalException {
+			int i = index;
+			// stay on the EOF token once it is reached
+			if (kind(i) != Kind.EOF) {
+				index++;
+			}
+			return check(i);
+		}
+
+		public IToken peek() throws LexicalException {
+			return check(index);
+		}
+
+		public IToken peek(int k) throws LexicalException {
+			if (k < 0 || k >= LOOKAHEAD) {
+				throw new IllegalArgumentException("cannot look " + k + " tokens ahead");
+			}
+			// every token is already in the buffer, so this only has to stop at the EOF token
+			return check(Math.min(index + k, size - 1));
+		}
+
+		// returns a view of token i, or throws if it is an illegal token
+		private IToken check(int i) throws LexicalException {
+			if (kind(i) == Kind.ERROR) {
+				throw new LexicalException("illegal token " + text(i), location(i));
+			}
+			return get(i);
+		}
+	}
+
+}
@@ -0,0 +1,16 @@
+package edu.ufl.cise.plc;
+
+import edu.ufl.cise.plc.IToken.SourceLocation;
+
+@SuppressWarnings("serial")
+public class TypeCheckException extends PLCException {
+
+	public TypeCheckException(String error_message, SourceLocation loc) {
+		super(error_message, loc);
+	}
+
+	public TypeCheckException(String message) {
+		super(message);
+	}
+
+}
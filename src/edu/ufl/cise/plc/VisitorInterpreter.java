@@ -0,0 +1,234 @@
+package edu.ufl.cise.plc;
+
+import java.util.Objects;
+
+import edu.ufl.cise.plc.IToken.Kind;
+import edu.ufl.cise.plc.ast.ASTVisitor;
+import edu.ufl.cise.plc.ast.BinaryExpr;
+import edu.ufl.cise.plc.ast.BooleanLitExpr;
+import edu.ufl.cise.plc.ast.ConditionalExpr;
+import edu.ufl.cise.plc.ast.Expr;
+import edu.ufl.cise.plc.ast.FloatLitExpr;
+import edu.ufl.cise.plc.ast.IdentExpr;
+import edu.ufl.cise.plc.ast.IntLitExpr;
+import edu.ufl.cise.plc.ast.PixelSelector;
+import edu.ufl.cise.plc.ast.StringLitExpr;
+import edu.ufl.cise.plc.ast.UnaryExpr;
+import edu.ufl.cise.plc.ast.UnaryExprPostfix;
+import edu.ufl.cise.plc.runtime.ColorOps;
+import edu.ufl.cise.plc.runtime.Image;
+
+// evaluates an expression by walking its AST, with every value boxed and every operator dispatched
+// on the classes of its operands each time it is evaluated.
+// it has the same semantics as Interpreter, and is kept as the reference that Interpreter is tested
+// against and the baseline it is benchmarked against.
+public class VisitorInterpreter implements ASTVisitor {
+	// a boxed color, so it is not mistaken for an int
+	record Color(int argb) {
+	}
+
+	// returns the value of e, with the variables in env. a color is returned as an Integer, like
+	// Interpreter.CompiledExpr.eval.
+	public static Object eval(Expr e, Environment env) throws Exception {
+		Object value = e.visit(new VisitorInterpreter(), env);
+		return value instanceof Color c ? (Object) c.argb() : value;
+	}
+
+	@Override
+	public Object visitBooleanLitExpr(BooleanLitExpr booleanLitExpr, Object arg) {
+		return booleanLitExpr.getValue();
+	}
+
+	@Override
+	public Object visitStringLitExpr(StringLitExpr stringLitExpr, Object arg) {
+		return stringLitExpr.getValue();
+	}
+
+	@Override
+	public Object visitIntLitExpr(IntLitExpr intLitExpr, Object arg) {
+		return intLitExpr.getValue();
+	}
+
+	@Override
+	public Object visitFloatLitExpr(FloatLitExpr floatLitExpr, Object arg) {
+		return floatLitExpr.getValue();
+	}
+
+	@Override
+	public Object visitIdentExpr(IdentExpr identExpr, Object arg) throws TypeCheckException {
+		Environment env = (Environment) arg;
+		int slot = env.slot(identExpr);
+		if (slot < 0) {
+			throw new TypeCheckException("undeclared identifier " + identExpr.getText(), identExpr.getSourceLoc());
+		}
+		return switch (env.type(slot)) {
+		case INT -> env.ints[slot];
+		case COLOR -> new Color(env.ints[slot]);
+		case BOOLEAN -> env.ints[slot] != 0;
+		case FLOAT -> env.floats[slot];
+		default -> env.objects[slot];
+		};
+	}
+
+	@Override
+	public Object visitUnaryExpr(UnaryExpr unaryExpr, Object arg) throws Exception {
+		Object e = unaryExpr.getExpr().visit(this, arg);
+		IToken op = unaryExpr.getOp();
+		if (op.getKind() == Kind.BANG && e instanceof Boolean b) {
+			return !b;
+		}
+		if (op.getKind() == Kind.MINUS && e instanceof Integer i) {
+			return -i;
+		}
+		if (op.getKind() == Kind.MINUS && e instanceof Float f) {
+			return -f;
+		}
+		if (op.getKind() == Kind.COLOR_OP && e instanceof Color c) {
+			return switch (op.getText()) {
+			case "getRed" -> ColorOps.red(c.argb());
+			case "getGreen" -> ColorOps.green(c.argb());
+			default -> ColorOps.blue(c.argb());
+			};
+		}
+		if (op.getKind() == Kind.IMAGE_OP && e instanceof Image i) {
+			return op.getText().equals("getWidth") ? i.width : i.height;
+		}
+		throw new TypeCheckException("incompatible type for operator " + op.getText(), op.getSourceLocation());
+	}
+
+	@Override
+	public Object visitBinaryExpr(BinaryExpr binaryExpr, Object arg) throws Exception {
+		Kind op = binaryExpr.getOp().getKind();
+		Object l = binaryExpr.getLeft().visit(this, arg);
+		if (op == Kind.AND && Boolean.FALSE.equals(l)) {
+			return false;
+		}
+		if (op == Kind.OR && Boolean.TRUE.equals(l)) {
+			return true;
+		}
+		Object r = binaryExpr.getRight().visit(this, arg);
+		if ((op == Kind.AND || op == Kind.OR) && l instanceof Boolean && r instanceof Boolean b) {
+			return b;
+		}
+		if (l instanceof Integer a && r instanceof Integer b) {
+			return switch (op) {
+			case PLUS -> a + b;
+			case MINUS -> a - b;
+			case TIMES -> a * b;
+			case DIV -> a / b;
+			case MOD -> a % b;
+			default -> compare(op, Integer.compare(a, b), a.equals(b));
+			};
+		}
+		if (l instanceof Number a && r instanceof Number b) {
+			float x = a.floatValue();
+			float y = b.floatValue();
+			return switch (op) {
+			case PLUS -> x + y;
+			case MINUS -> x - y;
+			case TIMES -> x * y;
+			case DIV -> x / y;
+			case MOD -> x % y;
+			// compare with the float operators, which differ from Float.compare for NaN and -0.0
+			case LT -> x < y;
+			case GT -> x > y;
+			case LE -> x <= y;
+			case GE -> x >= y;
+			case EQUALS -> x == y;
+			default -> x != y;
+			};
+		}
+		if ((l instanceof Color || r instanceof Color) && (l instanceof Color || l instanceof Integer)
+				&& (r instanceof Color || r instanceof Integer)) {
+			int a = l instanceof Color c ? c.argb() : ColorOps.fromInt((Integer) l);
+			int b = r instanceof Color c ? c.argb() : ColorOps.fromInt((Integer) r);
+			return switch (op) {
+			case PLUS -> new Color(ColorOps.add(a, b));
+			case MINUS -> new Color(ColorOps.subtract(a, b));
+			case TIMES -> new Color(ColorOps.multiply(a, b));
+			case DIV -> new Color(ColorOps.divide(a, b));
+			case MOD -> new Color(ColorOps.mod(a, b));
+			default -> compare(op, 0, a == b);
+			};
+		}
+		if ((l instanceof Image || r instanceof Image) && op != Kind.EQUALS && op != Kind.NOT_EQUALS) {
+			return imageArithmetic(op, l, r);
+		}
+		return compare(op, 0, Objects.equals(l, r));
+	}
+
+	// applies op to every pixel, one at a time with ColorOps, to an image and an image, color or int
+	private static Image imageArithmetic(Kind op, Object l, Object r) throws TypeCheckException {
+		Image image = l instanceof Image i ? i : (Image) r;
+		if (l instanceof Image a && r instanceof Image b && (a.width != b.width || a.height != b.height)) {
+			throw new IllegalArgumentException("images have different sizes");
+		}
+		Image result = new Image(image.width, image.height);
+		for (int y = 0; y < image.height; y++) {
+			for (int x = 0; x < image.width; x++) {
+				int a = pixel(l, x, y);
+				int b = pixel(r, x, y);
+				result.set(x, y, switch (op) {
+				case PLUS -> ColorOps.add(a, b);
+				case MINUS -> ColorOps.subtract(a, b);
+				case TIMES -> ColorOps.multiply(a, b);
+				case DIV -> ColorOps.divide(a, b);
+				case MOD -> ColorOps.mod(a, b);
+				default -> throw new TypeCheckException("incompatible types for operator " + op);
+				});
+			}
+		}
+		return result;
+	}
+
+	// returns the color at (x, y) of an image, or an image operand that is a color or int
+	private static int pixel(Object operand, int x, int y) throws TypeCheckException {
+		if (operand instanceof Image i) {
+			return i.get(x, y);
+		}
+		if (operand instanceof Color c) {
+			return c.argb();
+		}
+		if (operand instanceof Integer i) {
+			return ColorOps.fromInt(i);
+		}
+		throw new TypeCheckException("incompatible type for image arithmetic: " + operand);
+	}
+
+	// returns the result of == or != given whether the operands are equal, or of < > <= >= given
+	// the sign of their comparison
+	private static boolean compare(Kind op, int comparison, boolean equal) {
+		return switch (op) {
+		case LT -> comparison < 0;
+		case GT -> comparison > 0;
+		case LE -> comparison <= 0;
+		case GE -> comparison >= 0;
+		case EQUALS -> equal;
+		default -> !equal;
+		};
+	}
+
+	@Override
+	public Object visitConditionalExpr(ConditionalExpr conditionalExpr, Object arg) throws Exception {
+		boolean condition = (Boolean) conditionalExpr.getCondition().visit(this, arg);
+		return (condition ? conditionalExpr.getTrueCase() : conditionalExpr.getFalseCase()).visit(this, arg);
+	}
+
+	@Override
+	public Object visitPixelSelector(PixelSelector pixelSelector, Object arg) throws TypeCheckException {
+		throw new TypeCheckException("pixel selector without an image", pixelSelector.getSourceLoc());
+	}
+
+	@Override
+	public Object visitUnaryExprPostfix(UnaryExprPostfix unaryExprPostfix, Object arg) throws Exception {
+		Object e = unaryExprPostfix.getExpr().visit(this, arg);
+		PixelSelector selector = unaryExprPostfix.getSelector();
+		Object x = selector.getX().visit(this, arg);
+		Object y = selector.getY().visit(this, arg);
+		if (e instanceof Image i && x instanceof Integer a && y instanceof Integer b) {
+			return new Color(i.get(a, b));
+		}
+		throw new TypeCheckException("incompatible types for pixel selector", selector.getSourceLoc());
+	}
+
+}
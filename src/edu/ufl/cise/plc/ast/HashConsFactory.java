@@ -0,0 +1,310 @@
+package edu.ufl.cise.plc.ast;
+
+import java.util.Arrays;
+
+import edu.ufl.cise.plc.IToken;
+import edu.ufl.cise.plc.SymbolTable;
+
+// creates AST nodes so that structurally equal nodes are the same object (hash-consing).
+// two nodes are equal if they are the same kind of literal with the same value, identifiers with the
+// same name, or the same kind of node with the same operator and the same children. since children
+// are shared first, comparing them is comparing ids, and a tree of any size is checked in one step.
+// each distinct node gets an id, counting up from 0 in the order the nodes are created, which later
+// passes can use to memoize results per node in an array. the same structure always gets the same id
+// from one factory, however many times it is built.
+// a shared node keeps the first token of the first occurrence, so its location is only that of one
+// of the places it appears in the source.
+public class HashConsFactory {
+	// kinds of nodes, the first component of every key
+	private static final int BOOLEAN_LIT = 0;
+	private static final int STRING_LIT = 1;
+	private static final int INT_LIT = 2;
+	private static final int FLOAT_LIT = 3;
+	private static final int IDENT = 4;
+	private static final int UNARY = 5;
+	private static final int BINARY = 6;
+	private static final int CONDITIONAL = 7;
+	private static final int PIXEL_SELECTOR = 8;
+	private static final int UNARY_POSTFIX = 9;
+
+	// the key of each node, indexed by id: its kind and three ints that depend on the kind.
+	//   literals: the value, bits of a float, 1 or 0, or the id of a string in strings
+	//   IDENT: the id of the name in names
+	//   UNARY: the operator kind, the child and the id of the operator's spelling in operators, since
+//     COLOR_OP and IMAGE_OP are each the kind of several operators
+	//   BINARY: the operator kind, left and right
+	//   CONDITIONAL: condition, true case and false case
+	//   PIXEL_SELECTOR: x and y
+	//   UNARY_POSTFIX: the expression and the selector
+	int[] kinds = new int[64];
+	int[] as = new int[64];
+	int[] bs = new int[64];
+	int[] cs = new int[64];
+	ASTNode[] nodes = new ASTNode[64];
+	int size;
+	// open addressing tables of id + 1, or 0 for an empty slot, by key and by node identity
+	int[] byKey = new int[128];
+	int[] byNode = new int[128];
+	// values of string literals
+	final SymbolTable strings = new SymbolTable();
+	// names of identifiers, which is the table they are lexed with if the factory was given it
+	final SymbolTable names;
+	// spellings of unary operators
+	final SymbolTable operators = new SymbolTable();
+
+	public HashConsFactory() {
+		this(new SymbolTable());
+	}
+
+	// creates a factory that keys identifiers by their id in names, so those lexed with names are not
+	// looked up again by their spelling
+	public HashConsFactory(SymbolTable _names) {
+		names = _names;
+	}
+
+	// returns the number of distinct nodes created, which is one more than the largest id
+	public int size() {
+		return size;
+	}
+
+	// returns the id of node, or -1 if it was not created by this factory
+	public int id(ASTNode node) {
+		int mask = byNode.length - 1;
+		for (int i = System.identityHashCode(node) & mask;; i = (i + 1) & mask) {
+			int slot = byNode[i];
+			if (slot == 0) {
+				return -1;
+			}
+			if (nodes[slot - 1] == node) {
+				return slot - 1;
+			}
+		}
+	}
+
+	// returns the node with the given id
+	public ASTNode node(int id) {
+		return nodes[id];
+	}
+
+	public BooleanLitExpr booleanLitExpr(IToken firstToken) {
+		int value = firstToken.getBooleanValue() ? 1 : 0;
+		int slot = find(BOOLEAN_LIT, value, 0, 0);
+		if (slot >= 0) {
+			return (BooleanLitExpr) nodes[slot];
+		}
+		return add(~slot, BOOLEAN_LIT, value, 0, 0, new BooleanLitExpr(firstToken));
+	}
+
+	public StringLitExpr stringLitExpr(IToken firstToken) {
+		int value = strings.intern(firstToken.getStringValue());
+		int slot = find(STRING_LIT, value, 0, 0);
+		if (slot >= 0) {
+			return (StringLitExpr) nodes[slot];
+		}
+		return add(~slot, STRING_LIT, value, 0, 0, new StringLitExpr(firstToken));
+	}
+
+	public IntLitExpr intLitExpr(IToken firstToken) {
+		int value = firstToken.getIntValue();
+		int slot = find(INT_LIT, value, 0, 0);
+		if (slot >= 0) {
+			return (IntLitExpr) nodes[slot];
+		}
+		return add(~slot, INT_LIT, value, 0, 0, new IntLitExpr(firstToken));
+	}
+
+	// floats are compared by their bits, so 0.0 and -0.0 are different nodes
+	public FloatLitExpr floatLitExpr(IToken firstToken) {
+		int value = Float.floatToRawIntBits(firstToken.getFloatValue());
+		int slot = find(FLOAT_LIT, value, 0, 0);
+		if (slot >= 0) {
+			return (FloatLitExpr) nodes[slot];
+		}
+		return add(~slot, FLOAT_LIT, value, 0, 0, new FloatLitExpr(firstToken));
+	}
+
+	public IdentExpr identExpr(IToken firstToken) {
+		int value = firstToken.getSymbolTable() == names ? firstToken.getSymbol() : names.intern(firstToken.getText());
+		int slot = find(IDENT, value, 0, 0);
+		if (slot >= 0) {
+			return (IdentExpr) nodes[slot];
+		}
+		return add(~slot, IDENT, value, 0, 0, new IdentExpr(firstToken));
+	}
+
+	// the children of the nodes below may come from anywhere, and are shared first
+	public UnaryExpr unaryExpr(IToken firstToken, IToken op, Expr e) {
+		int child = idOf(e);
+		int spelling = operators.intern(op.getText());
+		int slot = find(UNARY, op.getKind().ordinal(), child, spelling);
+		if (slot >= 0) {
+			return (UnaryExpr) nodes[slot];
+		}
+		return add(~slot, UNARY, op.getKind().ordinal(), child, spelling, new UnaryExpr(firstToken, op, (Expr) nodes[child]));
+	}
+
+	public BinaryExpr binaryExpr(IToken firstToken, Expr left, IToken op, Expr right) {
+		int l = idOf(left);
+		int r = idOf(right);
+		int slot = find(BINARY, op.getKind().ordinal(), l, r);
+		if (slot >= 0) {
+			return (BinaryExpr) nodes[slot];
+		}
+		return add(~slot, BINARY, op.getKind().ordinal(), l, r, new BinaryExpr(firstToken, (Expr) nodes[l], op, (Expr) nodes[r]));
+	}
+
+	public ConditionalExpr conditionalExpr(IToken firstToken, Expr condition, Expr trueCase, Expr falseCase) {
+		int c = idOf(condition);
+		int t = idOf(trueCase);
+		int f = idOf(falseCase);
+		int slot = find(CONDITIONAL, c, t, f);
+		if (slot >= 0) {
+			return (ConditionalExpr) nodes[slot];
+		}
+		return add(~slot, CONDITIONAL, c, t, f, new ConditionalExpr(firstToken, (Expr) nodes[c], (Expr) nodes[t], (Expr) nodes[f]));
+	}
+
+	public PixelSelector pixelSelector(IToken firstToken, Expr x, Expr y) {
+		int xId = idOf(x);
+		int yId = idOf(y);
+		int slot = find(PIXEL_SELECTOR, xId, yId, 0);
+		if (slot >= 0) {
+			return (PixelSelector) nodes[slot];
+		}
+		return add(~slot, PIXEL_SELECTOR, xId, yId, 0, new PixelSelector(firstToken, (Expr) nodes[xId], (Expr) nodes[yId]));
+	}
+
+	public UnaryExprPostfix unaryExprPostfix(IToken firstToken, Expr e, PixelSelector selector) {
+		int child = idOf(e);
+		int s = idOf(selector);
+		int slot = find(UNARY_POSTFIX, child, s, 0);
+		if (slot >= 0) {
+			return (UnaryExprPostfix) nodes[slot];
+		}
+		return add(~slot, UNARY_POSTFIX, child, s, 0, new UnaryExprPostfix(firstToken, (Expr) nodes[child], (PixelSelector) nodes[s]));
+	}
+
+	// returns the shared node equal to node, creating the shared nodes of its subtrees as needed.
+	// a tree built by a parser is shared by interning its root.
+	@SuppressWarnings("unchecked")
+	public <T extends ASTNode> T intern(T node) {
+		if (id(node) >= 0) {
+			return node;
+		}
+		IToken first = node.firstToken;
+		ASTNode shared;
+		if (node instanceof BooleanLitExpr) {
+			shared = booleanLitExpr(first);
+		}
+		else if (node instanceof StringLitExpr) {
+			shared = stringLitExpr(first);
+		}
+		else if (node instanceof IntLitExpr) {
+			shared = intLitExpr(first);
+		}
+		else if (node instanceof FloatLitExpr) {
+			shared = floatLitExpr(first);
+		}
+		else if (node instanceof IdentExpr) {
+			shared = identExpr(first);
+		}
+		else if (node instanceof UnaryExpr e) {
+			shared = unaryExpr(first, e.op, e.e);
+		}
+		else if (node instanceof BinaryExpr e) {
+			shared = binaryExpr(first, e.left, e.op, e.right);
+		}
+		else if (node instanceof ConditionalExpr e) {
+			shared = conditionalExpr(first, e.condition, e.trueCase, e.falseCase);
+		}
+		else if (node instanceof PixelSelector e) {
+			shared = pixelSelector(first, e.x, e.y);
+		}
+		else if (node instanceof UnaryExprPostfix e) {
+			shared = unaryExprPostfix(first, e.expr, e.selector);
+		}
+		else {
+			throw new IllegalArgumentException("cannot share " + node.getClass().getSimpleName());
+		}
+		return (T) shared;
+	}
+
+	// returns the id of the shared node equal to node
+	private int idOf(ASTNode node) {
+		int id = id(node);
+		return id >= 0 ? id : id(intern(node));
+	}
+
+	// returns the id of the node with the given key, or ~slot if there is none, where slot is the
+	// empty slot of byKey to add it in
+	private int find(int kind, int a, int b, int c) {
+		int mask = byKey.length - 1;
+		for (int i = hash(kind, a, b, c) & mask;; i = (i + 1) & mask) {
+			int slot = byKey[i];
+			if (slot == 0) {
+				return ~i;
+			}
+			int id = slot - 1;
+			if (kinds[id] == kind && as[id] == a && bs[id] == b && cs[id] == c) {
+				return id;
+			}
+		}
+	}
+
+	// gives node the next id, with the key just looked up by find, which returned ~slot
+	private <T extends ASTNode> T add(int slot, int kind, int a, int b, int c, T node) {
+		int id = size;
+		if (id == nodes.length) {
+			kinds = Arrays.copyOf(kinds, id * 2);
+			as = Arrays.copyOf(as, id * 2);
+			bs = Arrays.copyOf(bs, id * 2);
+			cs = Arrays.copyOf(cs, id * 2);
+			nodes = Arrays.copyOf(nodes, id * 2);
+		}
+		kinds[id] = kind;
+		as[id] = a;
+		bs[id] = b;
+		cs[id] = c;
+		nodes[id] = node;
+		size++;
+		byKey[slot] = id + 1;
+		putNode(byNode, id);
+		// the tables are kept at most half full
+		if (size * 2 > byKey.length) {
+			rehash(byKey.length * 2);
+		}
+		return node;
+	}
+
+	private void rehash(int capacity) {
+		byKey = new int[capacity];
+		byNode = new int[capacity];
+		int mask = capacity - 1;
+		for (int id = 0; id < size; id++) {
+			int i = hash(kinds[id], as[id], bs[id], cs[id]) & mask;
+			while (byKey[i] != 0) {
+				i = (i + 1) & mask;
+			}
+			byKey[i] = id + 1;
+			putNode(byNode, id);
+		}
+	}
+
+	private void putNode(int[] table, int id) {
+		int mask = table.length - 1;
+		int i = System.identityHashCode(nodes[id]) & mask;
+		while (table[i] != 0) {
+			i = (i + 1) & mask;
+		}
+		table[i] = id + 1;
+	}
+
+	private static int hash(int kind, int a, int b, int c) {
+		int h = kind;
+		h = h * 0x9E3779B9 + a;
+		h = h * 0x9E3779B9 + b;
+		h = h * 0x9E3779B9 + c;
+		return h ^ (h >>> 16);
+	}
+
+}
@@ -0,0 +1,33 @@
+package edu.ufl.cise.plc.ast;
+
+import edu.ufl.cise.plc.IToken;
+import edu.ufl.cise.plc.SymbolTable;
+
+public class IdentExpr extends Expr {
+	
+	
+	public IdentExpr(IToken firstToken) {
+		super(firstToken);
+	}
+
+	// returns the id of the name in the symbol table of the lexer that scanned it
+	public int getSymbol() {
+		return firstToken.getSymbol();
+	}
+
+	// returns the symbol table getSymbol returns an id in
+	public SymbolTable getSymbolTable() {
+		return firstToken.getSymbolTable();
+	}
+
+	@Override
+	public Object visit(ASTVisitor v, Object arg) throws Exception {
+		return v.visitIdentExpr(this, arg);
+	}
+
+	@Override
+	public String toString() {
+		return "IdentExpr[" + firstToken.getText() + "]";
+	}
+
+}
@@ -0,0 +1,23 @@
+package edu.ufl.cise.plc.ast;
+
+public class Types {
+
+	public static enum Type {
+		BOOLEAN, COLOR, CONSOLE, FLOAT, IMAGE, INT, STRING, VOID;
+	}
+
+	// returns the type named by the text of a TYPE token, or by 'void'
+	public static Type toType(String typeName) {
+		return switch (typeName) {
+		case "boolean" -> Type.BOOLEAN;
+		case "color" -> Type.COLOR;
+		case "float" -> Type.FLOAT;
+		case "image" -> Type.IMAGE;
+		case "int" -> Type.INT;
+		case "string" -> Type.STRING;
+		case "void" -> Type.VOID;
+		default -> throw new IllegalArgumentException("unknown type " + typeName);
+		};
+	}
+
+}
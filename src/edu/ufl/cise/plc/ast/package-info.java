@@ -0,0 +1 @@
+package edu.ufl.cise.plc.ast;
\ No newline at end of file
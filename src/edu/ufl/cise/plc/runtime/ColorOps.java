@@ -0,0 +1,60 @@
+package edu.ufl.cise.plc.runtime;
+
+// operations on colors packed into an int as ARGB, 8 bits per component, so colors are never boxed.
+// alpha is always 255. arithmetic is component-wise on red, green and blue, and each result is
+// clamped to 0..255, so adding to white gives white and subtracting from black gives black.
+public final class ColorOps {
+	public static final int ALPHA = 0xFF000000;
+
+	private ColorOps() {
+	}
+
+	// returns the color with the given components, each clamped to 0..255
+	public static int pack(int red, int green, int blue) {
+		return ALPHA | clamp(red) << 16 | clamp(green) << 8 | clamp(blue);
+	}
+
+	// returns the color with all three components equal to value, which is how an int is used as a color
+	public static int fromInt(int value) {
+		int c = clamp(value);
+		return ALPHA | c << 16 | c << 8 | c;
+	}
+
+	public static int red(int color) {
+		return color >>> 16 & 0xFF;
+	}
+
+	public static int green(int color) {
+		return color >>> 8 & 0xFF;
+	}
+
+	public static int blue(int color) {
+		return color & 0xFF;
+	}
+
+	public static int clamp(int component) {
+		return component < 0 ? 0 : component > 255 ? 255 : component;
+	}
+
+	public static int add(int a, int b) {
+		return pack(red(a) + red(b), green(a) + green(b), blue(a) + blue(b));
+	}
+
+	public static int subtract(int a, int b) {
+		return pack(red(a) - red(b), green(a) - green(b), blue(a) - blue(b));
+	}
+
+	public static int multiply(int a, int b) {
+		return pack(red(a) * red(b), green(a) * green(b), blue(a) * blue(b));
+	}
+
+	// throws ArithmeticException if a component of b is 0
+	public static int divide(int a, int b) {
+		return pack(red(a) / red(b), green(a) / green(b), blue(a) / blue(b));
+	}
+
+	public static int mod(int a, int b) {
+		return pack(red(a) % red(b), green(a) % green(b), blue(a) % blue(b));
+	}
+
+}
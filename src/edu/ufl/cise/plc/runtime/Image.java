@@ -0,0 +1,68 @@
+package edu.ufl.cise.plc.runtime;
+
+import java.util.Arrays;
+
+// an image stored as one int per pixel, packed ARGB as in ColorOps, row by row from the top left, so
+// a pixel is read or written without boxing a color.
+// reading outside the image gives the nearest pixel on its edge, so expressions that read the
+// neighbours of a pixel, such as img[x + 1, y], need no special case at the borders.
+// images are equal if they have the same size and pixels, so == compares them by value, and
+// arithmetic on images (see ImageOps) always gives a new image.
+public final class Image {
+	public final int width;
+	public final int height;
+	// the pixel at (x, y) is at index y * width + x
+	public final int[] pixels;
+
+	// returns a black image
+	public Image(int _width, int _height) {
+		this(_width, _height, new int[checkSize(_width, _height)]);
+		Arrays.fill(pixels, ColorOps.ALPHA);
+	}
+
+	public Image(int _width, int _height, int[] _pixels) {
+		if (_pixels.length != checkSize(_width, _height)) {
+			throw new IllegalArgumentException(_pixels.length + " pixels for a " + _width + "x" + _height + " image");
+		}
+		width = _width;
+		height = _height;
+		pixels = _pixels;
+	}
+
+	private static int checkSize(int width, int height) {
+		if (width <= 0 || height <= 0) {
+			throw new IllegalArgumentException("image size must be positive: " + width + "x" + height);
+		}
+		return Math.multiplyExact(width, height);
+	}
+
+	// returns the color at (x, y), or at the nearest pixel of the image if (x, y) is outside it
+	public int get(int x, int y) {
+		x = x < 0 ? 0 : x >= width ? width - 1 : x;
+		y = y < 0 ? 0 : y >= height ? height - 1 : y;
+		return pixels[y * width + x];
+	}
+
+	public void set(int x, int y, int argb) {
+		if (x < 0 || x >= width || y < 0 || y >= height) {
+			throw new IndexOutOfBoundsException("(" + x + ", " + y + ") is outside a " + width + "x" + height + " image");
+		}
+		pixels[y * width + x] = argb;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		return o instanceof Image i && i.width == width && i.height == height && Arrays.equals(i.pixels, pixels);
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(pixels) * 31 + width;
+	}
+
+	@Override
+	public String toString() {
+		return "Image [" + width + "x" + height + "]";
+	}
+
+}
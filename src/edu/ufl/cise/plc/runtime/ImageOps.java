@@ -0,0 +1,259 @@
+package edu.ufl.cise.plc.runtime;
+
+// color arithmetic applied to every pixel of an image, with the semantics of ColorOps: each of red,
+// green and blue is clamped to 0..255 and alpha is 255.
+// the kernels work on whole pixel arrays. adding, subtracting and multiplying by a gray color (which
+// is what an int is as a color) are done on all three components of a pixel at once, with integer
+// arithmetic on the packed int (SIMD within a register, as in Swar), so there is no branch per
+// component, and the loops are simple enough for the JIT to compile with vector instructions.
+// the other operations, and all of them when the property plc.image.ops is "scalar", unpack each
+// pixel with ColorOps. each kernel with a packed version also has its scalar version.
+public final class ImageOps {
+	// operators for apply
+	public static final int ADD = 0;
+	public static final int SUBTRACT = 1;
+	public static final int MULTIPLY = 2;
+	public static final int DIVIDE = 3;
+	public static final int MOD = 4;
+
+	static final boolean PACKED = !System.getProperty("plc.image.ops", "packed").equals("scalar");
+
+	// the low 7 bits and the high bit of each of red, green and blue
+	private static final int LOWS = 0x007F7F7F;
+	private static final int HIGHS = 0x00808080;
+	private static final int RGB = 0x00FFFFFF;
+	// red and blue, which are 16 bits apart
+	private static final int RED_BLUE = 0x00FF00FF;
+
+	private ImageOps() {
+	}
+
+	// returns a op b, where a and b have the same size, as a new image
+	public static Image apply(Image a, Image b, int op) {
+		if (a.width != b.width || a.height != b.height) {
+			throw new IllegalArgumentException(
+					"images have different sizes: " + a.width + "x" + a.height + " and " + b.width + "x" + b.height);
+		}
+		int[] out = new int[a.pixels.length];
+		switch (op) {
+		case ADD -> add(a.pixels, b.pixels, out);
+		case SUBTRACT -> subtract(a.pixels, b.pixels, out);
+		case MULTIPLY -> multiply(a.pixels, b.pixels, out);
+		case DIVIDE -> divide(a.pixels, b.pixels, out);
+		default -> mod(a.pixels, b.pixels, out);
+		}
+		return new Image(a.width, a.height, out);
+	}
+
+	// returns a op color, applied to every pixel of a, as a new image
+	public static Image apply(Image a, int color, int op) {
+		int[] out = new int[a.pixels.length];
+		switch (op) {
+		case ADD -> add(a.pixels, color, out);
+		case SUBTRACT -> subtract(a.pixels, color, out);
+		case MULTIPLY -> multiply(a.pixels, color, out);
+		case DIVIDE -> divide(a.pixels, color, out);
+		default -> mod(a.pixels, color, out);
+		}
+		return new Image(a.width, a.height, out);
+	}
+
+	// returns color op b, applied to every pixel of b, as a new image
+	public static Image apply(int color, Image b, int op) {
+		int[] out = new int[b.pixels.length];
+		switch (op) {
+		case ADD -> add(b.pixels, color, out);
+		case SUBTRACT -> subtract(color, b.pixels, out);
+		case MULTIPLY -> multiply(b.pixels, color, out);
+		case DIVIDE -> divide(color, b.pixels, out);
+		default -> mod(color, b.pixels, out);
+		}
+		return new Image(b.width, b.height, out);
+	}
+
+	// ColorOps.subtract on packed components. each component of a has its high bit set before the
+	// low 7 bits of b are subtracted, so no component borrows from the next, and a component that
+	// borrows out of its high bit is set to 0.
+	public static int subtractPacked(int a, int b) {
+		int difference = ((a | HIGHS) - (b & LOWS)) ^ ((a ^ ~b) & HIGHS);
+		int borrows = ((~a & b) | (~(a ^ b) & difference)) & HIGHS;
+		return ColorOps.ALPHA | difference & RGB & ~((borrows >>> 7) * 0xFF);
+	}
+
+	// ColorOps.add on packed components: with ~ giving 255 - c for each component c, a + b clamped
+	// to 255 is 255 - (255 - a - b clamped to 0). this is faster than adding and then finding the
+	// carries, since the JIT compiles a loop of it with vector instructions, which it does not do for
+	// the carries (see ImageOpsBenchmark).
+	public static int addPacked(int a, int b) {
+		return ColorOps.ALPHA | ~subtractPacked(~a, b) & RGB;
+	}
+
+	// ColorOps.multiply of a by a gray color whose components are all k, in 0..255. red and blue are
+	// multiplied together, 16 bits apart, which is enough for 255 * 255, and green is multiplied in
+	// its own 16 bits. a product with a non-zero high byte is set to 255.
+	public static int scalePacked(int a, int k) {
+		int redBlue = saturate((a & RED_BLUE) * k);
+		int green = saturate((a >>> 8 & 0xFF) * k);
+		return ColorOps.ALPHA | redBlue | green << 8;
+	}
+
+	// returns the low byte of each 16 bit product in products, or 255 if its high byte is not 0.
+	// the high bit of a high byte is set if the byte is at least 128, or if adding 127 reaches 128.
+	private static int saturate(int products) {
+		int highs = (products >>> 8) & RED_BLUE;
+		int overflows = ((highs + 0x007F007F) | highs) & 0x00800080;
+		return (products | (overflows >>> 7) * 0xFF) & RED_BLUE;
+	}
+
+	// returns the component of a gray color, or -1 if color is not gray
+	private static int gray(int color) {
+		int blue = ColorOps.blue(color);
+		return ColorOps.red(color) == blue && ColorOps.green(color) == blue ? blue : -1;
+	}
+
+	// the kernels below write a op b for each pixel to out, which has the length of a or b
+
+	public static void add(int[] a, int[] b, int[] out) {
+		if (!PACKED) {
+			addScalar(a, b, out);
+			return;
+		}
+		for (int i = 0; i < out.length; i++) {
+			out[i] = addPacked(a[i], b[i]);
+		}
+	}
+
+	public static void addScalar(int[] a, int[] b, int[] out) {
+		for (int i = 0; i < out.length; i++) {
+			out[i] = ColorOps.add(a[i], b[i]);
+		}
+	}
+
+	public static void add(int[] a, int b, int[] out) {
+		if (!PACKED) {
+			addScalar(a, b, out);
+			return;
+		}
+		for (int i = 0; i < out.length; i++) {
+			out[i] = addPacked(a[i], b);
+		}
+	}
+
+	public static void addScalar(int[] a, int b, int[] out) {
+		for (int i = 0; i < out.length; i++) {
+			out[i] = ColorOps.add(a[i], b);
+		}
+	}
+
+	public static void subtract(int[] a, int[] b, int[] out) {
+		if (!PACKED) {
+			subtractScalar(a, b, out);
+			return;
+		}
+		for (int i = 0; i < out.length; i++) {
+			out[i] = subtractPacked(a[i], b[i]);
+		}
+	}
+
+	public static void subtractScalar(int[] a, int[] b, int[] out) {
+		for (int i = 0; i < out.length; i++) {
+			out[i] = ColorOps.subtract(a[i], b[i]);
+		}
+	}
+
+	public static void subtract(int[] a, int b, int[] out) {
+		if (!PACKED) {
+			subtractScalar(a, b, out);
+			return;
+		}
+		for (int i = 0; i < out.length; i++) {
+			out[i] = subtractPacked(a[i], b);
+		}
+	}
+
+	public static void subtractScalar(int[] a, int b, int[] out) {
+		for (int i = 0; i < out.length; i++) {
+			out[i] = ColorOps.subtract(a[i], b);
+		}
+	}
+
+	public static void subtract(int a, int[] b, int[] out) {
+		if (!PACKED) {
+			subtractScalar(a, b, out);
+			return;
+		}
+		for (int i = 0; i < out.length; i++) {
+			out[i] = subtractPacked(a, b[i]);
+		}
+	}
+
+	public static void subtractScalar(int a, int[] b, int[] out) {
+		for (int i = 0; i < out.length; i++) {
+			out[i] = ColorOps.subtract(a, b[i]);
+		}
+	}
+
+	public static void multiply(int[] a, int[] b, int[] out) {
+		for (int i = 0; i < out.length; i++) {
+			out[i] = ColorOps.multiply(a[i], b[i]);
+		}
+	}
+
+	// only a gray b is multiplied packed
+	public static void multiply(int[] a, int b, int[] out) {
+		int k = gray(b);
+		if (!PACKED || k < 0) {
+			multiplyScalar(a, b, out);
+			return;
+		}
+		for (int i = 0; i < out.length; i++) {
+			out[i] = scalePacked(a[i], k);
+		}
+	}
+
+	public static void multiplyScalar(int[] a, int b, int[] out) {
+		for (int i = 0; i < out.length; i++) {
+			out[i] = ColorOps.multiply(a[i], b);
+		}
+	}
+
+	// division and remainder have no packed version, and throw ArithmeticException if a component
+	// of a divisor is 0
+
+	public static void divide(int[] a, int[] b, int[] out) {
+		for (int i = 0; i < out.length; i++) {
+			out[i] = ColorOps.divide(a[i], b[i]);
+		}
+	}
+
+	public static void divide(int[] a, int b, int[] out) {
+		for (int i = 0; i < out.length; i++) {
+			out[i] = ColorOps.divide(a[i], b);
+		}
+	}
+
+	public static void divide(int a, int[] b, int[] out) {
+		for (int i = 0; i < out.length; i++) {
+			out[i] = ColorOps.divide(a, b[i]);
+		}
+	}
+
+	public static void mod(int[] a, int[] b, int[] out) {
+		for (int i = 0; i < out.length; i++) {
+			out[i] = ColorOps.mod(a[i], b[i]);
+		}
+	}
+
+	public static void mod(int[] a, int b, int[] out) {
+		for (int i = 0; i < out.length; i++) {
+			out[i] = ColorOps.mod(a[i], b);
+		}
+	}
+
+	public static void mod(int a, int[] b, int[] out) {
+		for (int i = 0; i < out.length; i++) {
+			out[i] = ColorOps.mod(a, b[i]);
+		}
+	}
+
+}
@@ -0,0 +1,59 @@
+package edu.ufl.cise.plc.test;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import edu.ufl.cise.plc.BatchCompiler;
+import edu.ufl.cise.plc.BatchCompiler.Result;
+import edu.ufl.cise.plc.LexicalException;
+import edu.ufl.cise.plc.SyntaxException;
+import edu.ufl.cise.plc.ast.BinaryExpr;
+import edu.ufl.cise.plc.ast.IntLitExpr;
+
+class BatchCompilerTests {
+
+	//results come back in the order of the files, with errors reported per file
+	@Test
+	void testCompile(@TempDir Path dir) throws IOException {
+		List<Path> files = new ArrayList<Path>();
+		for (int i = 0; i < 50; i++) {
+			Path file = dir.resolve("f" + i + ".plc");
+			String source = switch (i % 5) {
+			case 3 -> "x + if";
+			case 4 -> "x + @";
+			default -> "a + " + i;
+			};
+			Files.writeString(file, source);
+			files.add(file);
+		}
+		List<Result> results = new BatchCompiler().compile(files);
+		assertEquals(files.size(), results.size());
+		for (int i = 0; i < results.size(); i++) {
+			Result r = results.get(i);
+			assertEquals(files.get(i), r.path());
+			switch (i % 5) {
+			case 3 -> assertThat("", r.error(), instanceOf(SyntaxException.class));
+			case 4 -> assertThat("", r.error(), instanceOf(LexicalException.class));
+			default -> {
+				assertTrue(r.succeeded());
+				assertNull(r.error());
+				assertThat("", r.ast(), instanceOf(BinaryExpr.class));
+				assertEquals(i, ((IntLitExpr) ((BinaryExpr) r.ast()).getRight()).getValue());
+			}
+			}
+		}
+	}
+
+}
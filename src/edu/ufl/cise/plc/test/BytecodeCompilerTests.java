@@ -0,0 +1,142 @@
+package edu.ufl.cise.plc.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ufl.cise.plc.CompilerComponentFactory;
+import edu.ufl.cise.plc.Interpreter;
+import edu.ufl.cise.plc.Interpreter.CompiledExpr;
+import edu.ufl.cise.plc.PLCException;
+import edu.ufl.cise.plc.ast.Expr;
+
+//runs the interpreter tests on the bytecode compiler, and compares the two on random expressions
+class BytecodeCompilerTests extends InterpreterTests {
+
+	@Override
+	CompiledExpr compile(String input) throws PLCException {
+		return CompilerComponentFactory.getBytecodeCompiler().compile((Expr) CompilerComponentFactory.getParser(input).parse(), env);
+	}
+
+	//the expression is evaluated by a generated class, not by the interpreter's nodes
+	@Test
+	void testHiddenClass() throws PLCException {
+		CompiledExpr e = compile("x * 2 + y");
+		assertEquals(true, isGenerated(e));
+		assertEquals(false, isGenerated(Interpreter.compile((Expr) CompilerComponentFactory.getParser("x * 2 + y").parse(), env)));
+	}
+
+	static boolean isGenerated(CompiledExpr e) {
+		return e.getNode().getClass().getName().startsWith("edu.ufl.cise.plc.CompiledExpr/");
+	}
+
+	//a long chain of operators, with branch offsets and a constant pool beyond what fits in one byte
+	@Test
+	void testLarge() throws PLCException {
+		StringBuilder sb = new StringBuilder("x");
+		int expected = 7;
+		for (int i = 1; i <= 300; i++) {
+			sb.append(" + (if (x > ").append(i).append(") ").append(i * 1000).append(" else 1 fi)");
+			expected += 7 > i ? i * 1000 : 1;
+		}
+		CompiledExpr e = compile(sb.toString());
+		assertEquals(expected, e.evalInt(env));
+		assertEquals(true, isGenerated(e));
+	}
+
+	//returns the sum of the terms (if (b) x * i else y fi) for i from lo to hi, as a balanced tree
+	static String sum(int lo, int hi) {
+		if (lo == hi) {
+			return "(if (b) x * " + lo + " else y fi)";
+		}
+		int mid = (lo + hi) / 2;
+		return "(" + sum(lo, mid) + " + " + sum(mid + 1, hi) + ")";
+	}
+
+	//an expression too big for one method is interpreted instead
+	@Test
+	void testTooLarge() throws PLCException {
+		CompiledExpr e = compile(sum(1, 4000));
+		assertEquals(false, isGenerated(e));
+		assertEquals(7 * (4000 * 4001 / 2), e.evalInt(env));
+		//the branches of the conditional are more than 32K bytes apart
+		e = compile("if (b) " + sum(1, 1500) + " else 0 fi");
+		assertEquals(false, isGenerated(e));
+		assertEquals(7 * (1500 * 1501 / 2), e.evalInt(env));
+		assertEquals(true, isGenerated(compile(sum(1, 100))));
+	}
+
+	//a string literal longer than 65535 bytes in UTF-8 does not fit in a class file, so it is interpreted
+	@Test
+	void testLongString() throws PLCException {
+		String ascii = "a".repeat(0xFFFF);
+		CompiledExpr e = compile("s == \"" + ascii + "\"");
+		assertEquals(true, isGenerated(e));
+		env.setString("s", ascii);
+		assertEquals(true, e.evalBoolean(env));
+		//fewer than 65535 chars, but 2 bytes each
+		String accented = "\u00e9".repeat(40000);
+		e = compile("s == \"" + accented + "\"");
+		assertEquals(false, isGenerated(e));
+		assertEquals(false, e.evalBoolean(env));
+		env.setString("s", accented);
+		assertEquals(true, e.evalBoolean(env));
+		e = compile("if (b) \"" + ascii + "a\" else s fi");
+		assertEquals(false, isGenerated(e));
+		assertEquals(0x10000, ((String) e.evalObject(env)).length());
+	}
+
+	//floats that arithmetic identities can get wrong
+	static final float[] FLOATS = { 0.0f, -0.0f, Float.NaN, Float.POSITIVE_INFINITY, Float.NEGATIVE_INFINITY,
+			Float.MIN_VALUE, -2.25f };
+
+	//folding must not change the sign of a zero: 1.0 / (f + 0) is Infinity for f = -0.0, not -Infinity
+	@Test
+	void testSignedZero() throws PLCException {
+		env.setFloat("f", -0.0f);
+		assertEquals(Float.POSITIVE_INFINITY, compile("1.0 / (f + 0)").evalFloat(env));
+		assertEquals(Float.POSITIVE_INFINITY, compile("1.0 / (0 + f)").evalFloat(env));
+		assertEquals(Float.NEGATIVE_INFINITY, compile("1.0 / (f - 0)").evalFloat(env));
+		assertEquals(Float.NEGATIVE_INFINITY, compile("1.0 / -0.0").evalFloat(env));
+		assertEquals(Float.NEGATIVE_INFINITY, compile("1.0 / (--f * 1)").evalFloat(env));
+		env.setFloat("f", Float.NaN);
+		assertEquals(Float.NaN, compile("f * 1 / 1").evalFloat(env));
+		assertEquals(false, compile("f == f").evalBoolean(env));
+	}
+
+	//random expressions give the same value, or the same exception, as the interpreter, including
+	//for signed zeros and NaN
+	@Test
+	void testSameAsInterpreter() throws PLCException {
+		Random r = new Random(23);
+		for (int n = 0; n < 500; n++) {
+			String input = switch (n % 4) {
+			case 0 -> intExpr(r, 5);
+			case 1 -> floatExpr(r, 5);
+			case 2 -> booleanExpr(r, 5);
+			default -> colorExpr(r, 5);
+			};
+			Expr ast = (Expr) CompilerComponentFactory.getParser(input).parse();
+			CompiledExpr interpreted = Interpreter.compile(ast, env);
+			CompiledExpr compiled = compile(input);
+			for (int x = -3; x <= 3 + FLOATS.length; x++) {
+				env.setInt("x", x);
+				env.setFloat("f", x <= 3 ? x * 0.75f : FLOATS[x - 4]);
+				env.setBoolean("b", x % 2 == 0);
+				Object expected;
+				try {
+					expected = interpreted.eval(env);
+				}
+				catch (ArithmeticException e) {
+					assertThrows(ArithmeticException.class, () -> compiled.eval(env), input);
+					continue;
+				}
+				assertEquals(expected, compiled.eval(env), input);
+			}
+		}
+	}
+
+}
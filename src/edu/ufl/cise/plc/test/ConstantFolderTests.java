@@ -0,0 +1,184 @@
+package edu.ufl.cise.plc.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ufl.cise.plc.CompilerComponentFactory;
+import edu.ufl.cise.plc.ConstantFolder;
+import edu.ufl.cise.plc.Environment;
+import edu.ufl.cise.plc.IToken.SourceLocation;
+import edu.ufl.cise.plc.Interpreter;
+import edu.ufl.cise.plc.PLCException;
+import edu.ufl.cise.plc.TypeCheckException;
+import edu.ufl.cise.plc.ast.BinaryExpr;
+import edu.ufl.cise.plc.ast.BooleanLitExpr;
+import edu.ufl.cise.plc.ast.Expr;
+import edu.ufl.cise.plc.ast.FloatLitExpr;
+import edu.ufl.cise.plc.ast.IdentExpr;
+import edu.ufl.cise.plc.ast.IntLitExpr;
+import edu.ufl.cise.plc.ast.Types.Type;
+import edu.ufl.cise.plc.ast.UnaryExprPostfix;
+
+class ConstantFolderTests {
+
+	//the variables of the expressions below
+	static Environment env() {
+		Environment env = new Environment();
+		env.declare("a", Type.INT);
+		env.declare("x", Type.INT);
+		env.declare("f", Type.FLOAT);
+		env.declare("b", Type.BOOLEAN);
+		env.declare("c", Type.COLOR);
+		env.declare("s", Type.STRING);
+		env.declare("i", Type.IMAGE);
+		return env;
+	}
+
+	static final Environment ENV = env();
+
+	static Expr parse(String input) throws PLCException {
+		return (Expr) CompilerComponentFactory.getParser(input).parse();
+	}
+
+	static Expr fold(String input) throws PLCException {
+		return ConstantFolder.fold(parse(input), ENV);
+	}
+
+	static int intValue(String input) throws PLCException {
+		return assertInstanceOf(IntLitExpr.class, fold(input)).getValue();
+	}
+
+	static boolean booleanValue(String input) throws PLCException {
+		return assertInstanceOf(BooleanLitExpr.class, fold(input)).getValue();
+	}
+
+	@Test
+	void testInts() throws PLCException {
+		assertEquals(7, intValue("1 + 2 * 3"));
+		assertEquals(-3, intValue("-(7 / 2)"));
+		assertEquals(1, intValue("10 % 3"));
+		//ints wrap around
+		assertEquals(Integer.MIN_VALUE, intValue("2147483647 + 1"));
+		assertEquals(Integer.MIN_VALUE, intValue("-2147483647 - 1"));
+		assertEquals(true, booleanValue("1 + 1 == 2"));
+		assertEquals(false, booleanValue("3 <= 2"));
+	}
+
+	@Test
+	void testDivisionByZero() throws PLCException {
+		//the error is left for the program to report when it runs, but the operands are still folded
+		BinaryExpr div = assertInstanceOf(BinaryExpr.class, fold("1 / (2 - 2)"));
+		assertEquals(0, assertInstanceOf(IntLitExpr.class, div.getRight()).getValue());
+		assertInstanceOf(BinaryExpr.class, fold("1 % 0"));
+		//float division by zero is not an error
+		assertEquals(Float.POSITIVE_INFINITY, assertInstanceOf(FloatLitExpr.class, fold("1.0 / 0")).getValue());
+	}
+
+	@Test
+	void testFloats() throws PLCException {
+		assertEquals(7.0f, assertInstanceOf(FloatLitExpr.class, fold("3.5 * 2")).getValue());
+		assertEquals(0.1f + 0.2f, assertInstanceOf(FloatLitExpr.class, fold("0.1 + 0.2")).getValue());
+		assertEquals(-2.5f, assertInstanceOf(FloatLitExpr.class, fold("-2.5")).getValue());
+		assertEquals(true, booleanValue("1 < 1.5"));
+	}
+
+	@Test
+	void testBooleansAndStrings() throws PLCException {
+		assertEquals(true, booleanValue("!false & (true | false)"));
+		assertEquals(false, booleanValue("true == false"));
+		assertEquals(true, booleanValue("\"a\\tb\" == \"a\\tb\""));
+		assertEquals(true, booleanValue("\"a\" != \"b\""));
+	}
+
+	@Test
+	void testConditional() throws PLCException {
+		assertEquals("a", assertInstanceOf(IdentExpr.class, fold("if (1 < 2) a else x fi")).getText());
+		assertEquals(4, intValue("if (false) a / 0 else 2 * 2 fi"));
+	}
+
+	@Test
+	void testIdentities() throws PLCException {
+		assertEquals("x", assertInstanceOf(IdentExpr.class, fold("x * 1")).getText());
+		assertEquals("x", assertInstanceOf(IdentExpr.class, fold("1 * x / 1")).getText());
+		assertEquals("x", assertInstanceOf(IdentExpr.class, fold("0 + x - 0 + (2 - 2)")).getText());
+		assertEquals("b", assertInstanceOf(IdentExpr.class, fold("!!b")).getText());
+		assertEquals("x", assertInstanceOf(IdentExpr.class, fold("--x")).getText());
+		assertEquals("b", assertInstanceOf(IdentExpr.class, fold("true & b")).getText());
+		assertEquals(false, booleanValue("false & b"));
+		assertEquals(true, booleanValue("1 == 1 | b"));
+		//x * 1.0 is a float even if x is an int, so it is kept
+		assertInstanceOf(BinaryExpr.class, fold("x * 1.0"));
+		assertInstanceOf(BinaryExpr.class, fold("x * 0"));
+		assertEquals("f", assertInstanceOf(IdentExpr.class, fold("1 * f / 1")).getText());
+		assertEquals("f", assertInstanceOf(IdentExpr.class, fold("--f")).getText());
+	}
+
+	//-0.0 + 0 is 0.0, so x + 0 is kept for a float x, and x * 1 is not always x for a color or image x
+	@Test
+	void testIdentitiesKept() throws PLCException {
+		for (String input : new String[] { "f + 0", "0 + f", "f - 0", "c * 1", "c + 0", "i * 1", "i / 1" }) {
+			assertInstanceOf(BinaryExpr.class, fold(input), input);
+		}
+	}
+
+	//an expression that does not type check is not folded into one that does
+	@Test
+	void testIllTyped() throws PLCException {
+		for (String input : new String[] { "b + 0", "s * 1", "true & x", "false & x", "x | true", "!!x", "--s",
+				"if (true) 1 else \"x\" fi", "if (false) undeclared else 1 fi", "if (1) x else x fi", "i[true & x, 0]" }) {
+			Expr folded = fold(input);
+			assertThrows(TypeCheckException.class, () -> Interpreter.compile(folded, ENV), input);
+		}
+	}
+
+	@Test
+	void testNestedAndLocation() throws PLCException {
+		UnaryExprPostfix e = assertInstanceOf(UnaryExprPostfix.class, fold("i[1 + 1, x]"));
+		IntLitExpr x = assertInstanceOf(IntLitExpr.class, e.getSelector().getX());
+		assertEquals(2, x.getValue());
+		assertEquals("2", x.getText());
+		assertEquals(new SourceLocation(0, 2), x.getSourceLoc());
+	}
+
+	//nothing is allocated for an expression with no constants
+	@Test
+	void testUnchanged() throws PLCException {
+		Expr e = parse("if (a < b) c[x, y] else -d * e fi");
+		assertSame(e, ConstantFolder.fold(e, ENV));
+	}
+
+	//returns the type of e, or null if it does not type check
+	static Type type(Expr e) {
+		try {
+			return Interpreter.compile(e, ENV).type;
+		}
+		catch (TypeCheckException ex) {
+			return null;
+		}
+	}
+
+	//folding random expressions does not fail, is idempotent, and keeps the type, or the type error
+	@Test
+	void testRandom() {
+		Random r = new Random(20);
+		for (int n = 0; n < 1000; n++) {
+			Expr e;
+			try {
+				e = parse(ParserTests.randomExpr(r, 6));
+			}
+			catch (PLCException ex) {
+				continue;
+			}
+			Expr folded = ConstantFolder.fold(e, ENV);
+			assertSame(folded, ConstantFolder.fold(folded, ENV));
+			assertEquals(type(e), type(folded));
+		}
+	}
+
+}
@@ -0,0 +1,116 @@
+package edu.ufl.cise.plc.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ufl.cise.plc.CompilerComponentFactory;
+import edu.ufl.cise.plc.FlatAST;
+import edu.ufl.cise.plc.FlatAST.NodeKind;
+import edu.ufl.cise.plc.FlatASTVisitor;
+import edu.ufl.cise.plc.IToken.Kind;
+import edu.ufl.cise.plc.PLCException;
+import edu.ufl.cise.plc.TokenBuffer;
+import edu.ufl.cise.plc.ast.ASTNode;
+
+class FlatASTTests {
+
+	//random expressions materialize to the same AST the parser builds, or fail with the same exception
+	@Test
+	void testMaterialize() {
+		Random r = new Random(19);
+		for (int n = 0; n < 1000; n++) {
+			String input = ParserTests.randomExpr(r, 6);
+			ASTNode expected;
+			try {
+				expected = CompilerComponentFactory.getParser(input).parse();
+			}
+			catch (PLCException e) {
+				assertThrows(e.getClass(), () -> FlatAST.parse(TokenBuffer.lex(input)), input);
+				continue;
+			}
+			try {
+				ParserTests.assertSameAST(expected, FlatAST.parse(TokenBuffer.lex(input)).materialize());
+			}
+			catch (PLCException e) {
+				throw new AssertionError(input, e);
+			}
+		}
+	}
+
+	@Test
+	void testAccessors() throws PLCException {
+		FlatAST ast = FlatAST.parse(TokenBuffer.lex("if (x) a[1, 2] else -3.5 fi"));
+		int root = ast.root();
+		assertEquals(NodeKind.CONDITIONAL, ast.kind(root));
+		assertEquals("x", ast.text(ast.condition(root)));
+		int postfix = ast.trueCase(root);
+		assertEquals(NodeKind.UNARY_POSTFIX, ast.kind(postfix));
+		assertEquals(2, ast.intValue(ast.y(ast.selector(postfix))));
+		int minus = ast.falseCase(root);
+		assertEquals(Kind.MINUS, ast.opKind(minus));
+		assertEquals(3.5f, ast.floatValue(ast.expr(minus)));
+		assertEquals(ast.size() - 1, root);
+	}
+
+	//a visitor that evaluates integer expressions, reading the tree only through the visitor API
+	static class Evaluator implements FlatASTVisitor {
+		public Object visitBooleanLitExpr(FlatAST ast, int node, Object arg) {
+			return ast.booleanValue(node) ? 1 : 0;
+		}
+
+		public Object visitStringLitExpr(FlatAST ast, int node, Object arg) {
+			return ast.stringValue(node).length();
+		}
+
+		public Object visitIntLitExpr(FlatAST ast, int node, Object arg) {
+			return ast.intValue(node);
+		}
+
+		public Object visitFloatLitExpr(FlatAST ast, int node, Object arg) {
+			return (int) ast.floatValue(node);
+		}
+
+		public Object visitUnaryExpr(FlatAST ast, int node, Object arg) throws Exception {
+			return -(Integer) ast.visit(ast.expr(node), this, arg);
+		}
+
+		public Object visitBinaryExpr(FlatAST ast, int node, Object arg) throws Exception {
+			int left = (Integer) ast.visit(ast.left(node), this, arg);
+			int right = (Integer) ast.visit(ast.right(node), this, arg);
+			return switch (ast.opKind(node)) {
+			case PLUS -> left + right;
+			case MINUS -> left - right;
+			case TIMES -> left * right;
+			default -> throw new IllegalArgumentException();
+			};
+		}
+
+		public Object visitIdentExpr(FlatAST ast, int node, Object arg) {
+			return ast.text(node).length();
+		}
+
+		public Object visitConditionalExpr(FlatAST ast, int node, Object arg) throws Exception {
+			int condition = (Integer) ast.visit(ast.condition(node), this, arg);
+			return ast.visit(condition != 0 ? ast.trueCase(node) : ast.falseCase(node), this, arg);
+		}
+
+		public Object visitPixelSelector(FlatAST ast, int node, Object arg) throws Exception {
+			return (Integer) ast.visit(ast.x(node), this, arg) + (Integer) ast.visit(ast.y(node), this, arg);
+		}
+
+		public Object visitUnaryExprPostfix(FlatAST ast, int node, Object arg) throws Exception {
+			return (Integer) ast.visit(ast.expr(node), this, arg) * (Integer) ast.visit(ast.selector(node), this, arg);
+		}
+	}
+
+	@Test
+	void testVisitor() throws Exception {
+		FlatAST ast = FlatAST.parse(TokenBuffer.lex("if (true) 2 + 3 * abc[1, \"xy\"] - -4 else 0 fi"));
+		assertEquals(2 + 3 * 3 * (1 + 2) + 4, ast.visit(ast.root(), new Evaluator(), null));
+	}
+
+}
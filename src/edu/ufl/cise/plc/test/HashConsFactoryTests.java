@@ -0,0 +1,160 @@
+package edu.ufl.cise.plc.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ufl.cise.plc.CompilerComponentFactory;
+import edu.ufl.cise.plc.PLCException;
+import edu.ufl.cise.plc.SymbolTable;
+import edu.ufl.cise.plc.ast.ASTNode;
+import edu.ufl.cise.plc.ast.BinaryExpr;
+import edu.ufl.cise.plc.ast.ConditionalExpr;
+import edu.ufl.cise.plc.ast.Expr;
+import edu.ufl.cise.plc.ast.HashConsFactory;
+import edu.ufl.cise.plc.ast.PixelSelector;
+import edu.ufl.cise.plc.ast.UnaryExpr;
+import edu.ufl.cise.plc.ast.UnaryExprPostfix;
+
+class HashConsFactoryTests {
+
+	HashConsFactory factory = new HashConsFactory();
+
+	Expr intern(String input) throws PLCException {
+		return factory.intern((Expr) CompilerComponentFactory.getParser(input).parse());
+	}
+
+	//check that the two trees have the same shape, operators and leaves. the first tokens of other nodes
+	//may differ, since a shared node may have come from a parenthesized occurrence.
+	static void assertSameShape(ASTNode expected, ASTNode actual) {
+		assertEquals(expected.getClass(), actual.getClass());
+		if (expected instanceof BinaryExpr e) {
+			BinaryExpr a = (BinaryExpr) actual;
+			assertEquals(e.getOp().getKind(), a.getOp().getKind());
+			assertSameShape(e.getLeft(), a.getLeft());
+			assertSameShape(e.getRight(), a.getRight());
+		}
+		else if (expected instanceof UnaryExpr e) {
+			assertEquals(e.getOp().getKind(), ((UnaryExpr) actual).getOp().getKind());
+			assertEquals(e.getOp().getText(), ((UnaryExpr) actual).getOp().getText());
+			assertSameShape(e.getExpr(), ((UnaryExpr) actual).getExpr());
+		}
+		else if (expected instanceof UnaryExprPostfix e) {
+			assertSameShape(e.getExpr(), ((UnaryExprPostfix) actual).getExpr());
+			assertSameShape(e.getSelector(), ((UnaryExprPostfix) actual).getSelector());
+		}
+		else if (expected instanceof PixelSelector e) {
+			assertSameShape(e.getX(), ((PixelSelector) actual).getX());
+			assertSameShape(e.getY(), ((PixelSelector) actual).getY());
+		}
+		else if (expected instanceof ConditionalExpr e) {
+			ConditionalExpr a = (ConditionalExpr) actual;
+			assertSameShape(e.getCondition(), a.getCondition());
+			assertSameShape(e.getTrueCase(), a.getTrueCase());
+			assertSameShape(e.getFalseCase(), a.getFalseCase());
+		}
+		else {
+			assertEquals(expected.getText(), actual.getText());
+		}
+	}
+
+	@Test
+	void testSharing() throws PLCException {
+		BinaryExpr sum = assertInstanceOf(BinaryExpr.class, intern("a[x, y + 1] + a[x, y + 1]"));
+		assertSame(sum.getLeft(), sum.getRight());
+		ConditionalExpr c = assertInstanceOf(ConditionalExpr.class, intern("if (c) x * 2 + y else x * 2 + y fi"));
+		assertSame(c.getTrueCase(), c.getFalseCase());
+		//the same subtree in a later tree is shared too
+		BinaryExpr product = assertInstanceOf(BinaryExpr.class, intern("(x * 2) * (x * 2)"));
+		assertSame(((BinaryExpr) c.getTrueCase()).getLeft(), product.getLeft());
+		//x, y, 1, y + 1, a, [x, y + 1], a[...], sum, c, 2, x * 2, x * 2 + y, if, product
+		assertEquals(14, factory.size());
+	}
+
+	@Test
+	void testDistinct() throws PLCException {
+		assertNotSame(intern("1 + 2"), intern("1 - 2"));
+		assertNotSame(intern("2 + 1"), intern("1 + 2"));
+		assertNotSame(intern("1"), intern("1.0"));
+		assertNotSame(intern("\"a\""), intern("\"b\""));
+		assertNotSame(intern("-x"), intern("!x"));
+		assertSame(intern("\"a\\tb\""), intern("\"a\\tb\""));
+		assertSame(intern("true"), intern("true"));
+	}
+
+	//COLOR_OP and IMAGE_OP are each the kind of several operators, which are told apart by their spelling
+	@Test
+	void testOperatorSpellings() throws PLCException {
+		UnaryExpr red = assertInstanceOf(UnaryExpr.class, intern("getRed c"));
+		UnaryExpr blue = assertInstanceOf(UnaryExpr.class, intern("getBlue c"));
+		assertNotSame(red, blue);
+		assertEquals("getBlue", blue.getOp().getText());
+		assertSame(red, intern("getRed c"));
+		UnaryExpr width = assertInstanceOf(UnaryExpr.class, intern("getWidth img"));
+		UnaryExpr height = assertInstanceOf(UnaryExpr.class, intern("getHeight img"));
+		assertNotSame(width, height);
+		assertEquals("getHeight", height.getOp().getText());
+		assertSame(height, intern("getHeight img"));
+	}
+
+	//identifiers lexed with the table of the factory are keyed by their id and others by their name, so
+	//the same name gives the same node either way
+	@Test
+	void testSymbolTables() throws PLCException {
+		SymbolTable symbols = new SymbolTable();
+		symbols.intern("unused");
+		HashConsFactory shared = new HashConsFactory(symbols);
+		BinaryExpr a = (BinaryExpr) shared.intern(CompilerComponentFactory.getParser("a + b", symbols).parse());
+		BinaryExpr b = (BinaryExpr) shared.intern(CompilerComponentFactory.getParser("b + a + b").parse());
+		BinaryExpr left = (BinaryExpr) b.getLeft();
+		assertSame(a.getRight(), left.getLeft());
+		assertSame(a.getLeft(), left.getRight());
+		assertSame(a.getRight(), b.getRight());
+		assertEquals(3, symbols.size());
+	}
+
+	@Test
+	void testIds() throws PLCException {
+		Expr e = intern("if (a < b) a else b fi");
+		//ids are dense and given in the order nodes are created, children first
+		assertEquals(factory.size() - 1, factory.id(e));
+		for (int id = 0; id < factory.size(); id++) {
+			assertEquals(id, factory.id(factory.node(id)));
+		}
+		//the same structure built again gets the same id
+		assertEquals(factory.id(e), factory.id(intern("if (a < b) a else b fi")));
+		//nodes not made by the factory have no id
+		assertEquals(-1, factory.id(CompilerComponentFactory.getParser("a").parse()));
+		assertSame(e, factory.intern(e));
+	}
+
+	//random trees keep their shape when shared, and are shared again when built twice
+	@Test
+	void testRandom() {
+		Random r = new Random(21);
+		for (int n = 0; n < 1000; n++) {
+			String input = ParserTests.randomExpr(r, 6);
+			Expr e;
+			try {
+				e = (Expr) CompilerComponentFactory.getParser(input).parse();
+			}
+			catch (PLCException ex) {
+				continue;
+			}
+			Expr shared = factory.intern(e);
+			assertSameShape(e, shared);
+			try {
+				assertSame(shared, intern(input));
+			}
+			catch (PLCException ex) {
+				throw new AssertionError(input, ex);
+			}
+		}
+	}
+
+}
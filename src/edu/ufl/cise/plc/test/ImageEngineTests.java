@@ -0,0 +1,111 @@
+package edu.ufl.cise.plc.test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ufl.cise.plc.CompilerComponentFactory;
+import edu.ufl.cise.plc.Environment;
+import edu.ufl.cise.plc.ImageEngine;
+import edu.ufl.cise.plc.Interpreter.CompiledExpr;
+import edu.ufl.cise.plc.PLCException;
+import edu.ufl.cise.plc.TypeCheckException;
+import edu.ufl.cise.plc.VisitorInterpreter;
+import edu.ufl.cise.plc.ast.Expr;
+import edu.ufl.cise.plc.ast.Types.Type;
+import edu.ufl.cise.plc.runtime.ColorOps;
+import edu.ufl.cise.plc.runtime.Image;
+
+class ImageEngineTests {
+
+	Environment env = new Environment();
+
+	ImageEngineTests() {
+		env.declare("src", Type.IMAGE);
+		env.declare("k", Type.INT);
+		env.setInt("k", 3);
+		Random r = new Random(24);
+		int[] pixels = new int[50 * 30];
+		for (int i = 0; i < pixels.length; i++) {
+			pixels[i] = ColorOps.ALPHA | r.nextInt(1 << 24);
+		}
+		env.setImage("src", new Image(50, 30, pixels));
+	}
+
+	static Expr parse(String input) throws PLCException {
+		return (Expr) CompilerComponentFactory.getParser(input).parse();
+	}
+
+	@Test
+	void testFlip() throws PLCException {
+		Image src = new Image(3, 2, new int[] { 1, 2, 3, 4, 5, 6 });
+		env.setImage("src", src);
+		Image flipped = ImageEngine.render(parse("src[getWidth src - 1 - x, y]"), env, 3, 2);
+		assertArrayEquals(new int[] { 3, 2, 1, 6, 5, 4 }, flipped.pixels);
+	}
+
+	//an int is a gray color, clamped to 0..255
+	@Test
+	void testGray() throws PLCException {
+		Image gray = ImageEngine.render(parse("x * 100 - y"), env, 4, 2);
+		assertEquals(ColorOps.fromInt(0), gray.get(0, 0));
+		assertEquals(ColorOps.fromInt(0), gray.get(0, 1));
+		assertEquals(ColorOps.fromInt(199), gray.get(2, 1));
+		assertEquals(ColorOps.fromInt(255), gray.get(3, 0));
+	}
+
+	//x and y are bound in a copy, so env is unchanged
+	@Test
+	void testEnvironment() throws PLCException {
+		ImageEngine.render(parse("src[x, y] + k"), env, 5, 5);
+		assertEquals(-1, env.slot("x"));
+		env.declare("x", Type.FLOAT);
+		assertThrows(IllegalArgumentException.class, () -> ImageEngine.render(parse("src[0, y]"), env, 5, 5));
+	}
+
+	@Test
+	void testErrors() throws PLCException {
+		assertThrows(TypeCheckException.class, () -> ImageEngine.render(parse("x < y"), env, 5, 5));
+		assertThrows(TypeCheckException.class, () -> ImageEngine.render(parse("src"), env, 5, 5));
+		assertThrows(ArithmeticException.class, () -> ImageEngine.render(parse("255 / (x - 2)"), env, 5, 5));
+		assertThrows(IllegalArgumentException.class, () -> ImageEngine.render(parse("x"), env, 0, 5));
+		CompiledExpr noY = CompilerComponentFactory.getInterpreter().compile(parse("src[0, 0]"), env);
+		assertThrows(IllegalArgumentException.class, () -> ImageEngine.render(noY, env, 5, 5, ForkJoinPool.commonPool(), 1));
+	}
+
+	//every tiling, on either compiler, gives the pixels the AST visitor gives
+	@Test
+	void testSameAsVisitor() throws Exception {
+		Expr e = parse("if ((x + y) % k == 0) (src[x - 1, y] + src[x + 1, y]) / 2 else src[x, y - 1] * k - getGreen src[x, y] fi");
+		Image expected = new Image(50, 30);
+		Environment pixel = env.copy();
+		pixel.declare("x", Type.INT);
+		pixel.declare("y", Type.INT);
+		for (int y = 0; y < 30; y++) {
+			for (int x = 0; x < 50; x++) {
+				pixel.setInt("x", x);
+				pixel.setInt("y", y);
+				expected.set(x, y, (Integer) VisitorInterpreter.eval(e, pixel));
+			}
+		}
+		assertArrayEquals(expected.pixels, ImageEngine.render(e, env, 50, 30).pixels);
+		CompiledExpr interpreted = CompilerComponentFactory.getInterpreter().compile(e, pixel);
+		CompiledExpr bytecode = CompilerComponentFactory.getBytecodeCompiler().compile(e, pixel);
+		ForkJoinPool pool = new ForkJoinPool(3);
+		try {
+			for (int tiles : new int[] { 1, 4, 7, 30, 100 }) {
+				assertArrayEquals(expected.pixels, ImageEngine.render(interpreted, pixel, 50, 30, pool, tiles).pixels);
+				assertArrayEquals(expected.pixels, ImageEngine.render(bytecode, pixel, 50, 30, pool, tiles).pixels);
+			}
+		}
+		finally {
+			pool.shutdown();
+		}
+	}
+
+}
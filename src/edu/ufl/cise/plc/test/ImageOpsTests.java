@@ -0,0 +1,90 @@
+package edu.ufl.cise.plc.test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ufl.cise.plc.runtime.ColorOps;
+import edu.ufl.cise.plc.runtime.Image;
+import edu.ufl.cise.plc.runtime.ImageOps;
+
+class ImageOpsTests {
+
+	//every pair of component values, in each of the three components
+	@Test
+	void testPackedExhaustive() {
+		for (int i = 0; i < 256; i++) {
+			for (int j = 0; j < 256; j++) {
+				int a = ColorOps.pack(i, j, 255 - i);
+				int b = ColorOps.pack(j, i, (i + j) & 0xFF);
+				assertEquals(ColorOps.add(a, b), ImageOps.addPacked(a, b));
+				assertEquals(ColorOps.subtract(a, b), ImageOps.subtractPacked(a, b));
+				assertEquals(ColorOps.subtract(b, a), ImageOps.subtractPacked(b, a));
+				assertEquals(ColorOps.multiply(a, ColorOps.fromInt(j)), ImageOps.scalePacked(a, j));
+			}
+		}
+	}
+
+	static int[] pixels(Random r, int n) {
+		int[] pixels = new int[n];
+		for (int i = 0; i < n; i++) {
+			// small components, so some multiplications do not saturate
+			pixels[i] = r.nextBoolean() ? ColorOps.ALPHA | r.nextInt(1 << 24) : ColorOps.pack(r.nextInt(20), r.nextInt(20), r.nextInt(20));
+		}
+		return pixels;
+	}
+
+	@Test
+	void testKernels() {
+		Random r = new Random(25);
+		int[] a = pixels(r, 1001);
+		int[] b = pixels(r, 1001);
+		int[] expected = new int[1001];
+		int[] out = new int[1001];
+		ImageOps.addScalar(a, b, expected);
+		ImageOps.add(a, b, out);
+		assertArrayEquals(expected, out);
+		ImageOps.subtractScalar(a, b, expected);
+		ImageOps.subtract(a, b, out);
+		assertArrayEquals(expected, out);
+		for (int color : new int[] { ColorOps.fromInt(0), ColorOps.fromInt(3), ColorOps.fromInt(255), ColorOps.pack(1, 2, 3) }) {
+			ImageOps.addScalar(a, color, expected);
+			ImageOps.add(a, color, out);
+			assertArrayEquals(expected, out);
+			ImageOps.subtractScalar(a, color, expected);
+			ImageOps.subtract(a, color, out);
+			assertArrayEquals(expected, out);
+			ImageOps.subtractScalar(color, a, expected);
+			ImageOps.subtract(color, a, out);
+			assertArrayEquals(expected, out);
+			ImageOps.multiplyScalar(a, color, expected);
+			ImageOps.multiply(a, color, out);
+			assertArrayEquals(expected, out);
+		}
+	}
+
+	//apply gives a new image, the same way round for either side
+	@Test
+	void testApply() {
+		Image a = new Image(3, 2, new int[] { ColorOps.pack(10, 20, 30), ColorOps.pack(200, 200, 200), ColorOps.pack(0, 0, 1),
+				ColorOps.pack(1, 2, 3), ColorOps.pack(255, 0, 128), ColorOps.pack(9, 9, 9) });
+		int gray = ColorOps.fromInt(100);
+		Image sum = ImageOps.apply(a, gray, ImageOps.ADD);
+		assertEquals(sum, ImageOps.apply(gray, a, ImageOps.ADD));
+		assertEquals(ColorOps.pack(110, 120, 130), sum.get(0, 0));
+		assertEquals(ColorOps.pack(255, 255, 255), sum.get(1, 0));
+		assertEquals(ColorOps.pack(90, 80, 70), ImageOps.apply(gray, a, ImageOps.SUBTRACT).get(0, 0));
+		assertEquals(ColorOps.pack(0, 0, 0), ImageOps.apply(a, gray, ImageOps.SUBTRACT).get(0, 0));
+		assertEquals(ColorOps.pack(3, 6, 10), ImageOps.apply(a, ColorOps.fromInt(3), ImageOps.DIVIDE).get(0, 0));
+		assertEquals(ColorOps.pack(3, 6, 2), ImageOps.apply(a, ColorOps.fromInt(7), ImageOps.MOD).get(0, 0));
+		assertEquals(ColorOps.pack(30, 60, 90), ImageOps.apply(a, ColorOps.fromInt(3), ImageOps.MULTIPLY).get(0, 0));
+		assertEquals(a, new Image(3, 2, a.pixels.clone()));
+		assertThrows(ArithmeticException.class, () -> ImageOps.apply(a, a, ImageOps.DIVIDE));
+		assertThrows(IllegalArgumentException.class, () -> ImageOps.apply(a, new Image(2, 3), ImageOps.ADD));
+	}
+
+}
@@ -0,0 +1,279 @@
+package edu.ufl.cise.plc.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ufl.cise.plc.CompilerComponentFactory;
+import edu.ufl.cise.plc.Environment;
+import edu.ufl.cise.plc.IToken.SourceLocation;
+import edu.ufl.cise.plc.Interpreter;
+import edu.ufl.cise.plc.Interpreter.CompiledExpr;
+import edu.ufl.cise.plc.PLCException;
+import edu.ufl.cise.plc.TypeCheckException;
+import edu.ufl.cise.plc.VisitorInterpreter;
+import edu.ufl.cise.plc.ast.Expr;
+import edu.ufl.cise.plc.ast.HashConsFactory;
+import edu.ufl.cise.plc.ast.Types.Type;
+import edu.ufl.cise.plc.runtime.ColorOps;
+import edu.ufl.cise.plc.runtime.Image;
+
+public class InterpreterTests {
+
+	Environment env = new Environment();
+	// a 4x3 image whose pixel (x, y) has red 10 * x and green 10 * y
+	Image img = new Image(4, 3);
+
+	InterpreterTests() {
+		env.declare("x", Type.INT);
+		env.declare("y", Type.INT);
+		env.declare("f", Type.FLOAT);
+		env.declare("b", Type.BOOLEAN);
+		env.declare("c", Type.COLOR);
+		env.declare("s", Type.STRING);
+		env.declare("img", Type.IMAGE);
+		env.setInt("x", 7);
+		env.setInt("y", -3);
+		env.setFloat("f", 2.5f);
+		env.setBoolean("b", true);
+		env.setColor("c", ColorOps.pack(10, 100, 250));
+		env.setString("s", "abc");
+		for (int y = 0; y < 3; y++) {
+			for (int x = 0; x < 4; x++) {
+				img.set(x, y, ColorOps.pack(10 * x, 10 * y, 0));
+			}
+		}
+		env.setImage("img", img);
+	}
+
+	CompiledExpr compile(String input) throws PLCException {
+		return Interpreter.compile((Expr) CompilerComponentFactory.getParser(input).parse(), env);
+	}
+
+	Object eval(String input) throws PLCException {
+		return compile(input).eval(env);
+	}
+
+	@Test
+	void testInts() throws PLCException {
+		assertEquals(7 * 2 + -3, eval("x * 2 + y"));
+		assertEquals(7 / -3, eval("x / y"));
+		assertEquals(7 % -3, eval("x % y"));
+		assertEquals(-7, eval("-x"));
+		assertEquals(Integer.MIN_VALUE, eval("2147483647 + x - 6"));
+		assertEquals(Type.INT, compile("if (b) x else y fi").type);
+		assertEquals(7, compile("if (b) x else y fi").evalInt(env));
+	}
+
+	@Test
+	void testFloats() throws PLCException {
+		assertEquals(2.5f * 7, eval("f * x"));
+		assertEquals(7 / 2.5f, compile("x / f").evalFloat(env));
+		assertEquals(Float.POSITIVE_INFINITY, eval("f / 0"));
+		assertEquals(true, eval("x > f & f >= 2.5"));
+	}
+
+	@Test
+	void testBooleansAndStrings() throws PLCException {
+		assertEquals(false, compile("!b | x == y").evalBoolean(env));
+		assertEquals(true, eval("s == \"abc\""));
+		assertEquals(true, eval("b != false"));
+		assertEquals("abc", compile("if (x < y) \"no\" else s fi").evalObject(env));
+	}
+
+	@Test
+	void testColors() throws PLCException {
+		assertEquals(ColorOps.pack(20, 200, 255), compile("c * 2").evalInt(env));
+		assertEquals(ColorOps.pack(0, 90, 240), eval("c - 10"));
+		assertEquals(100, eval("getGreen c"));
+		assertEquals(true, eval("c + 0 == c"));
+	}
+
+	//pixels outside the image are read from its nearest edge
+	@Test
+	void testImages() throws PLCException {
+		assertEquals(4, eval("getWidth img"));
+		assertEquals(3, compile("getHeight img").evalInt(env));
+		assertEquals(ColorOps.pack(10, 20, 0), compile("img[1, 2]").evalInt(env));
+		assertEquals(Type.COLOR, compile("img[x, y]").type);
+		assertEquals(ColorOps.pack(30, 0, 0), eval("img[x, y]"));
+		assertEquals(ColorOps.pack(0, 20, 0), eval("img[x - 10, 99]"));
+		assertEquals(31, eval("getRed img[getWidth img - 1, 0] + 1"));
+		assertEquals(ColorOps.pack(20, 20, 0), eval("img[1, 1] * 2"));
+		assertThrows(TypeCheckException.class, () -> compile("x[0, 0]"));
+		assertThrows(TypeCheckException.class, () -> compile("img[f, 0]"));
+		assertThrows(TypeCheckException.class, () -> compile("getWidth c"));
+		assertThrows(TypeCheckException.class, () -> compile("getRed img"));
+	}
+
+	//arithmetic on an image applies to every pixel and gives a new image
+	@Test
+	void testImageArithmetic() throws PLCException {
+		Image doubled = (Image) compile("img * 2").evalObject(env);
+		assertEquals(ColorOps.pack(60, 40, 0), doubled.get(3, 2));
+		assertEquals(ColorOps.pack(10, 10, 0), img.get(1, 1));
+		assertEquals(Type.IMAGE, compile("c - img").type);
+		assertEquals(ColorOps.pack(0, 80, 250), ((Image) eval("c - img")).get(3, 2));
+		assertEquals(img, eval("img + (c - c) + 200 * 0"));
+		assertEquals(true, eval("img + img == img * 2"));
+		assertEquals(false, eval("img + 1 == img"));
+		assertEquals(4, eval("getWidth (img - img)"));
+		assertEquals(ColorOps.pack(20, 0, 0), eval("(img + img)[1, 0]"));
+		CompiledExpr divide = compile("img / x");
+		env.setInt("x", 0);
+		assertThrows(ArithmeticException.class, () -> divide.evalObject(env));
+		assertThrows(TypeCheckException.class, () -> compile("img + f"));
+		assertThrows(TypeCheckException.class, () -> compile("img < img"));
+	}
+
+	//short circuiting skips the division by zero
+	@Test
+	void testShortCircuit() throws PLCException {
+		assertEquals(false, eval("false & 1 / 0 == 0"));
+		assertEquals(true, eval("b | x / 0 == 0"));
+	}
+
+	//constant operands are folded while compiling, unless that fails
+	@Test
+	void testDivisionByZero() throws PLCException {
+		CompiledExpr e = compile("1 / (x - 7)");
+		assertThrows(ArithmeticException.class, () -> e.evalInt(env));
+		CompiledExpr constant = compile("1 / 0 + 2");
+		assertThrows(ArithmeticException.class, () -> constant.evalInt(env));
+	}
+
+	@Test
+	void testTypeErrors() {
+		assertThrows(TypeCheckException.class, () -> compile("x + s"));
+		assertThrows(TypeCheckException.class, () -> compile("c < c"));
+		assertThrows(TypeCheckException.class, () -> compile("!x"));
+		assertThrows(TypeCheckException.class, () -> compile("getRed x"));
+		assertThrows(TypeCheckException.class, () -> compile("if (true) 1 else 1.0 fi"));
+		assertThrows(TypeCheckException.class, () -> compile("b & (x | b)"));
+		TypeCheckException e = assertThrows(TypeCheckException.class, () -> compile("if (x) y else\n z fi"));
+		assertEquals(new SourceLocation(0, 4), e.getLocation());
+		e = assertThrows(TypeCheckException.class, () -> compile("x +\n z"));
+		assertEquals(new SourceLocation(1, 1), e.getLocation());
+	}
+
+	//a compiled expression reads whatever environment it is evaluated with
+	@Test
+	void testEnvironments() throws PLCException {
+		CompiledExpr e = compile("x * x + y");
+		Environment copy = env.copy();
+		copy.setInt("x", 10);
+		assertEquals(97, e.evalInt(copy));
+		assertEquals(46, e.evalInt(env));
+	}
+
+	static String intExpr(Random r, int depth) {
+		if (depth == 0 || r.nextInt(4) == 0) {
+			String[] leaves = { "x", "y", "0", "1", "2", "17", "2147483647" };
+			return leaves[r.nextInt(leaves.length)];
+		}
+		String[] ops = { "+", "-", "*", "/", "%" };
+		String[] colorOps = { "getRed", "getGreen", "getBlue" };
+		return switch (r.nextInt(6)) {
+		case 0 -> "-" + intExpr(r, depth - 1);
+		case 1 -> "(if (" + booleanExpr(r, depth - 1) + ") " + intExpr(r, depth - 1) + " else " + intExpr(r, depth - 1) + " fi)";
+		case 2 -> colorOps[r.nextInt(colorOps.length)] + " (" + colorExpr(r, depth - 1) + ")";
+		case 3 -> (r.nextBoolean() ? "getWidth (" : "getHeight (") + imageExpr(r, depth - 1) + ")";
+		default -> "(" + intExpr(r, depth - 1) + " " + ops[r.nextInt(ops.length)] + " " + intExpr(r, depth - 1) + ")";
+		};
+	}
+
+	static String floatExpr(Random r, int depth) {
+		if (depth == 0 || r.nextInt(4) == 0) {
+			String[] leaves = { "f", "0.5", "1.0", "3.25" };
+			return leaves[r.nextInt(leaves.length)];
+		}
+		String[] ops = { "+", "-", "*", "/", "%" };
+		return switch (r.nextInt(4)) {
+		case 0 -> "-" + floatExpr(r, depth - 1);
+		case 1 -> "(if (" + booleanExpr(r, depth - 1) + ") " + floatExpr(r, depth - 1) + " else " + floatExpr(r, depth - 1) + " fi)";
+		case 2 -> "(" + intExpr(r, depth - 1) + " " + ops[r.nextInt(ops.length)] + " " + floatExpr(r, depth - 1) + ")";
+		default -> "(" + floatExpr(r, depth - 1) + " " + ops[r.nextInt(ops.length)] + " " + floatExpr(r, depth - 1) + ")";
+		};
+	}
+
+	static String booleanExpr(Random r, int depth) {
+		if (depth == 0 || r.nextInt(4) == 0) {
+			String[] leaves = { "b", "true", "false" };
+			return leaves[r.nextInt(leaves.length)];
+		}
+		String[] comparisons = { "<", ">", "<=", ">=", "==", "!=" };
+		return switch (r.nextInt(6)) {
+		case 0 -> "!" + booleanExpr(r, depth - 1);
+		case 1 -> "(" + booleanExpr(r, depth - 1) + (r.nextBoolean() ? " & " : " | ") + booleanExpr(r, depth - 1) + ")";
+		case 2 -> "(" + intExpr(r, depth - 1) + " " + comparisons[r.nextInt(6)] + " " + intExpr(r, depth - 1) + ")";
+		case 3 -> "(" + floatExpr(r, depth - 1) + " " + comparisons[r.nextInt(6)] + " " + intExpr(r, depth - 1) + ")";
+		case 4 -> "(" + colorExpr(r, depth - 1) + (r.nextBoolean() ? " == " : " != ") + colorExpr(r, depth - 1) + ")";
+		default -> "(s == \"abc\")";
+		};
+	}
+
+	static String colorExpr(Random r, int depth) {
+		if (depth == 0 || r.nextInt(3) == 0) {
+			return r.nextBoolean() ? "c" : "img[" + intExpr(r, Math.max(depth - 1, 0)) + ", " + intExpr(r, Math.max(depth - 1, 0)) + "]";
+		}
+		String[] ops = { "+", "-", "*", "/", "%" };
+		return switch (r.nextInt(3)) {
+		case 0 -> "(" + colorExpr(r, depth - 1) + " " + ops[r.nextInt(ops.length)] + " " + intExpr(r, depth - 1) + ")";
+		case 1 -> "(if (" + booleanExpr(r, depth - 1) + ") " + colorExpr(r, depth - 1) + " else " + colorExpr(r, depth - 1) + " fi)";
+		default -> "(" + colorExpr(r, depth - 1) + " " + ops[r.nextInt(ops.length)] + " " + colorExpr(r, depth - 1) + ")";
+		};
+	}
+
+	static String imageExpr(Random r, int depth) {
+		if (depth == 0 || r.nextInt(3) == 0) {
+			return "img";
+		}
+		String[] ops = { "+", "-", "*", "/", "%" };
+		String op = " " + ops[r.nextInt(ops.length)] + " ";
+		String other = r.nextBoolean() ? colorExpr(r, depth - 1) : intExpr(r, depth - 1);
+		return switch (r.nextInt(4)) {
+		case 0 -> "(" + imageExpr(r, depth - 1) + op + other + ")";
+		case 1 -> "(" + other + op + imageExpr(r, depth - 1) + ")";
+		case 2 -> "(if (" + booleanExpr(r, depth - 1) + ") " + imageExpr(r, depth - 1) + " else " + imageExpr(r, depth - 1) + " fi)";
+		default -> "(" + imageExpr(r, depth - 1) + op + imageExpr(r, depth - 1) + ")";
+		};
+	}
+
+	//random expressions of every type give the same value, or the same exception, as the AST visitor,
+	//also when they are hash-consed with all the expressions before them
+	@Test
+	void testSameAsVisitor() throws Exception {
+		Random r = new Random(22);
+		HashConsFactory factory = new HashConsFactory();
+		for (int n = 0; n < 2000; n++) {
+			String input = switch (n % 5) {
+			case 0 -> intExpr(r, 5);
+			case 1 -> floatExpr(r, 5);
+			case 2 -> booleanExpr(r, 5);
+			case 3 -> colorExpr(r, 5);
+			default -> imageExpr(r, 4);
+			};
+			Expr ast = (Expr) CompilerComponentFactory.getParser(input).parse();
+			CompiledExpr compiled = Interpreter.compile(ast, env);
+			CompiledExpr shared = Interpreter.compile(factory.intern(ast), env);
+			env.setInt("x", r.nextInt(20) - 10);
+			env.setFloat("f", r.nextFloat() * 4 - 2);
+			env.setBoolean("b", r.nextBoolean());
+			Object expected;
+			try {
+				expected = VisitorInterpreter.eval(ast, env);
+			}
+			catch (ArithmeticException e) {
+				assertThrows(ArithmeticException.class, () -> compiled.eval(env), input);
+				assertThrows(ArithmeticException.class, () -> shared.eval(env), input);
+				continue;
+			}
+			assertEquals(expected, compiled.eval(env), input);
+			assertEquals(expected, shared.eval(env), input);
+		}
+	}
+
+}
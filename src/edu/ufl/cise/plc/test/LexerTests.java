@@ -378,5 +378,136 @@ public class LexerTests {
 		checkToken(lexer.next(), Kind.IMAGE_OP, 0,9);
 		checkEOF(lexer.next());
 	}
+	
+	// peek returns the next token without consuming it
+	@Test
+	public void testPeek() throws LexicalException {
+		String input = """
+				a +
+				  b
+				""";
+		ILexer lexer = getLexer(input);
+		checkIdent(lexer.peek(), "a", 0,0);
+		checkIdent(lexer.peek(), "a", 0,0);
+		checkIdent(lexer.next(), "a", 0,0);
+		checkToken(lexer.next(), Kind.PLUS, 0,2);
+		checkIdent(lexer.peek(), "b", 1,2);
+		checkIdent(lexer.next(), "b", 1,2);
+		checkEOF(lexer.peek());
+		checkEOF(lexer.next());
+		checkEOF(lexer.next());
+	}
+	
+	// peek(k) looks several tokens ahead without consuming any of them
+	@Test
+	public void testPeekK() throws LexicalException {
+		String input = """
+				<< a, b >> < c
+				""";
+		ILexer lexer = getLexer(input);
+		checkToken(lexer.peek(4), Kind.RANGLE, 0,8);
+		checkToken(lexer.peek(0), Kind.LANGLE, 0,0);
+		checkIdent(lexer.peek(1), "a", 0,3);
+		checkToken(lexer.next(), Kind.LANGLE, 0,0);
+		checkToken(lexer.peek(3), Kind.RANGLE, 0,8);
+		checkToken(lexer.peek(4), Kind.LT, 0,11);
+		checkIdent(lexer.peek(5), "c", 0,13);
+		checkEOF(lexer.peek(6));
+		checkEOF(lexer.peek(7));
+		checkIdent(lexer.next(), "a", 0,3);
+		checkToken(lexer.next(), Kind.COMMA, 0,4);
+		checkIdent(lexer.next(), "b", 0,6);
+		checkToken(lexer.next(), Kind.RANGLE, 0,8);
+		checkToken(lexer.next(), Kind.LT, 0,11);
+		checkIdent(lexer.next(), "c", 0,13);
+		checkEOF(lexer.next());
+		assertThrows(IllegalArgumentException.class, () -> {
+			lexer.peek(ILexer.LOOKAHEAD);
+		});
+	}
+	
+	// tokens and comments at the very end of the input, without a final new line
+	@Test
+	public void testNoTrailingNewLine() throws LexicalException {
+		String input = "abc0 12 0 3.5 #done";
+		ILexer lexer = getLexer(input);
+		checkIdent(lexer.next(), "abc0", 0,0);
+		checkInt(lexer.next(), 12, 0,5);
+		checkInt(lexer.next(), 0, 0,8);
+		checkToken(lexer.next(), Kind.FLOAT_LIT, 0,10);
+		checkEOF(lexer.next());
+		lexer = getLexer("x10");
+		checkIdent(lexer.next(), "x10", 0,0);
+		checkEOF(lexer.next());
+	}
+
+	// values of literals, decoded by the lexer
+	@Test
+	public void testLiteralValues() throws LexicalException {
+		String input = """
+				2147483647 0 3.25 0.1 123456789.123456789 true false
+				""";
+		ILexer lexer = getLexer(input);
+		checkInt(lexer.next(), 2147483647, 0,0);
+		checkInt(lexer.next(), 0, 0,11);
+		assertEquals(3.25f, lexer.next().getFloatValue());
+		assertEquals(0.1f, lexer.next().getFloatValue());
+		assertEquals(123456789.123456789f, lexer.next().getFloatValue());
+		assertEquals(true, lexer.next().getBooleanValue());
+		assertEquals(false, lexer.next().getBooleanValue());
+		checkEOF(lexer.next());
+	}
+	
+	// string literals may contain escape sequences, any other character and new lines
+	@Test
+	public void testStringLit() throws LexicalException {
+		String input = """
+				"a\\tb\\"c\\\\" "1 + 2;"
+				"two
+				lines" x
+				""";
+		ILexer lexer = getLexer(input);
+		IToken t = lexer.next();
+		checkToken(t, Kind.STRING_LIT, 0,0);
+		assertEquals("a\tb\"c\\", t.getStringValue());
+		t = lexer.next();
+		checkToken(t, Kind.STRING_LIT, 0,12);
+		assertEquals("1 + 2;", t.getStringValue());
+		t = lexer.next();
+		checkToken(t, Kind.STRING_LIT, 1,0);
+		assertEquals("two\nlines", t.getStringValue());
+		checkIdent(lexer.next(), "x", 2,7);
+		checkEOF(lexer.next());
+	}
+	
+	// illegal escape sequences and unterminated string literals are lexical errors
+	@Test
+	public void testStringLitError() throws LexicalException {
+		ILexer lexer = getLexer("\"a\\qb\"");
+		assertThrows(LexicalException.class, () -> {
+			lexer.next();
+		});
+		ILexer lexer2 = getLexer("x \"abc");
+		checkIdent(lexer2.next(), "x", 0,0);
+		assertThrows(LexicalException.class, () -> {
+			lexer2.next();
+		});
+	}
+
+	// a backslash at the end of a line is an error, and the tokens on the next lines are still on
+	// the right lines
+	@Test
+	public void testEscapeAtEndOfLine() throws LexicalException {
+		String input = "x \"a\\\n  b\nc";
+		show(input);
+		ILexer lexer = getLexer(input);
+		checkIdent(lexer.next(), "x", 0,0);
+		assertThrows(LexicalException.class, () -> {
+			lexer.next();
+		});
+		checkIdent(lexer.next(), "b", 1,2);
+		checkIdent(lexer.next(), "c", 2,0);
+		checkEOF(lexer.next());
+	}
 
 }
@@ -0,0 +1,113 @@
+package edu.ufl.cise.plc.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ufl.cise.plc.CompilerComponentFactory;
+import edu.ufl.cise.plc.IParser;
+import edu.ufl.cise.plc.PLCException;
+import edu.ufl.cise.plc.SyntaxException;
+import edu.ufl.cise.plc.ast.ASTNode;
+import edu.ufl.cise.plc.ast.BinaryExpr;
+import edu.ufl.cise.plc.ast.ConditionalExpr;
+import edu.ufl.cise.plc.ast.PixelSelector;
+import edu.ufl.cise.plc.ast.UnaryExpr;
+import edu.ufl.cise.plc.ast.UnaryExprPostfix;
+
+//checks that the parser from the factory builds the same ASTs as the recursive descent parser
+public class ParserTests {
+
+	IParser getParser(String input) {
+		return CompilerComponentFactory.getParser(input);
+	}
+
+	//check that the two trees have the same shape, and the same first token at every node
+	static void assertSameAST(ASTNode expected, ASTNode actual) {
+		assertEquals(expected.getClass(), actual.getClass());
+		assertEquals(expected.getSourceLoc(), actual.getSourceLoc());
+		assertEquals(expected.getText(), actual.getText());
+		if (expected instanceof BinaryExpr e) {
+			BinaryExpr a = (BinaryExpr) actual;
+			assertEquals(e.getOp().getKind(), a.getOp().getKind());
+			assertSameAST(e.getLeft(), a.getLeft());
+			assertSameAST(e.getRight(), a.getRight());
+		}
+		else if (expected instanceof UnaryExpr e) {
+			assertSameAST(e.getExpr(), ((UnaryExpr) actual).getExpr());
+		}
+		else if (expected instanceof UnaryExprPostfix e) {
+			assertSameAST(e.getExpr(), ((UnaryExprPostfix) actual).getExpr());
+			assertSameAST(e.getSelector(), ((UnaryExprPostfix) actual).getSelector());
+		}
+		else if (expected instanceof PixelSelector e) {
+			assertSameAST(e.getX(), ((PixelSelector) actual).getX());
+			assertSameAST(e.getY(), ((PixelSelector) actual).getY());
+		}
+		else if (expected instanceof ConditionalExpr e) {
+			ConditionalExpr a = (ConditionalExpr) actual;
+			assertSameAST(e.getCondition(), a.getCondition());
+			assertSameAST(e.getTrueCase(), a.getTrueCase());
+			assertSameAST(e.getFalseCase(), a.getFalseCase());
+		}
+	}
+
+	//returns a random expression, which is sometimes not legal
+	static String randomExpr(Random r, int depth) {
+		String[] binary = { "|", "&", "<", ">", "==", "!=", "<=", ">=", "+", "-", "*", "/", "%" };
+		String[] unary = { "!", "-", "getRed ", "getGreen ", "getBlue ", "getWidth ", "getHeight " };
+		String[] primary = { "a", "b1", "12", "3.5", "true", "\"s\"", "x" };
+		if (depth == 0 || r.nextInt(4) == 0) {
+			return primary[r.nextInt(primary.length)];
+		}
+		return switch (r.nextInt(6)) {
+		case 0 -> unary[r.nextInt(unary.length)] + randomExpr(r, depth - 1);
+		case 1 -> "(" + randomExpr(r, depth - 1) + ")";
+		case 2 -> "if (" + randomExpr(r, depth - 1) + ") " + randomExpr(r, depth - 1) + " else " + randomExpr(r, depth - 1) + " fi";
+		case 3 -> randomExpr(r, depth - 1) + "[" + randomExpr(r, depth - 1) + "," + randomExpr(r, depth - 1) + "]";
+		default -> randomExpr(r, depth - 1) + " " + binary[r.nextInt(binary.length)] + "\n" + randomExpr(r, depth - 1);
+		};
+	}
+
+	@Test
+	void testPrecedence() throws PLCException {
+		String input = "a | b & c == d + e * f - g / h";
+		assertSameAST(CompilerComponentFactory.getRecursiveDescentParser(input).parse(), getParser(input).parse());
+		BinaryExpr or = (BinaryExpr) getParser(input).parse();
+		assertEquals("b", ((BinaryExpr) or.getRight()).getLeft().getText());
+	}
+
+	@Test
+	void testSyntaxError() {
+		assertThrows(SyntaxException.class, () -> getParser("a + if (b) c else d fi").parse());
+		assertThrows(SyntaxException.class, () -> getParser("a + * b").parse());
+		assertThrows(SyntaxException.class, () -> getParser("(a + b").parse());
+	}
+
+	//random expressions give the same AST, or the same kind of exception, as the recursive descent parser
+	@Test
+	void testSameAsRecursiveDescent() {
+		Random r = new Random(16);
+		for (int n = 0; n < 1000; n++) {
+			String input = randomExpr(r, 6);
+			ASTNode expected;
+			try {
+				expected = CompilerComponentFactory.getRecursiveDescentParser(input).parse();
+			}
+			catch (PLCException e) {
+				assertThrows(e.getClass(), () -> getParser(input).parse(), input);
+				continue;
+			}
+			try {
+				assertSameAST(expected, getParser(input).parse());
+			}
+			catch (PLCException e) {
+				throw new AssertionError(input, e);
+			}
+		}
+	}
+
+}
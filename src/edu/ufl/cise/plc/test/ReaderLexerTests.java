@@ -0,0 +1,65 @@
+package edu.ufl.cise.plc.test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.CharBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ufl.cise.plc.CompilerComponentFactory;
+import edu.ufl.cise.plc.ILexer;
+import edu.ufl.cise.plc.IToken.Kind;
+import edu.ufl.cise.plc.LexicalException;
+
+//runs the lexer tests over a Reader that hands out one character at a time,
+//so every token is split between chunks
+public class ReaderLexerTests extends LexerTests {
+
+	@Override
+	ILexer getLexer(String input) {
+		return CompilerComponentFactory.getLexer(new Reader() {
+			final StringReader in = new StringReader(input);
+
+			@Override
+			public int read(char[] cbuf, int off, int len) throws IOException {
+				return in.read(cbuf, off, Math.min(len, 1));
+			}
+
+			@Override
+			public void close() {
+			}
+		});
+	}
+	
+	//positions are counted from the first remaining character of a CharBuffer
+	@Test
+	public void testCharBuffer() throws LexicalException {
+		CharBuffer buf = CharBuffer.wrap("xx abc\n  12 yy", 3, 11);
+		ILexer lexer = CompilerComponentFactory.getLexer(buf);
+		checkIdent(lexer.next(), "abc", 0,0);
+		checkInt(lexer.next(), 12, 1,2);
+		checkEOF(lexer.next());
+	}
+	
+	//a memory mapped source file
+	@Test
+	public void testPath() throws IOException, LexicalException {
+		Path file = Files.createTempFile("plc", ".txt");
+		try {
+			Files.writeString(file, "\"abc\"\n  x1 <= 2.5 # done\n");
+			ILexer lexer = CompilerComponentFactory.getLexer(file);
+			checkToken(lexer.next(), Kind.STRING_LIT, 0,0);
+			checkIdent(lexer.next(), "x1", 1,2);
+			checkToken(lexer.next(), Kind.LE, 1,5);
+			checkToken(lexer.next(), Kind.FLOAT_LIT, 1,8);
+			checkEOF(lexer.next());
+		}
+		finally {
+			Files.delete(file);
+		}
+	}
+
+}
@@ -0,0 +1,92 @@
+package edu.ufl.cise.plc.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ufl.cise.plc.CompilerComponentFactory;
+import edu.ufl.cise.plc.IParser;
+import edu.ufl.cise.plc.IToken.SourceLocation;
+import edu.ufl.cise.plc.LexicalException;
+import edu.ufl.cise.plc.PLCException;
+import edu.ufl.cise.plc.ParseResult;
+import edu.ufl.cise.plc.SyntaxException;
+import edu.ufl.cise.plc.ast.BinaryExpr;
+import edu.ufl.cise.plc.ast.ConditionalExpr;
+
+//runs the parser tests on the recovering parser, whose parse throws the first error,
+//and checks that one pass finds every error
+public class RecoveringParserTests extends ParserTests {
+
+	@Override
+	IParser getParser(String input) {
+		return CompilerComponentFactory.getRecoveringParser(input);
+	}
+
+	ParseResult parseAll(String input) {
+		return CompilerComponentFactory.getRecoveringParser(input).parseAll();
+	}
+
+	//check that the errors have the expected types and locations
+	void checkErrors(List<PLCException> errors, Object... expected) {
+		assertEquals(expected.length / 3, errors.size(), errors.toString());
+		for (int i = 0; i < errors.size(); i++) {
+			PLCException e = errors.get(i);
+			assertEquals(expected[3 * i], e.getClass(), e.getMessage());
+			assertEquals(new SourceLocation((Integer) expected[3 * i + 1], (Integer) expected[3 * i + 2]), e.getLocation());
+		}
+	}
+
+	@Test
+	void testNoErrors() {
+		ParseResult result = parseAll("a + b * c");
+		assertTrue(result.succeeded());
+		assertEquals("a", ((BinaryExpr) result.ast()).getLeft().getText());
+	}
+
+	//errors in each branch of a conditional are all reported, and the rest of the tree is kept
+	@Test
+	void testConditional() {
+		String input = """
+				if (a + ) b *
+				else c @ d fi
+				""";
+		ParseResult result = parseAll(input);
+		checkErrors(result.errors(),
+				SyntaxException.class, 0, 8,
+				SyntaxException.class, 1, 0,
+				LexicalException.class, 1, 7,
+				SyntaxException.class, 1, 9);
+		ConditionalExpr e = (ConditionalExpr) result.ast();
+		assertNull(((BinaryExpr) e.getCondition()).getRight());
+		assertNull(((BinaryExpr) e.getTrueCase()).getRight());
+		assertEquals("c", e.getFalseCase().getText());
+	}
+
+	//missing closing tokens are reported once, where they were expected
+	@Test
+	void testMissingTokens() {
+		checkErrors(parseAll("(a + b * (c").errors(),
+				SyntaxException.class, 0, 11);
+		checkErrors(parseAll("x[1 2] + y").errors(),
+				SyntaxException.class, 0, 4);
+		checkErrors(parseAll("a ) b").errors(),
+				SyntaxException.class, 0, 2);
+	}
+
+	//illegal tokens are dropped, so parsing continues as if they were not there
+	@Test
+	void testLexicalErrors() {
+		ParseResult result = parseAll("a @+ 99999999999 # comment\n * ~ b");
+		checkErrors(result.errors(),
+				LexicalException.class, 0, 2,
+				LexicalException.class, 0, 5,
+				SyntaxException.class, 1, 1,
+				LexicalException.class, 1, 3);
+	}
+
+}
@@ -0,0 +1,56 @@
+package edu.ufl.cise.plc.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ufl.cise.plc.CompilerComponentFactory;
+import edu.ufl.cise.plc.IParser;
+import edu.ufl.cise.plc.IToken.SourceLocation;
+import edu.ufl.cise.plc.PLCException;
+import edu.ufl.cise.plc.SyntaxException;
+import edu.ufl.cise.plc.ast.ASTNode;
+import edu.ufl.cise.plc.ast.BinaryExpr;
+import edu.ufl.cise.plc.ast.ConditionalExpr;
+import edu.ufl.cise.plc.ast.Expr;
+import edu.ufl.cise.plc.ast.UnaryExpr;
+
+//runs the parser tests on the parser that does not recurse
+public class StackParserTests extends ParserTests {
+
+	@Override
+	IParser getParser(String input) {
+		return CompilerComponentFactory.getStackSafeParser(input);
+	}
+
+	//nesting far deeper than the recursive parsers can handle
+	@Test
+	void testDeep() throws PLCException {
+		int n = 20_000;
+		ASTNode ast = getParser("(".repeat(n) + "a" + " + b)".repeat(n)).parse();
+		// the outermost sum is inside the first '(', and its left operand starts at the second
+		BinaryExpr e = (BinaryExpr) ast;
+		assertEquals(new SourceLocation(0, 1), e.getSourceLoc());
+		assertEquals("b", e.getRight().getText());
+		ast = getParser("-!".repeat(n) + "x").parse();
+		Expr inner = (Expr) ast;
+		for (int i = 0; i < 2 * n; i++) {
+			inner = ((UnaryExpr) inner).getExpr();
+		}
+		assertEquals("x", inner.getText());
+		ast = getParser("if (c) 1 else ".repeat(n) + "0" + " fi".repeat(n)).parse();
+		assertEquals("c", ((ConditionalExpr) ast).getCondition().getText());
+	}
+
+	//going past the depth limit is a syntax error at the token that starts the construct
+	@Test
+	void testDepthLimit() {
+		SyntaxException e = assertThrows(SyntaxException.class, () -> {
+			CompilerComponentFactory.getStackSafeParser("a + (b * (c -\n (d)))", 5).parse();
+		});
+		// the third '(' is the sixth frame
+		assertEquals("1:1 expression nested more than 5 deep", e.getMessage());
+	}
+
+}
@@ -0,0 +1,34 @@
+package edu.ufl.cise.plc.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ufl.cise.plc.Swar;
+
+class SwarTests {
+
+	//the bulk scans stop at the same index as the scalar ones, from every start and end
+	@Test
+	void testSameAsScalar() {
+		String alphabet = "aZ_$09 \t\r\n#@\"[`{/:\u00e9\u8000\uffff";
+		Random random = new Random(15);
+		for (int n = 0; n < 200; n++) {
+			char[] chars = new char[random.nextInt(40)];
+			for (int i = 0; i < chars.length; i++) {
+				// long runs of one char, so the scans cover whole words
+				chars[i] = random.nextInt(4) == 0 ? alphabet.charAt(random.nextInt(alphabet.length())) : i > 0 ? chars[i - 1] : 'a';
+			}
+			for (int start = 0; start <= chars.length; start++) {
+				for (int end = start; end <= chars.length; end++) {
+					assertEquals(Swar.indexOfScalar(chars, start, end, '\n'), Swar.indexOf(chars, start, end, '\n'));
+					assertEquals(Swar.skipIdentifierScalar(chars, start, end), Swar.skipIdentifier(chars, start, end));
+					assertEquals(Swar.skipBlanksScalar(chars, start, end), Swar.skipBlanks(chars, start, end));
+				}
+			}
+		}
+	}
+
+}
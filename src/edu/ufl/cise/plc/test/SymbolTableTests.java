@@ -0,0 +1,153 @@
+package edu.ufl.cise.plc.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ufl.cise.plc.CompilerComponentFactory;
+import edu.ufl.cise.plc.Environment;
+import edu.ufl.cise.plc.ILexer;
+import edu.ufl.cise.plc.IToken;
+import edu.ufl.cise.plc.Interpreter;
+import edu.ufl.cise.plc.PLCException;
+import edu.ufl.cise.plc.SymbolTable;
+import edu.ufl.cise.plc.TokenBuffer;
+import edu.ufl.cise.plc.ast.BinaryExpr;
+import edu.ufl.cise.plc.ast.Expr;
+import edu.ufl.cise.plc.ast.IdentExpr;
+import edu.ufl.cise.plc.ast.Types.Type;
+
+class SymbolTableTests {
+
+	// ids are dense, and the same spelling always gets the same id
+	@Test
+	void testIntern() {
+		SymbolTable table = new SymbolTable();
+		for (int i = 0; i < 1000; i++) {
+			assertEquals(i, table.intern("x" + i));
+		}
+		char[] chars = "  x512 ".toCharArray();
+		assertEquals(512, table.intern(chars, 2, 4));
+		assertEquals("x999", table.name(999));
+		assertEquals(1000, table.size());
+		assertEquals(999, table.find("x999"));
+		assertEquals(-1, table.find("x1000"));
+		assertEquals(1000, table.size());
+	}
+
+	// the lexer, the token buffer and the AST all give identifiers their id in the table they share
+	@Test
+	void testTokens() throws PLCException {
+		SymbolTable symbols = new SymbolTable();
+		ILexer lexer = CompilerComponentFactory.getLexer("abc xyz abc 12", symbols);
+		IToken abc = lexer.next();
+		IToken xyz = lexer.next();
+		assertEquals(abc.getSymbol(), lexer.next().getSymbol());
+		assertNotEquals(abc.getSymbol(), xyz.getSymbol());
+		IToken twelve = lexer.next();
+		assertEquals(-1, twelve.getSymbol());
+		assertNull(twelve.getSymbolTable());
+		assertSame(symbols, abc.getSymbolTable());
+		assertEquals("abc", symbols.name(abc.getSymbol()));
+		TokenBuffer buf = TokenBuffer.lex("xyz abc", symbols);
+		assertEquals(xyz.getSymbol(), buf.get(0).getSymbol());
+		assertEquals(abc.getSymbol(), buf.get(1).getSymbol());
+		assertSame(symbols, buf.get(1).getSymbolTable());
+		BinaryExpr e = (BinaryExpr) CompilerComponentFactory.getParser("abc + xyz", symbols).parse();
+		assertEquals(abc.getSymbol(), ((IdentExpr) e.getLeft()).getSymbol());
+		assertEquals(xyz.getSymbol(), ((IdentExpr) e.getRight()).getSymbol());
+		assertSame(symbols, ((IdentExpr) e.getRight()).getSymbolTable());
+		assertEquals(2, symbols.size());
+	}
+
+	// a source lexed without a table has its own, so no table grows with every source lexed
+	@Test
+	void testScoped() {
+		TokenBuffer a = TokenBuffer.lex("p q r p");
+		TokenBuffer b = TokenBuffer.lex("r");
+		assertEquals(3, a.symbols().size());
+		assertEquals(1, b.symbols().size());
+		assertEquals(0, b.get(0).getSymbol());
+		assertEquals(2, a.get(2).getSymbol());
+	}
+
+	// an environment given the table an expression is lexed with resolves its identifiers by id, and
+	// one with a table of its own finds them by name, which only holds the names of its variables
+	@Test
+	void testEnvironment() throws PLCException {
+		SymbolTable symbols = new SymbolTable();
+		for (int i = 0; i < 1000; i++) {
+			symbols.intern("v" + i);
+		}
+		Expr e = (Expr) CompilerComponentFactory.getParser("v999 * 2 + v0", symbols).parse();
+		Environment shared = new Environment(symbols);
+		Environment own = new Environment();
+		for (Environment env : new Environment[] { shared, own }) {
+			assertEquals(0, env.declare("v999", Type.INT));
+			assertEquals(1, env.declare("v0", Type.INT));
+			env.setInt("v0", 1);
+			env.setInt("v999", 20);
+			assertEquals(41, Interpreter.compile(e, env).evalInt(env));
+			assertEquals(41, CompilerComponentFactory.getBytecodeCompiler().compile(e, env).evalInt(env));
+			assertEquals(0, env.slot((IdentExpr) ((BinaryExpr) ((BinaryExpr) e).getLeft()).getLeft()));
+		}
+		// v0 is id 0 in symbols, and v999 is id 0 in the table of own
+		assertEquals(1, shared.slot(symbols, 0));
+		assertEquals(1, own.slot(symbols, 0));
+		assertEquals(0, own.slot(own.symbols(), 0));
+		assertEquals(2, own.symbols().size());
+		// a copy shares the table but not the declarations
+		Environment copy = own.copy();
+		copy.declare("w", Type.INT);
+		assertEquals(2, copy.slot("w"));
+		assertEquals(-1, own.slot("w"));
+		assertEquals(1, copy.slot("v0"));
+		assertThrows(IllegalArgumentException.class, () -> copy.declare("v0", Type.FLOAT));
+	}
+
+	// threads interning overlapping names all agree on the ids
+	@Test
+	void testConcurrent() throws Exception {
+		SymbolTable table = new SymbolTable();
+		int threads = 8;
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<int[]>> results = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				int seed = t;
+				results.add(pool.submit(() -> {
+					int[] ids = new int[5000];
+					for (int i = 0; i < ids.length; i++) {
+						// each thread goes through the names in a different order
+						int n = (i * 7 + seed * 613) % ids.length;
+						ids[n] = table.intern("name" + n);
+					}
+					return ids;
+				}));
+			}
+			int[] first = results.get(0).get();
+			for (Future<int[]> f : results) {
+				int[] ids = f.get();
+				for (int i = 0; i < ids.length; i++) {
+					assertEquals(first[i], ids[i]);
+					assertEquals("name" + i, table.name(ids[i]));
+				}
+			}
+			assertEquals(5000, table.size());
+		}
+		finally {
+			pool.shutdown();
+		}
+	}
+
+}
@@ -0,0 +1,64 @@
+package edu.ufl.cise.plc.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ufl.cise.plc.CompilerComponentFactory;
+import edu.ufl.cise.plc.ILexer;
+import edu.ufl.cise.plc.IToken;
+import edu.ufl.cise.plc.IToken.Kind;
+import edu.ufl.cise.plc.LexicalException;
+
+//runs the lexer tests on the table driven lexer
+public class TableLexerTests extends LexerTests {
+
+	@Override
+	ILexer getLexer(String input) {
+		return CompilerComponentFactory.getTableLexer(input);
+	}
+
+	//returns the next token, or null if it is illegal
+	IToken nextOrNull(ILexer lexer) {
+		try {
+			return lexer.next();
+		}
+		catch (LexicalException e) {
+			return null;
+		}
+	}
+
+	//both lexers give the same tokens for random sequences of fragments
+	@Test
+	public void testSameAsLexer() {
+		String[] fragments = { " ", "\n", "\t", "a", "b", "Z9", "_x", "0", "12", "3.", ".5", "<", ">", "=", "-", "!",
+				"<<", ">>", "(", "]", "+", "^", "\"", "\\", "\\n", "\\\n", "\"\\\n", "'", "#", "@", "if", "true", "getRed", "99999999999" };
+		Random random = new Random(14);
+		for (int n = 0; n < 500; n++) {
+			StringBuilder sb = new StringBuilder();
+			for (int i = random.nextInt(30); i > 0; i--) {
+				sb.append(fragments[random.nextInt(fragments.length)]);
+			}
+			String input = sb.toString();
+			ILexer expected = CompilerComponentFactory.getLexer(input);
+			ILexer actual = getLexer(input);
+			while (true) {
+				IToken e = nextOrNull(expected);
+				IToken a = nextOrNull(actual);
+				if (e == null || a == null) {
+					assertEquals(e == null, a == null, input);
+					continue;
+				}
+				assertEquals(e.getKind(), a.getKind(), input);
+				assertEquals(e.getText(), a.getText(), input);
+				assertEquals(e.getSourceLocation(), a.getSourceLocation(), input);
+				if (e.getKind() == Kind.EOF) {
+					break;
+				}
+			}
+		}
+	}
+
+}
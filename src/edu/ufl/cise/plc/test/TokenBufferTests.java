@@ -0,0 +1,168 @@
+package edu.ufl.cise.plc.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ufl.cise.plc.ILexer;
+import edu.ufl.cise.plc.IToken;
+import edu.ufl.cise.plc.IToken.Kind;
+import edu.ufl.cise.plc.ParallelLexer;
+import edu.ufl.cise.plc.TokenBuffer;
+
+//runs the lexer tests over the tokens stored in a TokenBuffer
+public class TokenBufferTests extends LexerTests {
+
+	@Override
+	ILexer getLexer(String input) {
+		return TokenBuffer.lex(input).lexer();
+	}
+	
+	//a single view can be moved over every token in the buffer
+	@Test
+	public void testView() {
+		String input = """
+				abc 12
+				  ==
+				""";
+		TokenBuffer buf = TokenBuffer.lex(input);
+		assertEquals(4, buf.size());
+		TokenBuffer.View t = buf.view();
+		checkIdent(t.moveTo(0), "abc", 0,0);
+		checkInt(t.moveTo(1), 12, 0,4);
+		checkToken(t.moveTo(2), Kind.EQUALS, 1,2);
+		assertEquals("==", t.getText());
+		checkEOF(t.moveTo(3));
+	}
+	
+	//check that the edited buffer has the same tokens and lines as one scanned from the new input
+	void checkEdit(String input, int offset, int removed, String inserted) {
+		String edited = input.substring(0, offset) + inserted + input.substring(offset + removed);
+		TokenBuffer expected = TokenBuffer.lex(edited);
+		TokenBuffer actual = TokenBuffer.lex(input).edit(offset, removed, inserted);
+		show(edited);
+		checkSame(expected, actual);
+	}
+	
+	//check that both buffers have the same tokens, values and lines
+	void checkSame(TokenBuffer expected, TokenBuffer actual) {
+		assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.kind(i), actual.kind(i));
+			assertEquals(expected.pos(i), actual.pos(i));
+			assertEquals(expected.length(i), actual.length(i));
+			assertEquals(expected.location(i), actual.location(i));
+			assertEquals(expected.text(i), actual.text(i));
+			IToken t = actual.get(i);
+			switch (t.getKind()) {
+			case STRING_LIT -> assertEquals(expected.get(i).getStringValue(), t.getStringValue());
+			//the buffers have different symbol tables, so their ids are compared by name
+			case IDENT -> assertEquals(actual.text(i), actual.symbols().name(t.getSymbol()));
+			default -> assertEquals(expected.get(i).getIntValue(), t.getIntValue());
+			}
+		}
+		assertEquals(expected.lines().lineCount(), actual.lines().lineCount());
+		for (int line = 0; line < expected.lines().lineCount(); line++) {
+			assertEquals(expected.lines().lineStart(line), actual.lines().lineStart(line));
+		}
+	}
+	
+	//edits that join, split, comment out and insert tokens
+	@Test
+	public void testEdit() {
+		String input = """
+				abc = 12 + x;
+				# comment
+				y <= 3.5
+				""";
+		checkEdit(input, 3, 0, "d");
+		checkEdit(input, 1, 1, "");
+		checkEdit(input, 4, 2, "==");
+		checkEdit(input, 0, 0, "#");
+		checkEdit(input, 14, 1, "");
+		checkEdit(input, 6, 7, "\nz\n");
+		checkEdit(input, 26, 1, "");
+		checkEdit(input, input.length(), 0, "q");
+		checkEdit(input, 0, input.length(), "");
+	}
+	
+	//many edits of the same buffer, before, inside and after the earlier ones, so the gaps of the
+	//source, the tokens and the lines are moved both ways, and sometimes have to grow
+	@Test
+	public void testEditSequence() {
+		String[] fragments = { "a", "bc", " ", "\n", "12", "3.5", "==", "+", "#", "\"", "x\ny", "", "\"s\\t\"",
+				"if (a) b else 7 fi\n".repeat(30) };
+		Random r = new Random(6);
+		StringBuilder text = new StringBuilder("abc = 12 + x;\n# comment\ny <= 3.5\n".repeat(4));
+		TokenBuffer buf = TokenBuffer.lex(text.toString());
+		for (int n = 0; n < 500; n++) {
+			int offset = r.nextInt(text.length() + 1);
+			int removed = r.nextInt(Math.min(r.nextInt(10) == 0 ? 200 : 4, text.length() - offset) + 1);
+			String inserted = fragments[r.nextInt(fragments.length)];
+			text.replace(offset, offset + removed, inserted);
+			assertSame(buf, buf.edit(offset, removed, inserted));
+			checkSame(TokenBuffer.lex(text.toString()), buf);
+		}
+	}
+
+	//lexing in chunks on several threads gives the same tokens as lexing sequentially
+	@Test
+	public void testParallel() {
+		String input = """
+				abc = 12 + x; # comment
+				"a string" <= 3.5
+
+				  y
+				""".repeat(50);
+		TokenBuffer expected = TokenBuffer.lex(input);
+		for (int chunks = 1; chunks < 20; chunks++) {
+			checkSame(expected, ParallelLexer.lex(input.toCharArray(), ForkJoinPool.commonPool(), chunks));
+		}
+		//a buffer lexed in parallel can be edited like any other
+		String edited = input.substring(0, 100) + "\"new\nlines\"" + input.substring(100);
+		checkSame(TokenBuffer.lex(edited), ParallelLexer.lex(input.toCharArray(), ForkJoinPool.commonPool(), 7).edit(100, 0, "\"new\nlines\""));
+	}
+
+	//chunks that start inside multi-line string literals, including chunks entirely inside one, and
+	//comments and escapes with quotes in them, so chunks are lexed from the wrong state and have to be
+	//re-lexed from the previous one when they are stitched together
+	@Test
+	public void testParallelSplitInString() {
+		String input = ("""
+				a = "a string
+				# not a comment, and not the end \\" of it
+				  over three lines" + b # a comment with a " in it
+				c "
+				""" + "  line of a long string\n".repeat(200) + """
+				" d "\\"\\
+				"
+				""").repeat(20);
+		TokenBuffer expected = TokenBuffer.lex(input);
+		for (int chunks = 2; chunks < 60; chunks += 3) {
+			checkSame(expected, ParallelLexer.lex(input.toCharArray(), ForkJoinPool.commonPool(), chunks));
+		}
+	}
+
+	//random sources made of quotes, escapes, comments and new lines, split in many ways
+	@Test
+	public void testParallelRandom() {
+		String[] fragments = { "\"", "\n", "\n", "#", "\\\"", "\\", "ab", " ", "12", "==", "\"\n\"" };
+		Random r = new Random(9);
+		for (int n = 0; n < 20; n++) {
+			StringBuilder sb = new StringBuilder();
+			for (int i = 0; i < 2000; i++) {
+				sb.append(fragments[r.nextInt(fragments.length)]);
+			}
+			String input = sb.toString();
+			TokenBuffer expected = TokenBuffer.lex(input);
+			for (int chunks : new int[] { 2, 3, 7, 16, 50 }) {
+				checkSame(expected, ParallelLexer.lex(input.toCharArray(), ForkJoinPool.commonPool(), chunks));
+			}
+		}
+	}
+
+}